@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.confluent.connect.jdbc.sink;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures adding a batch of records to a buffer, flushing it and committing, with the same buffer
+ * and so the same prepared statement reused across batches.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BufferedRecordsBenchmark {
+
+  @Param({"SQLITE_FILE", "SQLITE_MEMORY", "DERBY"})
+  public SinkBenchmarks.Database database;
+
+  @Param({"100", "1000"})
+  public int batchSize;
+
+  @Param({"10", "100"})
+  public int width;
+
+  @Param({"INSERT", "INSERT_KAFKA_KEY", "INSERT_VALUE_KEY", "UPSERT_KAFKA_KEY", "UPSERT_VALUE_KEY"})
+  public SinkBenchmarks.WriteMode mode;
+
+  private Connection connection;
+  private Schema valueSchema;
+  private BufferedRecords buffer;
+  private long sequence;
+  private List<SinkRecord> records;
+
+  @Setup
+  public void setup() throws SQLException, IOException {
+    final JdbcSinkConfig config = SinkBenchmarks.config(database, mode, batchSize);
+    valueSchema = SinkBenchmarks.valueSchema(width);
+    connection = database.open();
+    SinkBenchmarks.createTable(connection, valueSchema, mode);
+    buffer = new BufferedRecords(config, SinkBenchmarks.TABLE, database.dialect, new DbStructure(database.dialect),
+                                 connection);
+  }
+
+  @Setup(Level.Iteration)
+  public void clearTable() throws SQLException {
+    SinkBenchmarks.clearTable(connection);
+  }
+
+  @Setup(Level.Invocation)
+  public void nextBatch() {
+    records = SinkBenchmarks.records(valueSchema, mode, sequence, batchSize);
+    sequence += batchSize;
+  }
+
+  @TearDown
+  public void tearDown() throws SQLException, IOException {
+    SinkBenchmarks.dropTable(connection);
+    database.close(connection);
+  }
+
+  @Benchmark
+  public void addAndFlush() throws SQLException {
+    for (SinkRecord record : records) {
+      buffer.add(record);
+    }
+    buffer.flush();
+    connection.commit();
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.confluent.connect.jdbc.sink;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import io.confluent.connect.jdbc.sink.metadata.FieldsMetadata;
+import io.confluent.connect.jdbc.sink.metadata.SchemaPair;
+
+/**
+ * Measures binding a single record to an insert or upsert statement and adding it to the
+ * statement's batch. The batch is cleared after every record, so nothing is executed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PreparedStatementBinderBenchmark {
+
+  @Param({"SQLITE_FILE", "SQLITE_MEMORY", "DERBY"})
+  public SinkBenchmarks.Database database;
+
+  @Param({"10", "100"})
+  public int width;
+
+  @Param({"INSERT", "INSERT_KAFKA_KEY", "INSERT_VALUE_KEY", "UPSERT_KAFKA_KEY", "UPSERT_VALUE_KEY"})
+  public SinkBenchmarks.WriteMode mode;
+
+  private Connection connection;
+  private PreparedStatement statement;
+  private PreparedStatementBinder binder;
+  private SinkRecord record;
+
+  @Setup
+  public void setup() throws SQLException, IOException {
+    final JdbcSinkConfig config = SinkBenchmarks.config(database, mode, 1);
+    final Schema valueSchema = SinkBenchmarks.valueSchema(width);
+    connection = database.open();
+    SinkBenchmarks.createTable(connection, valueSchema, mode);
+
+    final SchemaPair schemaPair = new SchemaPair(null, valueSchema);
+    final FieldsMetadata fieldsMetadata = FieldsMetadata.extract(SinkBenchmarks.TABLE, config.pkMode, config.pkFields,
+                                                                 schemaPair);
+    final String sql = mode.insertMode == JdbcSinkConfig.InsertMode.INSERT
+                       ? database.dialect.getInsert(SinkBenchmarks.TABLE, fieldsMetadata.keyFieldNames,
+                                                    fieldsMetadata.nonKeyFieldNames)
+                       : database.dialect.getUpsertQuery(SinkBenchmarks.TABLE, fieldsMetadata.keyFieldNames,
+                                                         fieldsMetadata.nonKeyFieldNames);
+    statement = connection.prepareStatement(sql);
+    binder = new PreparedStatementBinder(statement, config.pkMode, schemaPair, fieldsMetadata);
+    record = SinkBenchmarks.record(valueSchema, mode, 0);
+  }
+
+  @TearDown
+  public void tearDown() throws SQLException, IOException {
+    statement.close();
+    SinkBenchmarks.dropTable(connection);
+    database.close(connection);
+  }
+
+  @Benchmark
+  public void bindRecord() throws SQLException {
+    binder.bindRecord(record);
+    statement.clearBatch();
+  }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.confluent.connect.jdbc.sink;
+
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.confluent.connect.jdbc.sink.dialect.DbDialect;
+import io.confluent.connect.jdbc.sink.dialect.GenericDialect;
+import io.confluent.connect.jdbc.sink.dialect.SqliteDialect;
+import io.confluent.connect.jdbc.sink.metadata.FieldsMetadata;
+
+/**
+ * Databases, tables and records for the sink benchmarks.
+ *
+ * <p>Records are numbered by a sequence number, which is also their primary key. Inserts use ever
+ * increasing sequence numbers, while upserts wrap around after {@link #UPSERT_KEYS} records so that
+ * most of them update an existing row.
+ */
+final class SinkBenchmarks {
+  static final String TABLE = "sink_benchmark";
+  static final int UPSERT_KEYS = 10000;
+
+  enum Database {
+    SQLITE_FILE("jdbc:sqlite:sink_benchmark.db", new SqliteDialect()),
+    SQLITE_MEMORY("jdbc:sqlite::memory:", new SqliteDialect()),
+    // The sink has no dialect for Derby, so it can neither create tables in it nor upsert into it
+    DERBY("jdbc:derby:memory:sink_benchmark;create=true", new GenericDialect());
+
+    final String url;
+    final DbDialect dialect;
+
+    Database(String url, DbDialect dialect) {
+      this.url = url;
+      this.dialect = dialect;
+    }
+
+    Connection open() throws SQLException, IOException {
+      if (this == SQLITE_FILE) {
+        Files.deleteIfExists(Paths.get("sink_benchmark.db"));
+      }
+      final Connection connection = DriverManager.getConnection(url);
+      connection.setAutoCommit(false);
+      return connection;
+    }
+
+    void close(Connection connection) throws SQLException, IOException {
+      connection.close();
+      if (this == SQLITE_FILE) {
+        Files.deleteIfExists(Paths.get("sink_benchmark.db"));
+      }
+    }
+  }
+
+  /**
+   * Combinations of insert mode and primary key mode, leaving out upserts without a primary key,
+   * which the sink rejects.
+   */
+  enum WriteMode {
+    INSERT(JdbcSinkConfig.InsertMode.INSERT, JdbcSinkConfig.PrimaryKeyMode.NONE),
+    INSERT_KAFKA_KEY(JdbcSinkConfig.InsertMode.INSERT, JdbcSinkConfig.PrimaryKeyMode.KAFKA),
+    INSERT_VALUE_KEY(JdbcSinkConfig.InsertMode.INSERT, JdbcSinkConfig.PrimaryKeyMode.RECORD_VALUE),
+    UPSERT_KAFKA_KEY(JdbcSinkConfig.InsertMode.UPSERT, JdbcSinkConfig.PrimaryKeyMode.KAFKA),
+    UPSERT_VALUE_KEY(JdbcSinkConfig.InsertMode.UPSERT, JdbcSinkConfig.PrimaryKeyMode.RECORD_VALUE);
+
+    final JdbcSinkConfig.InsertMode insertMode;
+    final JdbcSinkConfig.PrimaryKeyMode pkMode;
+
+    WriteMode(JdbcSinkConfig.InsertMode insertMode, JdbcSinkConfig.PrimaryKeyMode pkMode) {
+      this.insertMode = insertMode;
+      this.pkMode = pkMode;
+    }
+
+    long key(long sequence) {
+      return insertMode == JdbcSinkConfig.InsertMode.UPSERT ? sequence % UPSERT_KEYS : sequence;
+    }
+  }
+
+  private SinkBenchmarks() {
+  }
+
+  static JdbcSinkConfig config(Database database, WriteMode mode, int batchSize) {
+    final Map<String, String> props = new HashMap<>();
+    props.put(JdbcSinkConfig.CONNECTION_URL, database.url);
+    props.put(JdbcSinkConfig.INSERT_MODE, mode.insertMode.name().toLowerCase());
+    props.put(JdbcSinkConfig.PK_MODE, mode.pkMode.name().toLowerCase());
+    if (mode.pkMode == JdbcSinkConfig.PrimaryKeyMode.RECORD_VALUE) {
+      props.put(JdbcSinkConfig.PK_FIELDS, "c0");
+    }
+    props.put(JdbcSinkConfig.BATCH_SIZE, Integer.toString(batchSize));
+    if (database == Database.DERBY && mode.insertMode == JdbcSinkConfig.InsertMode.UPSERT) {
+      throw new UnsupportedOperationException("The sink doesn't support upserts into Derby");
+    }
+    return new JdbcSinkConfig(props);
+  }
+
+  /**
+   * A value schema with a 64-bit key column followed by 32-bit integer, string, double and 64-bit
+   * integer columns, repeated to fill the width.
+   */
+  static Schema valueSchema(int width) {
+    final SchemaBuilder builder = SchemaBuilder.struct().field("c0", Schema.INT64_SCHEMA);
+    for (int column = 1; column < width; column++) {
+      builder.field("c" + column, columnSchema(column));
+    }
+    return builder.build();
+  }
+
+  private static Schema columnSchema(int column) {
+    switch (column % 4) {
+      case 1:
+        return Schema.INT32_SCHEMA;
+      case 2:
+        return Schema.STRING_SCHEMA;
+      case 3:
+        return Schema.FLOAT64_SCHEMA;
+      default:
+        return Schema.INT64_SCHEMA;
+    }
+  }
+
+  private static String columnType(Schema.Type type) {
+    switch (type) {
+      case INT32:
+        return "INT";
+      case STRING:
+        return "VARCHAR(64)";
+      case FLOAT64:
+        return "DOUBLE";
+      default:
+        return "BIGINT";
+    }
+  }
+
+  static void createTable(Connection connection, Schema valueSchema, WriteMode mode)
+      throws SQLException {
+    final StringBuilder sql = new StringBuilder("CREATE TABLE \"").append(TABLE).append("\" (");
+    if (mode.pkMode == JdbcSinkConfig.PrimaryKeyMode.KAFKA) {
+      sql.append("\"").append(FieldsMetadata.DEFAULT_KAFKA_PK_NAMES.get(0)).append("\" VARCHAR(64) NOT NULL, ");
+      sql.append("\"").append(FieldsMetadata.DEFAULT_KAFKA_PK_NAMES.get(1)).append("\" INT NOT NULL, ");
+      sql.append("\"").append(FieldsMetadata.DEFAULT_KAFKA_PK_NAMES.get(2)).append("\" BIGINT NOT NULL, ");
+    }
+    for (Field field : valueSchema.fields()) {
+      sql.append("\"").append(field.name()).append("\" ").append(columnType(field.schema().type())).append(" NOT NULL, ");
+    }
+    switch (mode.pkMode) {
+      case KAFKA:
+        sql.append("PRIMARY KEY (\"").append(FieldsMetadata.DEFAULT_KAFKA_PK_NAMES.get(0)).append("\", \"")
+            .append(FieldsMetadata.DEFAULT_KAFKA_PK_NAMES.get(1)).append("\", \"")
+            .append(FieldsMetadata.DEFAULT_KAFKA_PK_NAMES.get(2)).append("\")");
+        break;
+      case RECORD_VALUE:
+        sql.append("PRIMARY KEY (\"c0\")");
+        break;
+      default:
+        sql.setLength(sql.length() - 2);
+    }
+    sql.append(")");
+    execute(connection, sql.toString());
+  }
+
+  static void clearTable(Connection connection) throws SQLException {
+    execute(connection, "DELETE FROM \"" + TABLE + "\"");
+  }
+
+  static void dropTable(Connection connection) throws SQLException {
+    execute(connection, "DROP TABLE \"" + TABLE + "\"");
+  }
+
+  static SinkRecord record(Schema valueSchema, WriteMode mode, long sequence) {
+    final long key = mode.key(sequence);
+    final Struct value = new Struct(valueSchema).put("c0", key);
+    for (int column = 1; column < valueSchema.fields().size(); column++) {
+      final String name = "c" + column;
+      switch (column % 4) {
+        case 1:
+          value.put(name, (int) sequence + column);
+          break;
+        case 2:
+          value.put(name, "value " + column + " of record " + sequence);
+          break;
+        case 3:
+          value.put(name, sequence * 1.5);
+          break;
+        default:
+          value.put(name, sequence + column);
+      }
+    }
+    return new SinkRecord(TABLE, 0, null, null, valueSchema, value, key);
+  }
+
+  static List<SinkRecord> records(Schema valueSchema, WriteMode mode, long first, int count) {
+    final List<SinkRecord> records = new ArrayList<>(count);
+    for (long sequence = first; sequence < first + count; sequence++) {
+      records.add(record(valueSchema, mode, sequence));
+    }
+    return records;
+  }
+
+  private static void execute(Connection connection, String sql) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.executeUpdate(sql);
+      connection.commit();
+    }
+  }
+}
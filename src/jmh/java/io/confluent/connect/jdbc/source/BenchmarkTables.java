@@ -0,0 +1,153 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.source;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+/**
+ * Creates and fills tables of a configurable width and mix of column types in in-memory
+ * databases for the source benchmarks.
+ */
+final class BenchmarkTables {
+
+  /**
+   * Databases the benchmarks run against, both in memory so that disk I/O doesn't drown out the
+   * cost of the code being measured.
+   */
+  enum Database {
+    DERBY("jdbc:derby:memory:benchmark;create=true"),
+    SQLITE("jdbc:sqlite::memory:");
+
+    private final String url;
+
+    Database(String url) {
+      this.url = url;
+    }
+
+    Connection connect() throws SQLException {
+      return DriverManager.getConnection(url);
+    }
+  }
+
+  /**
+   * Mixes of column types, which are repeated as often as needed to fill a table's width.
+   */
+  enum ColumnMix {
+    NUMERIC("INT", "BIGINT", "DOUBLE", "DECIMAL(10,2)"),
+    TEXT("VARCHAR(64)"),
+    MIXED("INT", "VARCHAR(64)", "TIMESTAMP", "DECIMAL(10,2)", "DOUBLE", "BIGINT");
+
+    private final String[] types;
+
+    ColumnMix(String... types) {
+      this.types = types;
+    }
+
+    String type(int column) {
+      return types[column % types.length];
+    }
+  }
+
+  private BenchmarkTables() {
+  }
+
+  static void create(Connection connection, String table, int width, ColumnMix mix)
+      throws SQLException {
+    StringBuilder sql = new StringBuilder("CREATE TABLE ").append(quote(table)).append(" (");
+    for (int column = 0; column < width; column++) {
+      if (column > 0) {
+        sql.append(", ");
+      }
+      sql.append("c").append(column).append(" ").append(mix.type(column)).append(" NOT NULL");
+    }
+    sql.append(")");
+    execute(connection, sql.toString());
+  }
+
+  static void fill(Connection connection, String table, int width, ColumnMix mix, int rows)
+      throws SQLException {
+    StringBuilder sql = new StringBuilder("INSERT INTO ").append(quote(table)).append(" VALUES (");
+    for (int column = 0; column < width; column++) {
+      sql.append(column > 0 ? ", ?" : "?");
+    }
+    sql.append(")");
+    boolean autoCommit = connection.getAutoCommit();
+    connection.setAutoCommit(false);
+    try (PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+      for (int row = 0; row < rows; row++) {
+        for (int column = 0; column < width; column++) {
+          bind(stmt, column + 1, mix.type(column), row);
+        }
+        stmt.addBatch();
+      }
+      stmt.executeBatch();
+      connection.commit();
+    } finally {
+      connection.setAutoCommit(autoCommit);
+    }
+  }
+
+  static void drop(Connection connection, String table) throws SQLException {
+    execute(connection, "DROP TABLE " + quote(table));
+  }
+
+  /**
+   * Quote a table name the way the queriers do, which keeps it from being converted to upper case
+   * by databases such as Derby.
+   */
+  static String quote(String table) {
+    return "\"" + table + "\"";
+  }
+
+  private static void bind(PreparedStatement stmt, int index, String type, int row)
+      throws SQLException {
+    switch (type) {
+      case "INT":
+        stmt.setInt(index, row);
+        break;
+      case "BIGINT":
+        stmt.setLong(index, row * 1000003L);
+        break;
+      case "DOUBLE":
+        stmt.setDouble(index, row * 1.5);
+        break;
+      case "DECIMAL(10,2)":
+        stmt.setBigDecimal(index, BigDecimal.valueOf(row * 101L, 2));
+        break;
+      case "VARCHAR(64)":
+        stmt.setString(index, "value of row " + row);
+        break;
+      case "TIMESTAMP":
+        stmt.setTimestamp(index, new Timestamp(1000000000000L + row * 1000L));
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported column type " + type);
+    }
+  }
+
+  private static void execute(Connection connection, String sql) throws SQLException {
+    try (Statement stmt = connection.createStatement()) {
+      stmt.execute(sql);
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.source;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures converting a result set's metadata to a schema and a single row to a record. The
+ * converted row stays the same, so this measures the conversion itself rather than fetching.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataConverterBenchmark {
+  private static final String TABLE = "benchmark";
+
+  @Param({"DERBY", "SQLITE"})
+  public BenchmarkTables.Database database;
+
+  @Param({"10", "100"})
+  public int width;
+
+  @Param({"NUMERIC", "TEXT", "MIXED"})
+  public BenchmarkTables.ColumnMix mix;
+
+  private Connection connection;
+  private Statement stmt;
+  private ResultSet resultSet;
+  private ResultSetMetaData metadata;
+  private Schema schema;
+  private DataConverter.RecordConverter converter;
+
+  @Setup
+  public void setup() throws SQLException {
+    connection = database.connect();
+    BenchmarkTables.create(connection, TABLE, width, mix);
+    BenchmarkTables.fill(connection, TABLE, width, mix, 1);
+    stmt = connection.createStatement();
+    resultSet = stmt.executeQuery("SELECT * FROM " + BenchmarkTables.quote(TABLE));
+    resultSet.next();
+    metadata = resultSet.getMetaData();
+    schema = DataConverter.convertSchema(TABLE, metadata);
+    converter = DataConverter.recordConverter(schema, metadata);
+  }
+
+  @TearDown
+  public void tearDown() throws SQLException {
+    resultSet.close();
+    stmt.close();
+    BenchmarkTables.drop(connection, TABLE);
+    connection.close();
+  }
+
+  @Benchmark
+  public Schema convertSchema() throws SQLException {
+    return DataConverter.convertSchema(TABLE, metadata);
+  }
+
+  /**
+   * Converts the row the way one-off callers do, compiling a record converter for it.
+   */
+  @Benchmark
+  public Struct convertRecord() throws SQLException {
+    return DataConverter.convertRecord(schema, resultSet);
+  }
+
+  /**
+   * Converts the row the way queriers do, with a record converter compiled once per schema.
+   */
+  @Benchmark
+  public Struct convertRecordCompiled() {
+    return converter.convert(resultSet);
+  }
+}
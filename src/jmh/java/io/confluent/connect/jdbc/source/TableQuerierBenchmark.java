@@ -0,0 +1,92 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.source;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a full query cycle of a bulk querier, from executing its query through converting every
+ * row to a record until closing it, which is what a task does for every table on every poll.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableQuerierBenchmark {
+  private static final String TABLE = "benchmark";
+
+  @Param({"DERBY", "SQLITE"})
+  public BenchmarkTables.Database database;
+
+  @Param({"10", "100"})
+  public int width;
+
+  @Param({"NUMERIC", "TEXT", "MIXED"})
+  public BenchmarkTables.ColumnMix mix;
+
+  @Param({"1000"})
+  public int rows;
+
+  @Param({"NONE", "BEST_FIT"})
+  public DataConverter.NumericMapping numericMapping;
+
+  private Connection connection;
+  private TableQuerier querier;
+
+  @Setup
+  public void setup() throws SQLException {
+    connection = database.connect();
+    BenchmarkTables.create(connection, TABLE, width, mix);
+    BenchmarkTables.fill(connection, TABLE, width, mix, rows);
+    querier = new BulkTableQuerier(TableQuerier.QueryMode.TABLE, TABLE, "benchmark-", 0,
+                                   LobLimit.UNLIMITED, numericMapping, 0, 0);
+  }
+
+  @TearDown
+  public void tearDown() throws SQLException {
+    querier.close(0);
+    BenchmarkTables.drop(connection, TABLE);
+    connection.close();
+  }
+
+  @Benchmark
+  public void queryCycle(Blackhole blackhole) throws SQLException {
+    querier.maybeStartQuery(connection);
+    while (querier.next()) {
+      blackhole.consume(querier.extractRecord());
+    }
+    querier.close(0);
+  }
+}
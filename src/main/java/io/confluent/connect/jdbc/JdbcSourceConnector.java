@@ -26,7 +26,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -39,9 +38,13 @@ import java.util.Set;
 import io.confluent.connect.jdbc.source.JdbcSourceConnectorConfig;
 import io.confluent.connect.jdbc.source.JdbcSourceTask;
 import io.confluent.connect.jdbc.source.JdbcSourceTaskConfig;
+import io.confluent.connect.jdbc.source.KeyRangeTableQuerier;
+import io.confluent.connect.jdbc.source.TableKeyRange;
 import io.confluent.connect.jdbc.source.TableMonitorThread;
+import io.confluent.connect.jdbc.util.JdbcUtils;
 import io.confluent.connect.jdbc.util.StringUtils;
 import io.confluent.connect.jdbc.util.Version;
+import io.confluent.connect.jdbc.util.WeightedPartitioner;
 
 /**
  * JdbcConnector is a Kafka Connect Connector implementation that watches a JDBC database and
@@ -57,6 +60,7 @@ public class JdbcSourceConnector extends SourceConnector {
   private JdbcSourceConnectorConfig config;
   private Connection db;
   private TableMonitorThread tableMonitorThread;
+  private final Map<String, List<TableKeyRange>> tableKeyRanges = new HashMap<>();
 
   @Override
   public String version() {
@@ -76,7 +80,7 @@ public class JdbcSourceConnector extends SourceConnector {
     String dbUrl = config.getString(JdbcSourceConnectorConfig.CONNECTION_URL_CONFIG);
     log.debug("Trying to connect to {}", dbUrl);
     try {
-      db = DriverManager.getConnection(dbUrl);
+      db = config.connectionPool().getConnection();
     } catch (SQLException e) {
       log.error("Couldn't open connection to {}: {}", dbUrl, e);
       throw new ConnectException(e);
@@ -125,19 +129,152 @@ public class JdbcSourceConnector extends SourceConnector {
       return taskConfigs;
     } else {
       List<String> currentTables = tableMonitorThread.tables();
-      int numGroups = Math.min(currentTables.size(), maxTasks);
-      List<List<String>> tablesGrouped = ConnectorUtils.groupPartitions(currentTables, numGroups);
-      List<Map<String, String>> taskConfigs = new ArrayList<>(tablesGrouped.size());
-      for (List<String> taskTables : tablesGrouped) {
+      // Tables split into key ranges are distributed range by range
+      List<String> units = new ArrayList<>(currentTables.size());
+      List<String> unitTables = new ArrayList<>(currentTables.size());
+      Set<String> rangeUnits = new HashSet<>();
+      for (String table : currentTables) {
+        List<TableKeyRange> ranges = keyRanges(table);
+        if (ranges == null) {
+          units.add(table);
+          unitTables.add(table);
+        } else {
+          for (TableKeyRange range : ranges) {
+            units.add(range.toString());
+            unitTables.add(table);
+            rangeUnits.add(range.toString());
+          }
+        }
+      }
+      int numGroups = Math.min(units.size(), maxTasks);
+      List<List<String>> unitsGrouped;
+      String assignment = config.getString(JdbcSourceConnectorConfig.TABLE_ASSIGNMENT_CONFIG);
+      if (assignment.equals(JdbcSourceConnectorConfig.TABLE_ASSIGNMENT_SIZE) && numGroups > 0) {
+        unitsGrouped = WeightedPartitioner.groupPartitions(units, unitWeights(unitTables),
+                                                           numGroups);
+      } else {
+        unitsGrouped = ConnectorUtils.groupPartitions(units, numGroups);
+      }
+      List<Map<String, String>> taskConfigs = new ArrayList<>(unitsGrouped.size());
+      for (List<String> taskUnits : unitsGrouped) {
+        List<String> taskTables = new ArrayList<>(taskUnits.size());
+        List<String> taskRanges = new ArrayList<>();
+        for (String unit : taskUnits) {
+          if (rangeUnits.contains(unit)) {
+            taskRanges.add(unit);
+          } else {
+            taskTables.add(unit);
+          }
+        }
         Map<String, String> taskProps = new HashMap<>(configProperties);
         taskProps.put(JdbcSourceTaskConfig.TABLES_CONFIG,
                       StringUtils.join(taskTables, ","));
+        taskProps.put(JdbcSourceTaskConfig.TABLE_RANGES_CONFIG,
+                      StringUtils.join(taskRanges, ","));
+        taskProps.put(JdbcSourceTaskConfig.TASK_ID_CONFIG,
+                      Integer.toString(taskConfigs.size()));
         taskConfigs.add(taskProps);
       }
       return taskConfigs;
     }
   }
 
+  // Weight each table or key range, given the table of each, by its estimated number of rows,
+  // assuming the rows of a table are spread evenly over its key ranges. Tables without statistics
+  // get the average weight.
+  private List<Long> unitWeights(List<String> unitTables) {
+    Map<String, Long> tableRows = new HashMap<>();
+    Map<String, Integer> tableUnits = new HashMap<>();
+    long knownRows = 0;
+    int knownTables = 0;
+    synchronized (db) {
+      for (String table : unitTables) {
+        Integer count = tableUnits.get(table);
+        tableUnits.put(table, count == null ? 1 : count + 1);
+        if (count != null) {
+          continue;
+        }
+        long rows;
+        try {
+          rows = JdbcUtils.getRowCountEstimate(db, table);
+        } catch (SQLException e) {
+          log.warn("Failed to estimate the size of {}, assuming an average size: ", table, e);
+          rows = -1;
+        }
+        tableRows.put(table, rows);
+        if (rows >= 0) {
+          knownRows += rows;
+          knownTables++;
+        }
+      }
+    }
+    long defaultRows = knownTables > 0 ? knownRows / knownTables : 1;
+
+    List<Long> weights = new ArrayList<>(unitTables.size());
+    for (String table : unitTables) {
+      long rows = tableRows.get(table);
+      if (rows < 0) {
+        rows = defaultRows;
+      }
+      // Even empty tables are polled, so they are never entirely free
+      weights.add(Math.max(rows / tableUnits.get(table), 1));
+    }
+    log.debug("Weights of tables for assignment to tasks: {} {}", unitTables, weights);
+    return weights;
+  }
+
+  // Get the key ranges to split a table into, or null if the table should be loaded whole. The
+  // boundaries of the ranges are derived from the keys so that splitting the table again, e.g.
+  // after a restart, usually yields the same ranges and therefore the same source partitions and
+  // offsets (see TableKeyRange.split). Ranges are also cached so they don't change between
+  // reconfigurations of this connector instance.
+  private List<TableKeyRange> keyRanges(String table) {
+    List<TableKeyRange> ranges = tableKeyRanges.get(table);
+    if (ranges != null) {
+      return ranges;
+    }
+    int splitCount = config.getInt(JdbcSourceConnectorConfig.BULK_SPLIT_COUNT_CONFIG);
+    String mode = config.getString(JdbcSourceConnectorConfig.MODE_CONFIG);
+    if (splitCount <= 1 || !mode.equals(JdbcSourceConnectorConfig.MODE_BULK)) {
+      return null;
+    }
+
+    String splitColumn = config.getString(JdbcSourceConnectorConfig.BULK_SPLIT_COLUMN_CONFIG);
+    String incrementingColumn
+        = config.getString(JdbcSourceConnectorConfig.INCREMENTING_COLUMN_NAME_CONFIG);
+    synchronized (db) {
+      try {
+        String keyColumn
+            = KeyRangeTableQuerier.keyColumn(db, table, splitColumn, incrementingColumn);
+        if (keyColumn == null) {
+          log.warn("Not splitting {} because it has no single column primary key", table);
+          return null;
+        }
+        if (!JdbcUtils.isColumnIntegral(db, table, keyColumn)) {
+          log.warn("Not splitting {} because its key column {} is not an integer column", table,
+                   keyColumn);
+          return null;
+        }
+        long[] bounds = JdbcUtils.getColumnBounds(db, table, keyColumn);
+        if (bounds == null) {
+          log.debug("Not splitting {} because it is empty", table);
+          return null;
+        }
+        ranges = TableKeyRange.split(table, bounds[0], bounds[1], splitCount);
+        if (ranges.size() < 2) {
+          log.debug("Not splitting {} because its keys span too few values", table);
+          return null;
+        }
+      } catch (SQLException e) {
+        log.error("Failed to compute key ranges of {}, loading it whole: ", table, e);
+        return null;
+      }
+    }
+    log.info("Split {} into {} key ranges: {}", table, ranges.size(), ranges);
+    tableKeyRanges.put(table, ranges);
+    return ranges;
+  }
+
   @Override
   public void stop() throws ConnectException {
     log.info("Stopping table monitoring thread");
@@ -26,26 +26,43 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import io.confluent.connect.jdbc.sink.dialect.DbDialect;
 import io.confluent.connect.jdbc.sink.metadata.FieldsMetadata;
 import io.confluent.connect.jdbc.sink.metadata.SchemaPair;
+import io.confluent.connect.jdbc.sink.metadata.SchemaPairCache;
 
+/**
+ * Buffers the records written to a table, in a sub-batch per key and value schema, so that records of interleaved schema
+ * versions don't cut batches short. All sub-batches are flushed together, in the order of their first record.
+ */
 public class BufferedRecords {
   private static final Logger log = LoggerFactory.getLogger(BufferedRecords.class);
 
+  private static final int MAX_CACHED_SCHEMAS = 1000;
+
   private final String tableName;
   private final JdbcSinkConfig config;
   private final DbDialect dbDialect;
   private final DbStructure dbStructure;
   private final Connection connection;
+  private final SchemaPairCache schemaPairCache = new SchemaPairCache(MAX_CACHED_SCHEMAS);
+
+  // Statements prepared for the schemas recently written to the table, least recently used first
+  private final LinkedHashMap<SchemaPair, PreparedInsert> preparedInserts = new LinkedHashMap<>(16, 0.75f, true);
+  // Statements with buffered records, in the order of their first record
+  private final List<PreparedInsert> pendingInserts = new ArrayList<>();
+  // Statements of the keys of buffered upserts, only tracked once records of more than one schema are buffered
+  private Map<Object, PreparedInsert> pendingKeys;
 
   private List<SinkRecord> records = new ArrayList<>();
   private SchemaPair currentSchemaPair;
-  private FieldsMetadata fieldsMetadata;
-  private PreparedStatement preparedStatement;
-  private PreparedStatementBinder preparedStatementBinder;
+  private PreparedInsert currentInsert;
 
   public BufferedRecords(JdbcSinkConfig config, String tableName, DbDialect dbDialect, DbStructure dbStructure, Connection connection) {
     this.tableName = tableName;
@@ -56,33 +73,48 @@ public class BufferedRecords {
   }
 
   public List<SinkRecord> add(SinkRecord record) throws SQLException {
-    final SchemaPair schemaPair = new SchemaPair(record.keySchema(), record.valueSchema());
-
-    if (currentSchemaPair == null) {
-      currentSchemaPair = schemaPair;
-      // re-initialize everything that depends on the record schema
-      fieldsMetadata = FieldsMetadata.extract(tableName, config.pkMode, config.pkFields, currentSchemaPair);
-      dbStructure.createOrAmendIfNecessary(config, connection, tableName, fieldsMetadata);
-      final String insertSql = getInsertSql();
-      log.debug("insertion sql:{}", config.insertMode, insertSql);
-      preparedStatement = connection.prepareStatement(insertSql);
-      preparedStatementBinder = new PreparedStatementBinder(preparedStatement, config.pkMode, schemaPair, fieldsMetadata);
-    }
-
-    final List<SinkRecord> flushed;
-    if (currentSchemaPair.equals(schemaPair)) {
-      // Continue with current batch state
-      records.add(record);
-      if (records.size() >= config.batchSize) {
+    // Records mostly share the schema instances of the previous record, in which case they don't need to be interned
+    if (currentSchemaPair == null
+        || record.keySchema() != currentSchemaPair.keySchema
+        || record.valueSchema() != currentSchemaPair.valueSchema) {
+      final SchemaPair schemaPair = schemaPairCache.intern(record.keySchema(), record.valueSchema());
+      // Schema pairs are interned, so equal ones are the same instance
+      if (schemaPair != currentSchemaPair) {
+        currentSchemaPair = schemaPair;
+        currentInsert = preparedInsert(schemaPair);
+      }
+    }
+
+    if (pendingKeys == null && pendingInserts.size() == 1 && currentInsert.records.isEmpty() && tracksPendingKeys()) {
+      // A second sub-batch is about to start, so the keys of the first one need tracking from now on
+      final PreparedInsert first = pendingInserts.get(0);
+      pendingKeys = new HashMap<>();
+      for (SinkRecord pending : first.records) {
+        pendingKeys.put(first.binder.key(pending), first);
+      }
+    }
+
+    List<SinkRecord> flushed = Collections.emptyList();
+    if (conflictsWithPendingUpsert(record)) {
+      // Sub-batches are flushed one after the other, so the upserts of a key can only be in one of them to be applied in order
+      flushed = flush();
+    }
+
+    if (currentInsert.records.isEmpty()) {
+      pendingInserts.add(currentInsert);
+    }
+    if (pendingKeys != null) {
+      pendingKeys.put(currentInsert.binder.key(record), currentInsert);
+    }
+    currentInsert.records.add(record);
+    records.add(record);
+
+    if (records.size() >= config.batchSize) {
+      if (flushed.isEmpty()) {
         flushed = flush();
       } else {
-        flushed = Collections.emptyList();
+        flushed.addAll(flush());
       }
-    } else {
-      // Each batch needs to have the same SchemaPair, so get the buffered records out, reset state and re-attempt the add
-      flushed = flush();
-      currentSchemaPair = null;
-      flushed.addAll(add(record));
     }
     return flushed;
   }
@@ -91,29 +123,140 @@ public class BufferedRecords {
     if (records.isEmpty()) {
       return new ArrayList<>();
     }
-    for (SinkRecord record : records) {
-      preparedStatementBinder.bindRecord(record);
+    for (PreparedInsert preparedInsert : pendingInserts) {
+      write(preparedInsert);
+    }
+    pendingInserts.clear();
+    pendingKeys = null;
+
+    final List<SinkRecord> flushedRecords = records;
+    records = new ArrayList<>();
+    return flushedRecords;
+  }
+
+  private void write(PreparedInsert preparedInsert) throws SQLException {
+    final List<SinkRecord> writtenRecords = deduplicateUpserts() ? lastRecordPerKey(preparedInsert) : preparedInsert.records;
+    for (SinkRecord record : writtenRecords) {
+      preparedInsert.binder.bindRecord(record);
     }
     int totalUpdateCount = 0;
-    for (int updateCount : preparedStatement.executeBatch()) {
+    for (int updateCount : preparedInsert.statement.executeBatch()) {
       totalUpdateCount += updateCount;
     }
-    if (totalUpdateCount != records.size()) {
+    if (totalUpdateCount != writtenRecords.size()) {
       switch (config.insertMode) {
         case INSERT:
           throw new ConnectException(String.format("Update count (%d) did not sum up to total number of records inserted (%d)",
-                                                   totalUpdateCount, records.size()));
+                                                   totalUpdateCount, writtenRecords.size()));
         case UPSERT:
-          log.trace("Upserted records:{} resulting in in totalUpdateCount:{}", records.size(), totalUpdateCount);
+          log.trace("Upserted records:{} resulting in in totalUpdateCount:{}", writtenRecords.size(), totalUpdateCount);
       }
     }
+    preparedInsert.records.clear();
+  }
 
-    final List<SinkRecord> flushedRecords = records;
+  private boolean tracksPendingKeys() {
+    // Kafka coordinates are unique, so they never conflict
+    return config.insertMode == JdbcSinkConfig.InsertMode.UPSERT && config.pkMode != JdbcSinkConfig.PrimaryKeyMode.KAFKA;
+  }
+
+  private boolean conflictsWithPendingUpsert(SinkRecord record) {
+    if (pendingKeys == null) {
+      return false;
+    }
+    if (currentInsert.records.isEmpty() && !currentInsert.binder.hasSameKeyTypes(pendingInserts.get(0).binder)) {
+      // Keys of different types never equal each other, so it can't be told whether they conflict
+      return true;
+    }
+    final PreparedInsert pending = pendingKeys.get(currentInsert.binder.key(record));
+    return pending != null && pending != currentInsert;
+  }
+
+  private boolean deduplicateUpserts() {
+    return config.upsertDeduplicate
+           && config.insertMode == JdbcSinkConfig.InsertMode.UPSERT
+           && config.pkMode != JdbcSinkConfig.PrimaryKeyMode.KAFKA;
+  }
+
+  /**
+   * Collapse the buffered records of a statement to the last record per primary key, in the order the keys first appear.
+   */
+  private List<SinkRecord> lastRecordPerKey(PreparedInsert preparedInsert) {
+    final List<SinkRecord> pending = preparedInsert.records;
+    final Map<Object, SinkRecord> lastByKey = new LinkedHashMap<>(pending.size() * 4 / 3 + 1);
+    for (SinkRecord record : pending) {
+      // Replacing the record of a key keeps the key in its original position
+      lastByKey.put(preparedInsert.binder.key(record), record);
+    }
+    if (lastByKey.size() == pending.size()) {
+      return pending;
+    }
+    log.trace("Deduplicated {} upserted records to {}", pending.size(), lastByKey.size());
+    return new ArrayList<>(lastByKey.values());
+  }
+
+  /**
+   * @return the number of prepared statements currently open
+   */
+  public int openStatements() {
+    return preparedInserts.size();
+  }
+
+  /**
+   * Close all prepared statements and drop any buffered records.
+   */
+  public void close() throws SQLException {
     records = new ArrayList<>();
-    return flushedRecords;
+    pendingInserts.clear();
+    pendingKeys = null;
+    currentSchemaPair = null;
+    currentInsert = null;
+    try {
+      for (PreparedInsert preparedInsert : preparedInserts.values()) {
+        preparedInsert.statement.close();
+      }
+    } finally {
+      preparedInserts.clear();
+    }
   }
 
-  private String getInsertSql() {
+  /**
+   * Get the statement for records of a schema, preparing it and making sure the table matches the schema if there is
+   * none cached, in which case the least recently used statements without buffered records are closed if there are too
+   * many.
+   */
+  private PreparedInsert preparedInsert(SchemaPair schemaPair) throws SQLException {
+    PreparedInsert preparedInsert = preparedInserts.get(schemaPair);
+    if (preparedInsert != null) {
+      return preparedInsert;
+    }
+    // re-initialize everything that depends on the record schema
+    final FieldsMetadata fieldsMetadata = FieldsMetadata.extract(tableName, config.pkMode, config.pkFields, schemaPair);
+    dbStructure.createOrAmendIfNecessary(config, connection, tableName, fieldsMetadata);
+    final String insertSql = getInsertSql(fieldsMetadata);
+    log.debug("{} sql:{}", config.insertMode, insertSql);
+    final PreparedStatement preparedStatement = connection.prepareStatement(insertSql);
+    preparedInsert = new PreparedInsert(
+        preparedStatement,
+        new PreparedStatementBinder(preparedStatement, config.pkMode, schemaPair, fieldsMetadata)
+    );
+    preparedInserts.put(schemaPair, preparedInsert);
+
+    final Iterator<PreparedInsert> leastRecentlyUsed = preparedInserts.values().iterator();
+    int excess = preparedInserts.size() - config.statementCacheSize;
+    while (excess > 0 && leastRecentlyUsed.hasNext()) {
+      final PreparedInsert candidate = leastRecentlyUsed.next();
+      // Statements with buffered records are still needed to flush them, so the cache may briefly exceed its size
+      if (candidate.records.isEmpty() && candidate != preparedInsert) {
+        leastRecentlyUsed.remove();
+        candidate.statement.close();
+        excess--;
+      }
+    }
+    return preparedInsert;
+  }
+
+  private String getInsertSql(FieldsMetadata fieldsMetadata) {
     switch (config.insertMode) {
       case INSERT:
         return dbDialect.getInsert(tableName, fieldsMetadata.keyFieldNames, fieldsMetadata.nonKeyFieldNames);
@@ -128,4 +271,15 @@ public class BufferedRecords {
         throw new ConnectException("Invalid insert mode");
     }
   }
+
+  private static class PreparedInsert {
+    final PreparedStatement statement;
+    final PreparedStatementBinder binder;
+    final List<SinkRecord> records = new ArrayList<>();
+
+    PreparedInsert(PreparedStatement statement, PreparedStatementBinder binder) {
+      this.statement = statement;
+      this.binder = binder;
+    }
+  }
 }
@@ -22,19 +22,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import io.confluent.connect.jdbc.sink.dialect.DbDialect;
+import io.confluent.connect.jdbc.util.ConnectionPool;
 
 public class JdbcDbWriter {
   private static final Logger log = LoggerFactory.getLogger(JdbcDbWriter.class);
 
   private final Map<String, JdbcSinkConfig> contextualConfigCache = new HashMap<>();
 
+  // Kept across writes so that prepared statements are reused until the connection is replaced, least recently written first
+  private final LinkedHashMap<String, BufferedRecords> bufferByTable = new LinkedHashMap<>(16, 0.75f, true);
+
   private final JdbcSinkConfig config;
   private final DbDialect dbDialect;
   private final DbStructure dbStructure;
@@ -50,20 +55,28 @@ public class JdbcDbWriter {
   void write(final Collection<SinkRecord> records) throws SQLException {
     initConnection();
 
-    final Map<String, BufferedRecords> bufferByTable = new HashMap<>();
-    for (SinkRecord record : records) {
-      final String table = destinationTable(record.topic());
-      BufferedRecords buffer = bufferByTable.get(table);
-      if (buffer == null) {
-        buffer = new BufferedRecords(cachedContextualConfig(table), table, dbDialect, dbStructure, connection);
-        bufferByTable.put(table, buffer);
+    try {
+      for (SinkRecord record : records) {
+        final String table = destinationTable(record.topic());
+        BufferedRecords buffer = bufferByTable.get(table);
+        if (buffer == null) {
+          buffer = new BufferedRecords(cachedContextualConfig(table), table, dbDialect, dbStructure, connection);
+          bufferByTable.put(table, buffer);
+        }
+        buffer.add(record);
       }
-      buffer.add(record);
-    }
-    for (BufferedRecords buffer : bufferByTable.values()) {
-      buffer.flush();
+      for (BufferedRecords buffer : bufferByTable.values()) {
+        buffer.flush();
+      }
+      connection.commit();
+      closeLeastRecentlyUsedBuffers();
+    } catch (SQLException | RuntimeException e) {
+      // Buffers may be left holding records or half-executed batches, so start over with fresh ones on the next write, and
+      // don't let the rows of this write be committed with the next one
+      closeBuffersQuietly();
+      rollbackQuietly();
+      throw e;
     }
-    connection.commit();
   }
 
   void initConnection() throws SQLException {
@@ -71,6 +84,7 @@ public class JdbcDbWriter {
       connection = newConnection();
     } else if (!connection.isValid(3000)) {
       log.info("The database connection is invalid. Reconnecting...");
+      // Statements belong to the old connection
       closeQuietly();
       connection = newConnection();
     }
@@ -78,10 +92,20 @@ public class JdbcDbWriter {
   }
 
   Connection newConnection() throws SQLException {
-    return DriverManager.getConnection(config.connectionUrl, config.connectionUser, config.connectionPassword);
+    return ConnectionPool.get(config.connectionUrl, config.connectionUser, config.connectionPassword, config.connectionPoolMaxSize,
+                              config.connectionPoolIdleTimeoutMs, config.connectionPoolMaxLifetimeMs).getConnection();
+  }
+
+  private void rollbackQuietly() {
+    try {
+      connection.rollback();
+    } catch (SQLException sqle) {
+      log.warn("Ignoring error rolling back", sqle);
+    }
   }
 
   void closeQuietly() {
+    closeBuffersQuietly();
     try {
       connection.close();
     } catch (SQLException sqle) {
@@ -89,6 +113,40 @@ public class JdbcDbWriter {
     }
   }
 
+  // Close the statements of the least recently written tables while more are open than the total limit allows. Buffers
+  // are all flushed between writes, so none of them hold records
+  private void closeLeastRecentlyUsedBuffers() {
+    if (config.statementCacheTotalSize == 0) {
+      return;
+    }
+    int openStatements = 0;
+    for (BufferedRecords buffer : bufferByTable.values()) {
+      openStatements += buffer.openStatements();
+    }
+    final Iterator<BufferedRecords> leastRecentlyUsed = bufferByTable.values().iterator();
+    while (openStatements > config.statementCacheTotalSize && leastRecentlyUsed.hasNext()) {
+      final BufferedRecords buffer = leastRecentlyUsed.next();
+      openStatements -= buffer.openStatements();
+      leastRecentlyUsed.remove();
+      try {
+        buffer.close();
+      } catch (SQLException sqle) {
+        log.warn("Ignoring error closing prepared statements", sqle);
+      }
+    }
+  }
+
+  private void closeBuffersQuietly() {
+    for (BufferedRecords buffer : bufferByTable.values()) {
+      try {
+        buffer.close();
+      } catch (SQLException sqle) {
+        log.warn("Ignoring error closing prepared statements", sqle);
+      }
+    }
+    bufferByTable.clear();
+  }
+
   JdbcSinkConfig cachedContextualConfig(String context) {
     JdbcSinkConfig contextualConfig = contextualConfigCache.get(context);
     if (contextualConfig == null) {
@@ -52,6 +52,23 @@ public class JdbcSinkConfig extends AbstractConfig {
   public static final String CONNECTION_PASSWORD = "connection.password";
   private static final String CONNECTION_PASSWORD_DOC = "JDBC connection password.";
 
+  public static final String CONNECTION_POOL_MAX_SIZE = "connection.pool.max.size";
+  private static final int CONNECTION_POOL_MAX_SIZE_DEFAULT = 0;
+  private static final String CONNECTION_POOL_MAX_SIZE_DOC =
+      "Maximum number of connections open to the database at once, counting the connections of all connectors and tasks in the worker that use the "
+      + "same connection URL. The default of 0 does not limit the number of connections.";
+
+  public static final String CONNECTION_POOL_IDLE_TIMEOUT_MS = "connection.pool.idle.timeout.ms";
+  private static final long CONNECTION_POOL_IDLE_TIMEOUT_MS_DEFAULT = 60000;
+  private static final String CONNECTION_POOL_IDLE_TIMEOUT_MS_DOC =
+      "How long in milliseconds connections that are no longer used are kept open for reuse, e.g. by tasks restarted during a rebalance. "
+      + "0 closes connections as soon as they are no longer used.";
+
+  public static final String CONNECTION_POOL_MAX_LIFETIME_MS = "connection.pool.max.lifetime.ms";
+  private static final long CONNECTION_POOL_MAX_LIFETIME_MS_DEFAULT = 30 * 60 * 1000;
+  private static final String CONNECTION_POOL_MAX_LIFETIME_MS_DOC =
+      "Maximum age in milliseconds of pooled connections, older connections are closed instead of being reused. 0 reuses connections regardless of their age.";
+
   public static final String TABLE_NAME_FORMAT = "table.name.format";
   private static final String TABLE_NAME_FORMAT_DEFAULT = "${topic}";
   private static final String TABLE_NAME_FORMAT_DOC =
@@ -71,6 +88,18 @@ public class JdbcSinkConfig extends AbstractConfig {
   private static final String BATCH_SIZE_DOC =
       "Specifies how many records to attempt to batch together for insertion, when possible." + TABLE_OVERRIDABLE_DOC;
 
+  public static final String STATEMENT_CACHE_SIZE = "statement.cache.size";
+  private static final int STATEMENT_CACHE_SIZE_DEFAULT = 10;
+  private static final String STATEMENT_CACHE_SIZE_DOC =
+      "The maximum number of prepared statements kept open per table across writes, one for each combination of key and value schema recently "
+      + "written to it. The least recently used statement is closed when the limit is exceeded." + TABLE_OVERRIDABLE_DOC;
+
+  public static final String STATEMENT_CACHE_TOTAL_SIZE = "statement.cache.total.size";
+  private static final int STATEMENT_CACHE_TOTAL_SIZE_DEFAULT = 100;
+  private static final String STATEMENT_CACHE_TOTAL_SIZE_DOC =
+      "The maximum number of prepared statements kept open across all tables between writes, to stay within database limits on open cursors "
+      + "per connection. When it is exceeded, all statements of the least recently written tables are closed. 0 for no limit.";
+
   public static final String AUTO_CREATE = "auto.create";
   private static final String AUTO_CREATE_DEFAULT = "false";
   private static final String AUTO_CREATE_DOC =
@@ -87,6 +116,12 @@ public class JdbcSinkConfig extends AbstractConfig {
       "The insertion mode to use. Supported modes are 'insert' and 'upsert', with the latter translated to the appropriate upsert semantics for the target database if it is supported."
       + TABLE_OVERRIDABLE_DOC;
 
+  public static final String UPSERT_DEDUPLICATE = "upsert.deduplicate";
+  private static final String UPSERT_DEDUPLICATE_DEFAULT = "false";
+  private static final String UPSERT_DEDUPLICATE_DOC =
+      "Whether to write only the last of the records with the same primary key in each batch in 'upsert' mode, in the order their keys first "
+      + "appear in the batch. This is ignored with the 'kafka' primary key mode, whose keys are unique." + TABLE_OVERRIDABLE_DOC;
+
   public static final String PK_MODE = "pk.mode";
   private static final String PK_MODE_DEFAULT = "none";
   private static final String PK_MODE_DOC =
@@ -106,31 +141,44 @@ public class JdbcSinkConfig extends AbstractConfig {
       + "\n'record_value' - if empty, all fields from the value struct will be used, otherwise used to whitelist the desired fields.";
 
   private static final ConfigDef.Range NON_NEGATIVE_INT_VALIDATOR = ConfigDef.Range.atLeast(0);
+  private static final ConfigDef.Range NON_NEGATIVE_LONG_VALIDATOR = ConfigDef.Range.atLeast(0L);
 
   public static final ConfigDef CONFIG_DEF = new ConfigDef()
       .define(CONNECTION_URL, ConfigDef.Type.STRING, ConfigDef.NO_DEFAULT_VALUE, ConfigDef.Importance.HIGH, CONNECTION_URL_DOC)
       .define(CONNECTION_USER, ConfigDef.Type.STRING, null, ConfigDef.Importance.HIGH, CONNECTION_USER_DOC)
       .define(CONNECTION_PASSWORD, ConfigDef.Type.PASSWORD, null, ConfigDef.Importance.HIGH, CONNECTION_PASSWORD_DOC)
+      .define(CONNECTION_POOL_MAX_SIZE, ConfigDef.Type.INT, CONNECTION_POOL_MAX_SIZE_DEFAULT, NON_NEGATIVE_INT_VALIDATOR, ConfigDef.Importance.LOW, CONNECTION_POOL_MAX_SIZE_DOC)
+      .define(CONNECTION_POOL_IDLE_TIMEOUT_MS, ConfigDef.Type.LONG, CONNECTION_POOL_IDLE_TIMEOUT_MS_DEFAULT, NON_NEGATIVE_LONG_VALIDATOR, ConfigDef.Importance.LOW, CONNECTION_POOL_IDLE_TIMEOUT_MS_DOC)
+      .define(CONNECTION_POOL_MAX_LIFETIME_MS, ConfigDef.Type.LONG, CONNECTION_POOL_MAX_LIFETIME_MS_DEFAULT, NON_NEGATIVE_LONG_VALIDATOR, ConfigDef.Importance.LOW, CONNECTION_POOL_MAX_LIFETIME_MS_DOC)
       .define(TABLE_NAME_FORMAT, ConfigDef.Type.STRING, TABLE_NAME_FORMAT_DEFAULT, ConfigDef.Importance.HIGH, TABLE_NAME_FORMAT_DOC)
       .define(BATCH_SIZE, ConfigDef.Type.INT, BATCH_SIZE_DEFAULT, NON_NEGATIVE_INT_VALIDATOR, ConfigDef.Importance.HIGH, BATCH_SIZE_DOC)
+      .define(STATEMENT_CACHE_SIZE, ConfigDef.Type.INT, STATEMENT_CACHE_SIZE_DEFAULT, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, STATEMENT_CACHE_SIZE_DOC)
+      .define(STATEMENT_CACHE_TOTAL_SIZE, ConfigDef.Type.INT, STATEMENT_CACHE_TOTAL_SIZE_DEFAULT, NON_NEGATIVE_INT_VALIDATOR, ConfigDef.Importance.LOW, STATEMENT_CACHE_TOTAL_SIZE_DOC)
       .define(MAX_RETRIES, ConfigDef.Type.INT, MAX_RETRIES_DEFAULT, NON_NEGATIVE_INT_VALIDATOR, ConfigDef.Importance.MEDIUM, MAX_RETRIES_DOC)
       .define(RETRY_BACKOFF_MS, ConfigDef.Type.INT, RETRY_BACKOFF_MS_DEFAULT, NON_NEGATIVE_INT_VALIDATOR, ConfigDef.Importance.MEDIUM, RETRY_BACKOFF_MS_DOC)
       .define(AUTO_CREATE, ConfigDef.Type.BOOLEAN, AUTO_CREATE_DEFAULT, ConfigDef.Importance.MEDIUM, AUTO_CREATE_DOC)
       .define(AUTO_EVOLVE, ConfigDef.Type.BOOLEAN, AUTO_EVOLVE_DEFAULT, ConfigDef.Importance.MEDIUM, AUTO_EVOLVE_DOC)
       .define(INSERT_MODE, ConfigDef.Type.STRING, INSERT_MODE_DEFAULT, EnumValidator.in(InsertMode.values()), ConfigDef.Importance.MEDIUM, INSERT_MODE_DOC)
+      .define(UPSERT_DEDUPLICATE, ConfigDef.Type.BOOLEAN, UPSERT_DEDUPLICATE_DEFAULT, ConfigDef.Importance.LOW, UPSERT_DEDUPLICATE_DOC)
       .define(PK_MODE, ConfigDef.Type.STRING, PK_MODE_DEFAULT, EnumValidator.in(PrimaryKeyMode.values()), ConfigDef.Importance.MEDIUM, PK_MODE_DOC)
       .define(PK_FIELDS, ConfigDef.Type.LIST, PK_FIELDS_DEFAULT, ConfigDef.Importance.MEDIUM, PK_FIELDS_DOC);
 
   public final String connectionUrl;
   public final String connectionUser;
   public final String connectionPassword;
+  public final int connectionPoolMaxSize;
+  public final long connectionPoolIdleTimeoutMs;
+  public final long connectionPoolMaxLifetimeMs;
   public final String tableNameFormat;
   public final int batchSize;
+  public final int statementCacheSize;
+  public final int statementCacheTotalSize;
   public final int maxRetries;
   public final int retryBackoffMs;
   public final boolean autoCreate;
   public final boolean autoEvolve;
   public final InsertMode insertMode;
+  public final boolean upsertDeduplicate;
   public final PrimaryKeyMode pkMode;
   public final List<String> pkFields;
 
@@ -139,13 +187,19 @@ public class JdbcSinkConfig extends AbstractConfig {
     connectionUrl = getString(CONNECTION_URL);
     connectionUser = getString(CONNECTION_USER);
     connectionPassword = getString(CONNECTION_PASSWORD);
+    connectionPoolMaxSize = getInt(CONNECTION_POOL_MAX_SIZE);
+    connectionPoolIdleTimeoutMs = getLong(CONNECTION_POOL_IDLE_TIMEOUT_MS);
+    connectionPoolMaxLifetimeMs = getLong(CONNECTION_POOL_MAX_LIFETIME_MS);
     tableNameFormat = getString(TABLE_NAME_FORMAT);
     batchSize = getInt(BATCH_SIZE);
+    statementCacheSize = getInt(STATEMENT_CACHE_SIZE);
+    statementCacheTotalSize = getInt(STATEMENT_CACHE_TOTAL_SIZE);
     maxRetries = getInt(MAX_RETRIES);
     retryBackoffMs = getInt(RETRY_BACKOFF_MS);
     autoCreate = getBoolean(AUTO_CREATE);
     autoEvolve = getBoolean(AUTO_EVOLVE);
     insertMode = InsertMode.valueOf(getString(INSERT_MODE).toUpperCase());
+    upsertDeduplicate = getBoolean(UPSERT_DEDUPLICATE);
     pkMode = PrimaryKeyMode.valueOf(getString(PK_MODE).toUpperCase());
     pkFields = getList(PK_FIELDS);
   }
@@ -25,15 +25,26 @@ import org.apache.kafka.connect.sink.SinkRecord;
 import java.nio.ByteBuffer;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import io.confluent.connect.jdbc.sink.metadata.FieldsMetadata;
 import io.confluent.connect.jdbc.sink.metadata.SchemaPair;
 
+/**
+ * Binds records to the parameters of a prepared statement, with a column binder per parameter compiled once up front
+ * from the schemas and the fields metadata, so that binding a record doesn't need to look up fields or dispatch on
+ * the primary key mode.
+ */
 public class PreparedStatementBinder {
-  private final JdbcSinkConfig.PrimaryKeyMode pkMode;
   private final PreparedStatement statement;
-  private final SchemaPair schemaPair;
-  private final FieldsMetadata fieldsMetadata;
+  private final ColumnBinder[] binders;
+  private final int keyColumns;
+  private final Schema.Type[] keyTypes;
+  // Key columns whose values are kept as primitives in key tuples, up to as many as fit in a null mask
+  private final boolean[] integralKeyColumns;
+  private final int integralKeyColumnCount;
 
   public PreparedStatementBinder(
       PreparedStatement statement,
@@ -41,17 +52,93 @@ public class PreparedStatementBinder {
       SchemaPair schemaPair,
       FieldsMetadata fieldsMetadata
   ) {
-    this.pkMode = pkMode;
     this.statement = statement;
-    this.schemaPair = schemaPair;
-    this.fieldsMetadata = fieldsMetadata;
+    this.binders = columnBinders(pkMode, schemaPair, fieldsMetadata);
+    this.keyColumns = fieldsMetadata.keyFieldNames.size();
+    this.keyTypes = new Schema.Type[keyColumns];
+    this.integralKeyColumns = new boolean[keyColumns];
+    int integralKeyColumnCount = 0;
+    for (int i = 0; i < keyColumns; i++) {
+      keyTypes[i] = binders[i].type;
+      integralKeyColumns[i] = isIntegral(keyTypes[i]) && i < Long.SIZE;
+      if (integralKeyColumns[i]) {
+        integralKeyColumnCount++;
+      }
+    }
+    this.integralKeyColumnCount = integralKeyColumnCount;
   }
 
   public void bindRecord(SinkRecord record) throws SQLException {
-    final Struct valueStruct = (Struct) record.value();
+    for (ColumnBinder binder : binders) {
+      binder.bind(statement, record);
+    }
+    statement.addBatch();
+  }
+
+  /**
+   * Get the primary key of a record, as an object that equals the keys of other records with the same primary key
+   * values. Keys are only comparable between binders whose key columns have the same types, see
+   * {@link #hasSameKeyTypes}. Keys of a single column are the value itself, so they don't need a tuple.
+   */
+  public Object key(SinkRecord record) {
+    if (keyColumns == 1) {
+      return keyValue(binders[0].value(record));
+    }
+    final long[] integralValues = integralKeyColumnCount > 0 ? new long[integralKeyColumnCount] : null;
+    final Object[] otherValues = integralKeyColumnCount < keyColumns ? new Object[keyColumns - integralKeyColumnCount] : null;
+    long nullMask = 0;
+    int integral = 0;
+    int other = 0;
+    for (int i = 0; i < keyColumns; i++) {
+      final Object value = binders[i].value(record);
+      if (!integralKeyColumns[i]) {
+        otherValues[other++] = keyValue(value);
+      } else if (value == null) {
+        nullMask |= 1L << i;
+        integral++;
+      } else {
+        integralValues[integral++] = ((Number) value).longValue();
+      }
+    }
+    return new KeyTuple(integralValues, otherValues, nullMask);
+  }
+
+  /**
+   * Whether the key columns of this binder have the same types as those of another binder, so that their keys can be
+   * compared. The same value of a different type, e.g. INT32 and INT64, doesn't make an equal key.
+   */
+  public boolean hasSameKeyTypes(PreparedStatementBinder other) {
+    return Arrays.equals(keyTypes, other.keyTypes);
+  }
+
+  private static Object keyValue(Object value) {
+    // Arrays are only equal to themselves
+    if (value instanceof byte[]) {
+      return ByteBuffer.wrap((byte[]) value);
+    }
+    return value;
+  }
+
+  private static boolean isIntegral(Schema.Type type) {
+    switch (type) {
+      case INT8:
+      case INT16:
+      case INT32:
+      case INT64:
+        return true;
+      default:
+        return false;
+    }
+  }
 
+  private static ColumnBinder[] columnBinders(
+      JdbcSinkConfig.PrimaryKeyMode pkMode,
+      SchemaPair schemaPair,
+      FieldsMetadata fieldsMetadata
+  ) {
     // Assumption: the relevant SQL has placeholders for keyFieldNames first followed by nonKeyFieldNames, in iteration order
 
+    final List<ColumnBinder> binders = new ArrayList<>();
     int index = 1;
 
     switch (pkMode) {
@@ -63,20 +150,45 @@ public class PreparedStatementBinder {
 
       case KAFKA: {
         assert fieldsMetadata.keyFieldNames.size() == 3;
-        bindField(index++, Schema.Type.STRING, record.topic());
-        bindField(index++, Schema.Type.INT32, record.kafkaPartition());
-        bindField(index++, Schema.Type.INT64, record.kafkaOffset());
+        binders.add(new ColumnBinder(index++, Schema.Type.STRING) {
+          @Override
+          Object value(SinkRecord record) {
+            return record.topic();
+          }
+        });
+        binders.add(new ColumnBinder(index++, Schema.Type.INT32) {
+          @Override
+          Object value(SinkRecord record) {
+            return record.kafkaPartition();
+          }
+        });
+        binders.add(new ColumnBinder(index++, Schema.Type.INT64) {
+          @Override
+          Object value(SinkRecord record) {
+            return record.kafkaOffset();
+          }
+        });
       }
       break;
 
       case RECORD_KEY: {
         if (schemaPair.keySchema.type().isPrimitive()) {
           assert fieldsMetadata.keyFieldNames.size() == 1;
-          bindField(index++, schemaPair.keySchema.type(), record.key());
+          binders.add(new ColumnBinder(index++, schemaPair.keySchema.type()) {
+            @Override
+            Object value(SinkRecord record) {
+              return record.key();
+            }
+          });
         } else {
           for (String fieldName : fieldsMetadata.keyFieldNames) {
             final Field field = schemaPair.keySchema.field(fieldName);
-            bindField(index++, field.schema().type(), ((Struct) record.key()).get(field));
+            binders.add(new ColumnBinder(index++, field.schema().type()) {
+              @Override
+              Object value(SinkRecord record) {
+                return ((Struct) record.key()).get(field);
+              }
+            });
           }
         }
       }
@@ -84,23 +196,166 @@ public class PreparedStatementBinder {
 
       case RECORD_VALUE: {
         for (String fieldName : fieldsMetadata.keyFieldNames) {
-          final Field field = schemaPair.valueSchema.field(fieldName);
-          bindField(index++, field.schema().type(), ((Struct) record.value()).get(field));
+          binders.add(valueFieldBinder(index++, schemaPair.valueSchema.field(fieldName)));
         }
       }
       break;
     }
 
     for (final String fieldName : fieldsMetadata.nonKeyFieldNames) {
-      final Field field = record.valueSchema().field(fieldName);
-      bindField(index++, field.schema().type(), valueStruct.get(field));
+      binders.add(valueFieldBinder(index++, schemaPair.valueSchema.field(fieldName)));
     }
 
-    statement.addBatch();
+    return binders.toArray(new ColumnBinder[binders.size()]);
+  }
+
+  private static ColumnBinder valueFieldBinder(int index, final Field field) {
+    return new ColumnBinder(index, field.schema().type()) {
+      @Override
+      Object value(SinkRecord record) {
+        return ((Struct) record.value()).get(field);
+      }
+    };
   }
 
-  void bindField(int index, Schema.Type type, Object value) throws SQLException {
-    bindField(statement, index, type, value);
+  /**
+   * The values of a key of several columns, with the integral ones as primitives and the null ones flagged in a mask.
+   */
+  private static final class KeyTuple {
+    private final long[] integralValues;
+    private final Object[] otherValues;
+    private final long nullMask;
+    private final int hash;
+
+    KeyTuple(long[] integralValues, Object[] otherValues, long nullMask) {
+      this.integralValues = integralValues;
+      this.otherValues = otherValues;
+      this.nullMask = nullMask;
+      this.hash = 31 * (31 * Arrays.hashCode(integralValues) + Arrays.hashCode(otherValues))
+                  + (int) (nullMask ^ (nullMask >>> 32));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof KeyTuple)) {
+        return false;
+      }
+      final KeyTuple that = (KeyTuple) o;
+      return hash == that.hash
+             && nullMask == that.nullMask
+             && Arrays.equals(integralValues, that.integralValues)
+             && Arrays.equals(otherValues, that.otherValues);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * Binds a value of a record to a statement parameter, setting it to null if the value is null.
+   */
+  private abstract static class ColumnBinder {
+    private final int index;
+    private final Schema.Type type;
+    private final ParameterSetter setter;
+
+    ColumnBinder(int index, Schema.Type type) {
+      this.index = index;
+      this.type = type;
+      this.setter = parameterSetter(type);
+    }
+
+    abstract Object value(SinkRecord record);
+
+    void bind(PreparedStatement statement, SinkRecord record) throws SQLException {
+      final Object value = value(record);
+      if (value == null) {
+        statement.setObject(index, null);
+      } else {
+        setter.set(statement, index, value);
+      }
+    }
+  }
+
+  /**
+   * Sets a statement parameter to a non-null value of a schema type.
+   */
+  private abstract static class ParameterSetter {
+    abstract void set(PreparedStatement statement, int index, Object value) throws SQLException;
+  }
+
+  private static ParameterSetter parameterSetter(final Schema.Type type) {
+    switch (type) {
+      case INT8:
+        return new ParameterSetter() {
+          @Override
+          void set(PreparedStatement statement, int index, Object value) throws SQLException {
+            statement.setByte(index, (Byte) value);
+          }
+        };
+      case INT16:
+        return new ParameterSetter() {
+          @Override
+          void set(PreparedStatement statement, int index, Object value) throws SQLException {
+            statement.setShort(index, (Short) value);
+          }
+        };
+      case INT32:
+        return new ParameterSetter() {
+          @Override
+          void set(PreparedStatement statement, int index, Object value) throws SQLException {
+            statement.setInt(index, (Integer) value);
+          }
+        };
+      case INT64:
+        return new ParameterSetter() {
+          @Override
+          void set(PreparedStatement statement, int index, Object value) throws SQLException {
+            statement.setLong(index, (Long) value);
+          }
+        };
+      case FLOAT32:
+        return new ParameterSetter() {
+          @Override
+          void set(PreparedStatement statement, int index, Object value) throws SQLException {
+            statement.setFloat(index, (Float) value);
+          }
+        };
+      case FLOAT64:
+        return new ParameterSetter() {
+          @Override
+          void set(PreparedStatement statement, int index, Object value) throws SQLException {
+            statement.setDouble(index, (Double) value);
+          }
+        };
+      case BOOLEAN:
+        return new ParameterSetter() {
+          @Override
+          void set(PreparedStatement statement, int index, Object value) throws SQLException {
+            statement.setBoolean(index, (Boolean) value);
+          }
+        };
+      case STRING:
+        return new ParameterSetter() {
+          @Override
+          void set(PreparedStatement statement, int index, Object value) throws SQLException {
+            statement.setString(index, (String) value);
+          }
+        };
+      default:
+        // Bytes need converting, and unsupported types only fail once a non-null value is bound
+        return new ParameterSetter() {
+          @Override
+          void set(PreparedStatement statement, int index, Object value) throws SQLException {
+            bindField(statement, index, type, value);
+          }
+        };
+    }
   }
 
   static void bindField(PreparedStatement statement, int index, Schema.Type type, Object value) throws SQLException {
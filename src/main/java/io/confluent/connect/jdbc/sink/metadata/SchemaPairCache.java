@@ -0,0 +1,103 @@
+/*
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.confluent.connect.jdbc.sink.metadata;
+
+import org.apache.kafka.connect.data.Schema;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Interns schema pairs, so that records with equal key and value schemas share one canonical {@link SchemaPair} that
+ * can be compared by reference. Schema instances are looked up by reference, and schemas are only compared for
+ * equality the first time an instance is seen, against the most recently interned pair first, which is what the
+ * instance usually turns out to equal. Both lookups are bounded caches evicting the least recently used entry,
+ * since converters may create new schema instances for every record.
+ */
+public class SchemaPairCache {
+  private final Map<SchemaInstances, SchemaPair> byInstances;
+  private final Map<SchemaPair, SchemaPair> canonical;
+  private SchemaPair last;
+
+  public SchemaPairCache(final int maxSize) {
+    byInstances = new LinkedHashMap<SchemaInstances, SchemaPair>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<SchemaInstances, SchemaPair> eldest) {
+        return size() > maxSize;
+      }
+    };
+    canonical = new LinkedHashMap<SchemaPair, SchemaPair>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<SchemaPair, SchemaPair> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  public SchemaPair intern(Schema keySchema, Schema valueSchema) {
+    final SchemaInstances instances = new SchemaInstances(keySchema, valueSchema);
+    SchemaPair schemaPair = byInstances.get(instances);
+    if (schemaPair == null) {
+      final SchemaPair candidate = new SchemaPair(keySchema, valueSchema);
+      // Comparing with the last pair avoids hashing the whole schema when only the instance is new
+      if (candidate.equals(last)) {
+        schemaPair = last;
+      } else {
+        schemaPair = canonical.get(candidate);
+        if (schemaPair == null) {
+          schemaPair = candidate;
+          canonical.put(schemaPair, schemaPair);
+        }
+      }
+      byInstances.put(instances, schemaPair);
+    }
+    last = schemaPair;
+    return schemaPair;
+  }
+
+  private static final class SchemaInstances {
+    private final Schema keySchema;
+    private final Schema valueSchema;
+
+    private SchemaInstances(Schema keySchema, Schema valueSchema) {
+      this.keySchema = keySchema;
+      this.valueSchema = valueSchema;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof SchemaInstances)) {
+        return false;
+      }
+      SchemaInstances that = (SchemaInstances) o;
+      return keySchema == that.keySchema && valueSchema == that.valueSchema;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(keySchema) + System.identityHashCode(valueSchema);
+    }
+  }
+}
@@ -17,7 +17,6 @@
 package io.confluent.connect.jdbc.source;
 
 import org.apache.kafka.connect.data.Struct;
-import org.apache.kafka.connect.errors.ConnectException;
 import org.apache.kafka.connect.source.SourceRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,8 +24,6 @@ import org.slf4j.LoggerFactory;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Collections;
-import java.util.Map;
 
 import io.confluent.connect.jdbc.util.JdbcUtils;
 
@@ -36,8 +33,11 @@ import io.confluent.connect.jdbc.util.JdbcUtils;
 public class BulkTableQuerier extends TableQuerier {
   private static final Logger log = LoggerFactory.getLogger(BulkTableQuerier.class);
 
-  public BulkTableQuerier(QueryMode mode, String name, String topicPrefix) {
-    super(mode, name, topicPrefix);
+  public BulkTableQuerier(QueryMode mode, String name, String topicPrefix, int fetchSize,
+                          LobLimit lobLimit, DataConverter.NumericMapping numericMapping,
+                          long minPollIntervalMs, long maxPollIntervalMs) {
+    super(mode, name, topicPrefix, fetchSize, lobLimit, numericMapping, minPollIntervalMs,
+          maxPollIntervalMs);
   }
 
   @Override
@@ -63,24 +63,9 @@ public class BulkTableQuerier extends TableQuerier {
 
   @Override
   public SourceRecord extractRecord() throws SQLException {
-    Struct record = DataConverter.convertRecord(schema, resultSet);
+    Struct record = convertRow();
     // TODO: key from primary key? partition?
-    final String topic;
-    final Map<String, String> partition;
-    switch (mode) {
-      case TABLE:
-        partition = Collections.singletonMap(JdbcSourceConnectorConstants.TABLE_NAME_KEY, name);
-        topic = topicPrefix + name;
-        break;
-      case QUERY:
-        partition = Collections.singletonMap(JdbcSourceConnectorConstants.QUERY_NAME_KEY,
-                                             JdbcSourceConnectorConstants.QUERY_NAME_VALUE);
-        topic = topicPrefix;
-        break;
-      default:
-        throw new ConnectException("Unexpected query mode: " + mode);
-    }
-    return new SourceRecord(partition, null, topic, record.schema(), record);
+    return new SourceRecord(sourcePartition, null, topic, record.schema(), record);
   }
 
   @Override
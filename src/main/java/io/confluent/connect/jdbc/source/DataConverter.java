@@ -18,6 +18,7 @@ package io.confluent.connect.jdbc.source;
 
 import org.apache.kafka.connect.data.Date;
 import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaBuilder;
 import org.apache.kafka.connect.data.Struct;
@@ -35,8 +36,10 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.SQLXML;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
+import java.util.List;
 import java.util.TimeZone;
 
 
@@ -54,36 +57,121 @@ public class DataConverter {
     }
   };
 
+  /**
+   * How NUMERIC and DECIMAL columns are mapped to Kafka Connect types.
+   */
+  public enum NumericMapping {
+    NONE, // Always the Decimal logical type
+    PRECISION_ONLY, // Integer types for columns without a fractional part that fit them
+    BEST_FIT // Integer types as above, and FLOAT64 for columns with a fractional part that fit it
+  }
+
+  // Up to 15 significant decimal digits survive the round trip through a double
+  private static final int MAX_FLOAT64_PRECISION = 15;
+
   public static Schema convertSchema(String tableName, ResultSetMetaData metadata)
       throws SQLException {
-    // TODO: Detect changes to metadata, which will require schema updates
+    return convertSchema(tableName, metadata, NumericMapping.NONE);
+  }
+
+  public static Schema convertSchema(String tableName, ResultSetMetaData metadata,
+                                     NumericMapping numericMapping) throws SQLException {
     SchemaBuilder builder = SchemaBuilder.struct().name(tableName);
     for (int col = 1; col <= metadata.getColumnCount(); col++) {
-      addFieldSchema(metadata, col, builder);
+      addFieldSchema(metadata, col, builder, numericMapping);
     }
     return builder.build();
   }
 
+  /**
+   * Convert a single row. This compiles a new {@link RecordConverter} for every call, so callers
+   * converting many rows with the same metadata should use {@link #recordConverter} instead.
+   */
   public static Struct convertRecord(Schema schema, ResultSet resultSet)
       throws SQLException {
-    ResultSetMetaData metadata = resultSet.getMetaData();
-    Struct struct = new Struct(schema);
+    return recordConverter(schema, resultSet.getMetaData()).convert(resultSet);
+  }
+
+  /**
+   * Compile a converter for the rows of result sets with the given metadata into records with the
+   * given schema, which must have been converted from the same metadata.
+   */
+  public static RecordConverter recordConverter(Schema schema, ResultSetMetaData metadata)
+      throws SQLException {
+    return recordConverter(schema, metadata, LobLimit.UNLIMITED);
+  }
+
+  /**
+   * Compile a converter like {@link #recordConverter(Schema, ResultSetMetaData)}, which reads large
+   * object values within the given limit.
+   */
+  public static RecordConverter recordConverter(Schema schema, ResultSetMetaData metadata,
+                                                LobLimit lobLimit) throws SQLException {
+    List<ColumnConverter> converters = new ArrayList<>(metadata.getColumnCount());
     for (int col = 1; col <= metadata.getColumnCount(); col++) {
-      try {
-        convertFieldValue(resultSet, col, metadata.getColumnType(col), struct,
-                          metadata.getColumnLabel(col));
-      } catch (IOException e) {
-        log.warn("Ignoring record because processing failed:", e);
-      } catch (SQLException e) {
-        log.warn("Ignoring record due to SQL error:", e);
+      String label = metadata.getColumnLabel(col);
+      String fieldName = label != null && !label.isEmpty() ? label : metadata.getColumnName(col);
+      Field field = schema.field(fieldName);
+      if (field == null) {
+        // Unsupported types are left out of the schema, and warned about during its conversion
+        continue;
+      }
+      ColumnConverter converter = columnConverter(col, metadata.getColumnType(col), field,
+                                                  lobLimit);
+      if (converter != null) {
+        converters.add(converter);
       }
     }
-    return struct;
+    return new RecordConverter(schema, converters.toArray(new ColumnConverter[converters.size()]));
   }
 
+  /**
+   * Converts rows of a result set into records of a fixed schema using a column converter per
+   * field, selected once up front by the column's JDBC type.
+   */
+  public static class RecordConverter {
+    private final Schema schema;
+    private final ColumnConverter[] converters;
+
+    private RecordConverter(Schema schema, ColumnConverter[] converters) {
+      this.schema = schema;
+      this.converters = converters;
+    }
+
+    public Schema schema() {
+      return schema;
+    }
+
+    public Struct convert(ResultSet resultSet) {
+      Struct struct = new Struct(schema);
+      for (ColumnConverter converter : converters) {
+        try {
+          Object colValue = converter.read(resultSet);
+          struct.put(converter.field, resultSet.wasNull() ? null : colValue);
+        } catch (IOException e) {
+          log.warn("Ignoring record because processing failed:", e);
+        } catch (SQLException e) {
+          log.warn("Ignoring record due to SQL error:", e);
+        }
+      }
+      return struct;
+    }
+  }
+
+  private abstract static class ColumnConverter {
+    protected final int col;
+    protected final Field field;
+
+    ColumnConverter(int col, Field field) {
+      this.col = col;
+      this.field = field;
+    }
+
+    abstract Object read(ResultSet resultSet) throws SQLException, IOException;
+  }
 
   private static void addFieldSchema(ResultSetMetaData metadata, int col,
-                                     SchemaBuilder builder)
+                                     SchemaBuilder builder, NumericMapping numericMapping)
       throws SQLException {
     // Label is what the query requested the column name be using an "AS" clause, name is the
     // original
@@ -176,7 +264,10 @@ public class DataConverter {
 
       case Types.NUMERIC:
       case Types.DECIMAL: {
-        SchemaBuilder fieldBuilder = Decimal.builder(metadata.getScale(col));
+        int scale = metadata.getScale(col);
+        Schema.Type primitiveType = numericType(numericMapping, metadata.getPrecision(col), scale);
+        SchemaBuilder fieldBuilder = primitiveType != null ? SchemaBuilder.type(primitiveType)
+                                                           : Decimal.builder(scale);
         if (optional) {
           fieldBuilder.optional();
         }
@@ -262,158 +353,307 @@ public class DataConverter {
     }
   }
 
-  private static void convertFieldValue(ResultSet resultSet, int col, int colType,
-                                        Struct struct, String fieldName)
-      throws SQLException, IOException {
-    final Object colValue;
-    switch (colType) {
-      case Types.NULL: {
-        colValue = null;
-        break;
-      }
+  /**
+   * Choose the primitive type NUMERIC and DECIMAL values of the given precision and scale are
+   * mapped to, if any.
+   * @return the type, or null for the Decimal logical type
+   */
+  private static Schema.Type numericType(NumericMapping numericMapping, int precision, int scale) {
+    // Drivers report a precision of 0 when it is unknown, e.g. Oracle for NUMBER columns declared
+    // without one, and negative scales round to powers of ten, so both are left as decimals
+    if (numericMapping == NumericMapping.NONE || precision <= 0 || scale < 0) {
+      return null;
+    }
+    if (scale == 0) {
+      // Integers of up to 2, 4, 9 and 18 digits always fit the signed 8, 16, 32 and 64 bit types
+      if (precision < 3) {
+        return Schema.Type.INT8;
+      } else if (precision < 5) {
+        return Schema.Type.INT16;
+      } else if (precision < 10) {
+        return Schema.Type.INT32;
+      } else if (precision < 19) {
+        return Schema.Type.INT64;
+      }
+      return null;
+    }
+    if (numericMapping == NumericMapping.BEST_FIT && precision <= MAX_FLOAT64_PRECISION) {
+      return Schema.Type.FLOAT64;
+    }
+    return null;
+  }
 
+  private static ColumnConverter columnConverter(int col, final int colType, Field field,
+                                                 final LobLimit lobLimit) {
+    switch (colType) {
       case Types.BOOLEAN: {
-        colValue = resultSet.getBoolean(col);
-        break;
-      }
-
-      case Types.BIT: {
-        /**
-         * BIT should be either 0 or 1.
-         * TODO: Postgres handles this differently, returning a string "t" or "f". See the
-         * elasticsearch-jdbc plugin for an example of how this is handled
-         */
-        colValue = resultSet.getByte(col);
-        break;
+        return new ColumnConverter(col, field) {
+          @Override
+          Object read(ResultSet resultSet) throws SQLException {
+            return resultSet.getBoolean(col);
+          }
+        };
       }
 
+      // BIT should be either 0 or 1.
+      // TODO: Postgres handles this differently, returning a string "t" or "f". See the
+      // elasticsearch-jdbc plugin for an example of how this is handled
+      case Types.BIT:
       // 8 bits int
       case Types.TINYINT: {
-        colValue = resultSet.getByte(col);
-        break;
+        return new ColumnConverter(col, field) {
+          @Override
+          Object read(ResultSet resultSet) throws SQLException {
+            return resultSet.getByte(col);
+          }
+        };
       }
 
       // 16 bits int
       case Types.SMALLINT: {
-        colValue = resultSet.getShort(col);
-        break;
+        return new ColumnConverter(col, field) {
+          @Override
+          Object read(ResultSet resultSet) throws SQLException {
+            return resultSet.getShort(col);
+          }
+        };
       }
 
       // 32 bits int
       case Types.INTEGER: {
-        colValue = resultSet.getInt(col);
-        break;
+        return new ColumnConverter(col, field) {
+          @Override
+          Object read(ResultSet resultSet) throws SQLException {
+            return resultSet.getInt(col);
+          }
+        };
       }
 
       // 64 bits int
       case Types.BIGINT: {
-        colValue = resultSet.getLong(col);
-        break;
+        return new ColumnConverter(col, field) {
+          @Override
+          Object read(ResultSet resultSet) throws SQLException {
+            return resultSet.getLong(col);
+          }
+        };
       }
 
       // REAL is a single precision floating point value, i.e. a Java float
       case Types.REAL: {
-        colValue = resultSet.getFloat(col);
-        break;
+        return new ColumnConverter(col, field) {
+          @Override
+          Object read(ResultSet resultSet) throws SQLException {
+            return resultSet.getFloat(col);
+          }
+        };
       }
 
       // FLOAT is, confusingly, double precision and effectively the same as DOUBLE. See REAL
       // for single precision
       case Types.FLOAT:
       case Types.DOUBLE: {
-        colValue = resultSet.getDouble(col);
-        break;
+        return new ColumnConverter(col, field) {
+          @Override
+          Object read(ResultSet resultSet) throws SQLException {
+            return resultSet.getDouble(col);
+          }
+        };
       }
 
+      // NUMERIC and DECIMAL columns mapped to primitive types are read with primitive getters,
+      // without going through a BigDecimal
       case Types.NUMERIC:
       case Types.DECIMAL: {
-        colValue = resultSet.getBigDecimal(col);
-        break;
+        switch (field.schema().type()) {
+          case INT8:
+            return new ColumnConverter(col, field) {
+              @Override
+              Object read(ResultSet resultSet) throws SQLException {
+                return resultSet.getByte(col);
+              }
+            };
+          case INT16:
+            return new ColumnConverter(col, field) {
+              @Override
+              Object read(ResultSet resultSet) throws SQLException {
+                return resultSet.getShort(col);
+              }
+            };
+          case INT32:
+            return new ColumnConverter(col, field) {
+              @Override
+              Object read(ResultSet resultSet) throws SQLException {
+                return resultSet.getInt(col);
+              }
+            };
+          case INT64:
+            return new ColumnConverter(col, field) {
+              @Override
+              Object read(ResultSet resultSet) throws SQLException {
+                return resultSet.getLong(col);
+              }
+            };
+          case FLOAT64:
+            return new ColumnConverter(col, field) {
+              @Override
+              Object read(ResultSet resultSet) throws SQLException {
+                return resultSet.getDouble(col);
+              }
+            };
+          default:
+            break;
+        }
+        return new ColumnConverter(col, field) {
+          @Override
+          Object read(ResultSet resultSet) throws SQLException {
+            return resultSet.getBigDecimal(col);
+          }
+        };
       }
 
-      case Types.CHAR:
-      case Types.VARCHAR:
+      // Drivers don't report the length of LONGVARCHAR values up front, so they are only streamed
+      // when limited, otherwise they are read like other strings
       case Types.LONGVARCHAR: {
-        colValue = resultSet.getString(col);
-        break;
+        if (lobLimit.limited()) {
+          return new ColumnConverter(col, field) {
+            @Override
+            Object read(ResultSet resultSet) throws SQLException, IOException {
+              return lobLimit.readString(field, -1, resultSet.getCharacterStream(col));
+            }
+          };
+        }
+        return stringConverter(col, field);
+      }
+
+      case Types.CHAR:
+      case Types.VARCHAR: {
+        return stringConverter(col, field);
       }
 
-      case Types.NCHAR:
-      case Types.NVARCHAR:
       case Types.LONGNVARCHAR: {
-        colValue = resultSet.getNString(col);
-        break;
+        if (lobLimit.limited()) {
+          return new ColumnConverter(col, field) {
+            @Override
+            Object read(ResultSet resultSet) throws SQLException, IOException {
+              return lobLimit.readString(field, -1, resultSet.getNCharacterStream(col));
+            }
+          };
+        }
+        return nStringConverter(col, field);
+      }
+
+      case Types.NCHAR:
+      case Types.NVARCHAR: {
+        return nStringConverter(col, field);
       }
 
       // Binary == fixed, VARBINARY and LONGVARBINARY == bytes
-      case Types.BINARY:
-      case Types.VARBINARY:
       case Types.LONGVARBINARY: {
-        colValue = resultSet.getBytes(col);
-        break;
+        if (lobLimit.limited()) {
+          return new ColumnConverter(col, field) {
+            @Override
+            Object read(ResultSet resultSet) throws SQLException, IOException {
+              return lobLimit.readBytes(field, -1, resultSet.getBinaryStream(col));
+            }
+          };
+        }
+        return bytesConverter(col, field);
+      }
+
+      case Types.BINARY:
+      case Types.VARBINARY: {
+        return bytesConverter(col, field);
       }
 
       // Date is day + moth + year
       case Types.DATE: {
-        colValue = resultSet.getDate(col, UTC_CALENDAR.get());
-        break;
+        return new ColumnConverter(col, field) {
+          @Override
+          Object read(ResultSet resultSet) throws SQLException {
+            return resultSet.getDate(col, UTC_CALENDAR.get());
+          }
+        };
       }
 
       // Time is a time of day -- hour, minute, seconds, nanoseconds
       case Types.TIME: {
-        colValue = resultSet.getTime(col, UTC_CALENDAR.get());
-        break;
+        return new ColumnConverter(col, field) {
+          @Override
+          Object read(ResultSet resultSet) throws SQLException {
+            return resultSet.getTime(col, UTC_CALENDAR.get());
+          }
+        };
       }
 
       // Timestamp is a date + time
       case Types.TIMESTAMP: {
-        colValue = resultSet.getTimestamp(col, UTC_CALENDAR.get());
-        break;
+        return new ColumnConverter(col, field) {
+          @Override
+          Object read(ResultSet resultSet) throws SQLException {
+            return resultSet.getTimestamp(col, UTC_CALENDAR.get());
+          }
+        };
       }
 
       // Datalink is basically a URL -> string
       case Types.DATALINK: {
-        URL url = resultSet.getURL(col);
-        colValue = (url != null ? url.toString() : null);
-        break;
+        return new ColumnConverter(col, field) {
+          @Override
+          Object read(ResultSet resultSet) throws SQLException {
+            URL url = resultSet.getURL(col);
+            return (url != null ? url.toString() : null);
+          }
+        };
       }
 
-      // BLOB == fixed
+      // BLOB == fixed. Large objects are streamed, so no more than the limit is read into memory
       case Types.BLOB: {
-        Blob blob = resultSet.getBlob(col);
-        if (blob == null) {
-          colValue = null;
-        } else {
-          if (blob.length() > Integer.MAX_VALUE) {
-            throw new IOException("Can't process BLOBs longer than Integer.MAX_VALUE");
+        return new ColumnConverter(col, field) {
+          @Override
+          Object read(ResultSet resultSet) throws SQLException, IOException {
+            Blob blob = resultSet.getBlob(col);
+            if (blob == null) {
+              return null;
+            }
+            try {
+              return lobLimit.readBytes(field, blob.length(), blob.getBinaryStream());
+            } finally {
+              blob.free();
+            }
           }
-          colValue = blob.getBytes(1, (int) blob.length());
-          blob.free();
-        }
-        break;
+        };
       }
       case Types.CLOB:
       case Types.NCLOB: {
-        Clob clob = (colType == Types.CLOB ? resultSet.getClob(col) : resultSet.getNClob(col));
-        if (clob == null) {
-          colValue = null;
-        } else {
-          if (clob.length() > Integer.MAX_VALUE) {
-            throw new IOException("Can't process BLOBs longer than Integer.MAX_VALUE");
+        return new ColumnConverter(col, field) {
+          @Override
+          Object read(ResultSet resultSet) throws SQLException, IOException {
+            Clob clob = (colType == Types.CLOB ? resultSet.getClob(col) : resultSet.getNClob(col));
+            if (clob == null) {
+              return null;
+            }
+            try {
+              return lobLimit.readString(field, clob.length(), clob.getCharacterStream());
+            } finally {
+              clob.free();
+            }
           }
-          colValue = clob.getSubString(1, (int) clob.length());
-          clob.free();
-        }
-        break;
+        };
       }
 
       // XML -> string
       case Types.SQLXML: {
-        SQLXML xml = resultSet.getSQLXML(col);
-        colValue = (xml != null ? xml.getString() : null);
-        break;
+        return new ColumnConverter(col, field) {
+          @Override
+          Object read(ResultSet resultSet) throws SQLException {
+            SQLXML xml = resultSet.getSQLXML(col);
+            return (xml != null ? xml.getString() : null);
+          }
+        };
       }
 
+      case Types.NULL:
       case Types.ARRAY:
       case Types.JAVA_OBJECT:
       case Types.OTHER:
@@ -424,13 +664,36 @@ public class DataConverter {
       default: {
         // These are not currently supported, but we don't want to log something for every single
         // record we translate. There will already be errors logged for the schema translation
-        return;
+        return null;
       }
     }
+  }
+
+  private static ColumnConverter stringConverter(int col, Field field) {
+    return new ColumnConverter(col, field) {
+      @Override
+      Object read(ResultSet resultSet) throws SQLException {
+        return resultSet.getString(col);
+      }
+    };
+  }
+
+  private static ColumnConverter nStringConverter(int col, Field field) {
+    return new ColumnConverter(col, field) {
+      @Override
+      Object read(ResultSet resultSet) throws SQLException {
+        return resultSet.getNString(col);
+      }
+    };
+  }
 
-    // FIXME: Would passing in some extra info about the schema so we can get the Field by index
-    // be faster than setting this by name?
-    struct.put(fieldName, resultSet.wasNull() ? null : colValue);
+  private static ColumnConverter bytesConverter(int col, Field field) {
+    return new ColumnConverter(col, field) {
+      @Override
+      Object read(ResultSet resultSet) throws SQLException {
+        return resultSet.getBytes(col);
+      }
+    };
   }
 
 }
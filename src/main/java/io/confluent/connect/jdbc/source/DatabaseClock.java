@@ -0,0 +1,95 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.source;
+
+import org.apache.kafka.common.utils.Time;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Calendar;
+
+import io.confluent.connect.jdbc.util.JdbcUtils;
+
+/**
+ * <p>
+ *   DatabaseClock estimates the current time on the database from the local clock, so that
+ *   incremental queries don't need an extra round trip to the database for every execution.
+ * </p>
+ * <p>
+ *   Each sample of the database time records the skew against the local clock along with its
+ *   uncertainty: half the round trip of the sampling query. The uncertainty then grows with the time
+ *   since the sample to allow for the clocks drifting apart, and once it exceeds the configured
+ *   bound the next estimate takes a fresh sample. Estimates are lowered by their uncertainty, so
+ *   they never run ahead of the actual time on the database.
+ * </p>
+ */
+public class DatabaseClock {
+  private static final Logger log = LoggerFactory.getLogger(DatabaseClock.class);
+
+  // Assumed worst case rate at which the local and database clocks drift apart, i.e. 500ppm
+  static final double MAX_DRIFT_RATE = 0.0005;
+
+  private final Time time;
+  private final long maxErrorMs;
+  // Local time of the last sample, the database time minus the local time at that point, and
+  // the uncertainty of that difference
+  private long sampledAt;
+  private long skewMs;
+  private long sampleErrorMs;
+  private boolean sampled = false;
+
+  /**
+   * @param maxErrorMs the maximum uncertainty of an estimate before the database time is sampled
+   *                   again, or 0 to sample it for every estimate
+   */
+  public DatabaseClock(Time time, long maxErrorMs) {
+    this.time = time;
+    this.maxErrorMs = maxErrorMs;
+  }
+
+  /**
+   * Get the current time on the database, sampling it using the given connection if the estimate
+   * from the last sample is too uncertain.
+   */
+  public synchronized Timestamp currentTime(Connection db, Calendar cal) throws SQLException {
+    long now = time.milliseconds();
+    if (!sampled || maxErrorMs <= 0 || now < sampledAt || errorAt(now) > maxErrorMs) {
+      sample(db, cal);
+      now = time.milliseconds();
+    }
+    return new Timestamp(now + skewMs - errorAt(now));
+  }
+
+  private long errorAt(long now) {
+    return sampleErrorMs + (long) Math.ceil((now - sampledAt) * MAX_DRIFT_RATE);
+  }
+
+  private void sample(Connection db, Calendar cal) throws SQLException {
+    long before = time.milliseconds();
+    Timestamp dbTime = JdbcUtils.getCurrentTimeOnDB(db, cal);
+    long after = time.milliseconds();
+    sampledAt = before + (after - before) / 2;
+    skewMs = dbTime.getTime() - sampledAt;
+    sampleErrorMs = (after - before + 1) / 2;
+    sampled = true;
+    log.debug("Sampled database time {} with skew {} ms and uncertainty {} ms",
+              JdbcUtils.formatUTC(dbTime), skewMs, sampleErrorMs);
+  }
+}
@@ -32,6 +32,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
+import io.confluent.connect.jdbc.util.ConnectionPool;
 import io.confluent.connect.jdbc.util.JdbcUtils;
 
 public class JdbcSourceConnectorConfig extends AbstractConfig {
@@ -46,6 +47,17 @@ public class JdbcSourceConnectorConfig extends AbstractConfig {
   public static final int POLL_INTERVAL_MS_DEFAULT = 5000;
   private static final String POLL_INTERVAL_MS_DISPLAY = "Poll Interval (ms)";
 
+  public static final String POLL_INTERVAL_MAX_MS_CONFIG = "poll.interval.max.ms";
+  private static final String POLL_INTERVAL_MAX_MS_DOC =
+      "Maximum interval in ms between queries of a table that keeps returning no new data. The "
+      + "interval for a table doubles every time its query comes back empty, up to this maximum, "
+      + "and drops back to poll.interval.ms as soon as a query returns rows, so busy tables are "
+      + "polled frequently and idle ones rarely. If not greater than poll.interval.ms, which "
+      + "includes the default of 0, backoff is disabled and every table is polled at the fixed "
+      + "poll.interval.ms.";
+  public static final int POLL_INTERVAL_MAX_MS_DEFAULT = 0;
+  private static final String POLL_INTERVAL_MAX_MS_DISPLAY = "Maximum Poll Interval (ms)";
+
   public static final String BATCH_MAX_ROWS_CONFIG = "batch.max.rows";
   private static final String BATCH_MAX_ROWS_DOC =
       "Maximum number of rows to include in a single batch when polling for new data. This "
@@ -89,6 +101,53 @@ public class JdbcSourceConnectorConfig extends AbstractConfig {
   public static final String TIMESTAMP_COLUMN_NAME_DEFAULT = "";
   private static final String TIMESTAMP_COLUMN_NAME_DISPLAY = "Timestamp Column Name";
 
+  public static final String BULK_SPLIT_COUNT_CONFIG = "bulk.split.count";
+  private static final String BULK_SPLIT_COUNT_DOC =
+      "Maximum number of key ranges to split each table into in bulk mode, based on the minimum "
+      + "and maximum value of the table's integer key column. Range boundaries are multiples of "
+      + "a power of two, so restarts split a table the same way unless its keys have grown or "
+      + "shrunk considerably. The ranges are spread over the connector's tasks and can run "
+      + "concurrently within a task (see query.concurrency). Each range tracks its own offset, so "
+      + "an interrupted load resumes where it stopped. Tables without a usable integer key column "
+      + "are loaded whole. The default of 1 disables splitting.";
+  public static final int BULK_SPLIT_COUNT_DEFAULT = 1;
+  private static final String BULK_SPLIT_COUNT_DISPLAY = "Bulk Split Count";
+
+  public static final String BULK_SPLIT_COLUMN_CONFIG = "bulk.split.column";
+  private static final String BULK_SPLIT_COLUMN_DOC =
+      "The name of the numeric column used to split tables into key ranges in bulk mode. If "
+      + "empty, the incrementing column is used if one is configured, otherwise the table's "
+      + "primary key if it consists of a single column.";
+  public static final String BULK_SPLIT_COLUMN_DEFAULT = "";
+  private static final String BULK_SPLIT_COLUMN_DISPLAY = "Bulk Split Column Name";
+
+  public static final String BULK_RESUMABLE_CONFIG = "bulk.resumable";
+  private static final String BULK_RESUMABLE_DOC =
+      "Whether bulk loads of tables record their progress so that an interrupted load resumes "
+      + "where it stopped instead of starting over. Each table is read in order of its key column "
+      + "(see bulk.split.column), which must hold unique integers, and the source offset of "
+      + "every record is its key. Tables without a usable key column are loaded whole as usual.";
+  public static final boolean BULK_RESUMABLE_DEFAULT = false;
+  private static final String BULK_RESUMABLE_DISPLAY = "Resumable Bulk Loads";
+
+  public static final String BULK_PAGE_SIZE_CONFIG = "bulk.page.size";
+  private static final String BULK_PAGE_SIZE_DOC =
+      "Maximum number of rows read by each query of a resumable or split bulk load. The table is "
+      + "read in pages, each continuing after the last key of the previous one, so no cursor is "
+      + "held open across the whole table. 0 reads each table or key range with a single query.";
+  public static final int BULK_PAGE_SIZE_DEFAULT = 10000;
+  private static final String BULK_PAGE_SIZE_DISPLAY = "Bulk Page Size";
+
+  public static final String INCREMENTAL_PAGE_SIZE_CONFIG = "incremental.page.size";
+  private static final String INCREMENTAL_PAGE_SIZE_DOC =
+      "Maximum number of rows read by each query in incrementing and timestamp+incrementing "
+      + "modes. New rows are read in pages, each query continuing from the offset reached by the "
+      + "previous one, so that no cursor or snapshot is held open while working through a large "
+      + "backlog. Timestamp mode is not paged since its offsets don't identify rows uniquely. The "
+      + "default of 0 reads all new rows with a single query.";
+  public static final int INCREMENTAL_PAGE_SIZE_DEFAULT = 0;
+  private static final String INCREMENTAL_PAGE_SIZE_DISPLAY = "Incremental Page Size";
+
   public static final String TABLE_POLL_INTERVAL_MS_CONFIG = "table.poll.interval.ms";
   private static final String TABLE_POLL_INTERVAL_MS_DOC =
       "Frequency in ms to poll for new or removed tables, which may result in updated task "
@@ -144,6 +203,127 @@ public class JdbcSourceConnectorConfig extends AbstractConfig {
   public static final long TIMESTAMP_DELAY_INTERVAL_MS_DEFAULT = 0;
   private static final String TIMESTAMP_DELAY_INTERVAL_MS_DISPLAY = "Delay Interval (ms)";
 
+  public static final String DB_CLOCK_MAX_ERROR_MS_CONFIG = "db.clock.max.error.ms";
+  private static final String DB_CLOCK_MAX_ERROR_MS_DOC =
+      "Maximum uncertainty in ms of the current database time as estimated from the local clock. "
+      + "Queries in timestamp modes select rows up to the current time on the database. Instead "
+      + "of querying it before every execution, it is sampled now and then and derived from the "
+      + "local clock in between; once the uncertainty of the estimate, which grows as the clocks "
+      + "may drift apart, exceeds this bound the time is sampled again. Estimates are lowered by "
+      + "their uncertainty so they never run ahead of the database. 0 queries the database time "
+      + "before every execution.";
+  public static final long DB_CLOCK_MAX_ERROR_MS_DEFAULT = 100;
+  private static final String DB_CLOCK_MAX_ERROR_MS_DISPLAY = "Database Clock Maximum Error (ms)";
+
+  public static final String QUERY_CONCURRENCY_CONFIG = "query.concurrency";
+  private static final String QUERY_CONCURRENCY_DOC =
+      "Maximum number of tables each task queries at the same time. Each concurrent query runs on "
+      + "its own database connection and hands finished batches to the task through a bounded "
+      + "queue. With the default of 1, tables are queried one at a time on a single connection.";
+  public static final int QUERY_CONCURRENCY_DEFAULT = 1;
+  private static final String QUERY_CONCURRENCY_DISPLAY = "Query Concurrency";
+
+  public static final String QUERY_PREFETCH_BATCHES_CONFIG = "query.prefetch.batches";
+  private static final String QUERY_PREFETCH_BATCHES_DOC =
+      "Number of batches of records to read ahead in the background while earlier batches are "
+      + "being sent to Kafka, so that database reads overlap with producing. Together with "
+      + "batch.max.rows this bounds the memory used for records read ahead. The default of 0 "
+      + "reads on demand when only one query runs at a time (see query.concurrency), and reads "
+      + "ahead one batch per concurrent query otherwise.";
+  public static final int QUERY_PREFETCH_BATCHES_DEFAULT = 0;
+  private static final String QUERY_PREFETCH_BATCHES_DISPLAY = "Query Prefetch Batches";
+
+  public static final String QUERY_FETCH_SIZE_CONFIG = "query.fetch.size";
+  private static final String QUERY_FETCH_SIZE_DOC =
+      "Number of rows to fetch from the database at a time while reading query results, so that "
+      + "large tables are streamed rather than loaded into memory in full. Where the driver "
+      + "requires it, the connection is also set up for streaming, e.g. by disabling autocommit "
+      + "for PostgreSQL or using row streaming for MySQL. The default of 0 uses the driver's "
+      + "default behavior.";
+  public static final int QUERY_FETCH_SIZE_DEFAULT = 0;
+  private static final String QUERY_FETCH_SIZE_DISPLAY = "Query Fetch Size";
+
+  public static final String TABLE_ASSIGNMENT_CONFIG = "table.assignment";
+  private static final String TABLE_ASSIGNMENT_DOC =
+      "How tables are assigned to tasks. Options include:\n"
+      + "  * count - give each task the same number of tables, regardless of their size.\n"
+      + "  * size - weight tables by their number of rows as estimated by the database's "
+      + "statistics and balance the total weight of each task. Tables without statistics are "
+      + "weighted as an average table.";
+  public static final String TABLE_ASSIGNMENT_COUNT = "count";
+  public static final String TABLE_ASSIGNMENT_SIZE = "size";
+  public static final String TABLE_ASSIGNMENT_DEFAULT = TABLE_ASSIGNMENT_COUNT;
+  private static final String TABLE_ASSIGNMENT_DISPLAY = "Table Assignment";
+
+  public static final String LOB_MAX_SIZE_CONFIG = "lob.max.size";
+  private static final String LOB_MAX_SIZE_DOC =
+      "Maximum size of BLOB, CLOB and other large object column values, in bytes for binary and "
+      + "in characters for character columns. Values are streamed from the database, so no more "
+      + "than this is read into memory for any value, and values over it are handled as set by "
+      + "lob.overflow. The default of 0 does not limit the size.";
+  public static final int LOB_MAX_SIZE_DEFAULT = 0;
+  private static final String LOB_MAX_SIZE_DISPLAY = "Large Object Maximum Size";
+
+  public static final String LOB_OVERFLOW_CONFIG = "lob.overflow";
+  private static final String LOB_OVERFLOW_DOC =
+      "What to do with large object column values over lob.max.size. Options include:\n"
+      + "  * fail - fail the task.\n"
+      + "  * truncate - keep the start of the value, up to the maximum size.\n"
+      + "  * skip - replace the value with null, or with an empty value if the column is not "
+      + "nullable.";
+  public static final String LOB_OVERFLOW_FAIL = "fail";
+  public static final String LOB_OVERFLOW_TRUNCATE = "truncate";
+  public static final String LOB_OVERFLOW_SKIP = "skip";
+  public static final String LOB_OVERFLOW_DEFAULT = LOB_OVERFLOW_FAIL;
+  private static final String LOB_OVERFLOW_DISPLAY = "Large Object Overflow";
+
+  public static final String NUMERIC_MAPPING_CONFIG = "numeric.mapping";
+  private static final String NUMERIC_MAPPING_DOC =
+      "How NUMERIC and DECIMAL columns are mapped to Kafka Connect types. Options include:\n"
+      + "  * none - map every column to the Decimal logical type.\n"
+      + "  * precision_only - map columns without a fractional part to INT8, INT16, INT32 or "
+      + "INT64, the smallest that holds every value of the column's precision, and other columns "
+      + "to Decimal.\n"
+      + "  * best_fit - map columns like precision_only, and also map columns with a fractional "
+      + "part and a precision of at most 15 to FLOAT64.\n"
+      + "Columns of unknown precision, such as Oracle NUMBER columns declared without one, are "
+      + "always mapped to Decimal.";
+  public static final String NUMERIC_MAPPING_NONE = "none";
+  public static final String NUMERIC_MAPPING_PRECISION_ONLY = "precision_only";
+  public static final String NUMERIC_MAPPING_BEST_FIT = "best_fit";
+  public static final String NUMERIC_MAPPING_DEFAULT = NUMERIC_MAPPING_NONE;
+  private static final String NUMERIC_MAPPING_DISPLAY = "Map Numeric Values By Precision";
+
+  public static final String CONNECTION_POOL_MAX_SIZE_CONFIG = "connection.pool.max.size";
+  private static final String CONNECTION_POOL_MAX_SIZE_DOC =
+      "Maximum number of connections open to the database at once, counting the connections of "
+      + "all connectors and tasks in the worker that use the same connection URL. Connections are "
+      + "pooled and shared by the connectors and tasks that also use the same credentials and pool "
+      + "settings; at the limit, connections idle in other pools are closed, or else connectors "
+      + "and tasks wait for one to be returned. The default of 0 does not limit the number of "
+      + "connections.";
+  public static final int CONNECTION_POOL_MAX_SIZE_DEFAULT = 0;
+  private static final String CONNECTION_POOL_MAX_SIZE_DISPLAY = "Connection Pool Maximum Size";
+
+  public static final String CONNECTION_POOL_IDLE_TIMEOUT_MS_CONFIG
+      = "connection.pool.idle.timeout.ms";
+  private static final String CONNECTION_POOL_IDLE_TIMEOUT_MS_DOC =
+      "How long in ms connections that are no longer used are kept open in the pool for reuse, "
+      + "e.g. by tasks restarted during a rebalance. 0 closes connections as soon as they are no "
+      + "longer used.";
+  public static final long CONNECTION_POOL_IDLE_TIMEOUT_MS_DEFAULT = 60000;
+  private static final String CONNECTION_POOL_IDLE_TIMEOUT_MS_DISPLAY
+      = "Connection Pool Idle Timeout (ms)";
+
+  public static final String CONNECTION_POOL_MAX_LIFETIME_MS_CONFIG
+      = "connection.pool.max.lifetime.ms";
+  private static final String CONNECTION_POOL_MAX_LIFETIME_MS_DOC =
+      "Maximum age in ms of pooled connections. Older connections are closed instead of being "
+      + "reused. 0 reuses connections regardless of their age.";
+  public static final long CONNECTION_POOL_MAX_LIFETIME_MS_DEFAULT = 30 * 60 * 1000;
+  private static final String CONNECTION_POOL_MAX_LIFETIME_MS_DISPLAY
+      = "Connection Pool Maximum Lifetime (ms)";
+
   public static final String DATABASE_GROUP = "Database";
   public static final String MODE_GROUP = "Mode";
   public static final String CONNECTOR_GROUP = "Connector";
@@ -175,10 +355,13 @@ public class JdbcSourceConnectorConfig extends AbstractConfig {
                 TABLE_RECOMMENDER)
         .define(TABLE_BLACKLIST_CONFIG, Type.LIST, TABLE_BLACKLIST_DEFAULT, Importance.MEDIUM, TABLE_BLACKLIST_DOC, DATABASE_GROUP, 3, Width.LONG, TABLE_BLACKLIST_DISPLAY,
                 TABLE_RECOMMENDER)
+        .define(CONNECTION_POOL_MAX_SIZE_CONFIG, Type.INT, CONNECTION_POOL_MAX_SIZE_DEFAULT, ConfigDef.Range.atLeast(0), Importance.LOW, CONNECTION_POOL_MAX_SIZE_DOC, DATABASE_GROUP, 4, Width.SHORT, CONNECTION_POOL_MAX_SIZE_DISPLAY)
+        .define(CONNECTION_POOL_IDLE_TIMEOUT_MS_CONFIG, Type.LONG, CONNECTION_POOL_IDLE_TIMEOUT_MS_DEFAULT, ConfigDef.Range.atLeast(0L), Importance.LOW, CONNECTION_POOL_IDLE_TIMEOUT_MS_DOC, DATABASE_GROUP, 5, Width.SHORT, CONNECTION_POOL_IDLE_TIMEOUT_MS_DISPLAY)
+        .define(CONNECTION_POOL_MAX_LIFETIME_MS_CONFIG, Type.LONG, CONNECTION_POOL_MAX_LIFETIME_MS_DEFAULT, ConfigDef.Range.atLeast(0L), Importance.LOW, CONNECTION_POOL_MAX_LIFETIME_MS_DOC, DATABASE_GROUP, 6, Width.SHORT, CONNECTION_POOL_MAX_LIFETIME_MS_DISPLAY)
         .define(TABLE_TYPE_CONFIG, Type.LIST, TABLE_TYPE_DEFAULT, Importance.LOW,
                 TABLE_TYPE_DOC, CONNECTOR_GROUP, 4, Width.MEDIUM, TABLE_TYPE_DISPLAY)
         .define(MODE_CONFIG, Type.STRING, MODE_UNSPECIFIED, ConfigDef.ValidString.in(MODE_UNSPECIFIED, MODE_BULK, MODE_TIMESTAMP, MODE_INCREMENTING, MODE_TIMESTAMP_INCREMENTING),
-                Importance.HIGH, MODE_DOC, MODE_GROUP, 1, Width.MEDIUM, MODE_DISPLAY, Arrays.asList(INCREMENTING_COLUMN_NAME_CONFIG, TIMESTAMP_COLUMN_NAME_CONFIG, VALIDATE_NON_NULL_CONFIG))
+                Importance.HIGH, MODE_DOC, MODE_GROUP, 1, Width.MEDIUM, MODE_DISPLAY, Arrays.asList(INCREMENTING_COLUMN_NAME_CONFIG, TIMESTAMP_COLUMN_NAME_CONFIG, VALIDATE_NON_NULL_CONFIG, BULK_SPLIT_COUNT_CONFIG, BULK_SPLIT_COLUMN_CONFIG, BULK_RESUMABLE_CONFIG, BULK_PAGE_SIZE_CONFIG, INCREMENTAL_PAGE_SIZE_CONFIG))
         .define(INCREMENTING_COLUMN_NAME_CONFIG, Type.STRING, INCREMENTING_COLUMN_NAME_DEFAULT, Importance.MEDIUM, INCREMENTING_COLUMN_NAME_DOC, MODE_GROUP, 2, Width.MEDIUM, INCREMENTING_COLUMN_NAME_DISPLAY,
                 MODE_DEPENDENTS_RECOMMENDER)
         .define(TIMESTAMP_COLUMN_NAME_CONFIG, Type.STRING, TIMESTAMP_COLUMN_NAME_DEFAULT, Importance.MEDIUM, TIMESTAMP_COLUMN_NAME_DOC, MODE_GROUP, 3, Width.MEDIUM, TIMESTAMP_COLUMN_NAME_DISPLAY,
@@ -186,11 +369,30 @@ public class JdbcSourceConnectorConfig extends AbstractConfig {
         .define(VALIDATE_NON_NULL_CONFIG, Type.BOOLEAN, VALIDATE_NON_NULL_DEFAULT, Importance.LOW, VALIDATE_NON_NULL_DOC, MODE_GROUP, 4, Width.SHORT, VALIDATE_NON_NULL_DISPLAY,
                 MODE_DEPENDENTS_RECOMMENDER)
         .define(QUERY_CONFIG, Type.STRING, QUERY_DEFAULT, Importance.MEDIUM, QUERY_DOC, MODE_GROUP, 5, Width.SHORT, QUERY_DISPLAY)
+        .define(BULK_SPLIT_COUNT_CONFIG, Type.INT, BULK_SPLIT_COUNT_DEFAULT, ConfigDef.Range.atLeast(1), Importance.LOW, BULK_SPLIT_COUNT_DOC, MODE_GROUP, 6, Width.SHORT, BULK_SPLIT_COUNT_DISPLAY,
+                MODE_DEPENDENTS_RECOMMENDER)
+        .define(BULK_SPLIT_COLUMN_CONFIG, Type.STRING, BULK_SPLIT_COLUMN_DEFAULT, Importance.LOW, BULK_SPLIT_COLUMN_DOC, MODE_GROUP, 7, Width.MEDIUM, BULK_SPLIT_COLUMN_DISPLAY,
+                MODE_DEPENDENTS_RECOMMENDER)
+        .define(BULK_RESUMABLE_CONFIG, Type.BOOLEAN, BULK_RESUMABLE_DEFAULT, Importance.LOW, BULK_RESUMABLE_DOC, MODE_GROUP, 8, Width.SHORT, BULK_RESUMABLE_DISPLAY,
+                MODE_DEPENDENTS_RECOMMENDER)
+        .define(BULK_PAGE_SIZE_CONFIG, Type.INT, BULK_PAGE_SIZE_DEFAULT, ConfigDef.Range.atLeast(0), Importance.LOW, BULK_PAGE_SIZE_DOC, MODE_GROUP, 9, Width.SHORT, BULK_PAGE_SIZE_DISPLAY,
+                MODE_DEPENDENTS_RECOMMENDER)
+        .define(INCREMENTAL_PAGE_SIZE_CONFIG, Type.INT, INCREMENTAL_PAGE_SIZE_DEFAULT, ConfigDef.Range.atLeast(0), Importance.LOW, INCREMENTAL_PAGE_SIZE_DOC, MODE_GROUP, 10, Width.SHORT, INCREMENTAL_PAGE_SIZE_DISPLAY,
+                MODE_DEPENDENTS_RECOMMENDER)
         .define(POLL_INTERVAL_MS_CONFIG, Type.INT, POLL_INTERVAL_MS_DEFAULT, Importance.HIGH, POLL_INTERVAL_MS_DOC, CONNECTOR_GROUP, 1, Width.SHORT, POLL_INTERVAL_MS_DISPLAY)
         .define(BATCH_MAX_ROWS_CONFIG, Type.INT, BATCH_MAX_ROWS_DEFAULT, Importance.LOW, BATCH_MAX_ROWS_DOC, CONNECTOR_GROUP, 2, Width.SHORT, BATCH_MAX_ROWS_DISPLAY)
         .define(TABLE_POLL_INTERVAL_MS_CONFIG, Type.LONG, TABLE_POLL_INTERVAL_MS_DEFAULT, Importance.LOW, TABLE_POLL_INTERVAL_MS_DOC, CONNECTOR_GROUP, 3, Width.SHORT, TABLE_POLL_INTERVAL_MS_DISPLAY)
         .define(TOPIC_PREFIX_CONFIG, Type.STRING, Importance.HIGH, TOPIC_PREFIX_DOC, CONNECTOR_GROUP, 4, Width.MEDIUM, TOPIC_PREFIX_DISPLAY)
-        .define(TIMESTAMP_DELAY_INTERVAL_MS_CONFIG, Type.LONG, TIMESTAMP_DELAY_INTERVAL_MS_DEFAULT, Importance.HIGH, TIMESTAMP_DELAY_INTERVAL_MS_DOC, CONNECTOR_GROUP, 5, Width.MEDIUM, TIMESTAMP_DELAY_INTERVAL_MS_DISPLAY);
+        .define(TIMESTAMP_DELAY_INTERVAL_MS_CONFIG, Type.LONG, TIMESTAMP_DELAY_INTERVAL_MS_DEFAULT, Importance.HIGH, TIMESTAMP_DELAY_INTERVAL_MS_DOC, CONNECTOR_GROUP, 5, Width.MEDIUM, TIMESTAMP_DELAY_INTERVAL_MS_DISPLAY)
+        .define(QUERY_CONCURRENCY_CONFIG, Type.INT, QUERY_CONCURRENCY_DEFAULT, ConfigDef.Range.atLeast(1), Importance.LOW, QUERY_CONCURRENCY_DOC, CONNECTOR_GROUP, 6, Width.SHORT, QUERY_CONCURRENCY_DISPLAY)
+        .define(QUERY_FETCH_SIZE_CONFIG, Type.INT, QUERY_FETCH_SIZE_DEFAULT, ConfigDef.Range.atLeast(0), Importance.LOW, QUERY_FETCH_SIZE_DOC, CONNECTOR_GROUP, 7, Width.SHORT, QUERY_FETCH_SIZE_DISPLAY)
+        .define(POLL_INTERVAL_MAX_MS_CONFIG, Type.INT, POLL_INTERVAL_MAX_MS_DEFAULT, ConfigDef.Range.atLeast(0), Importance.LOW, POLL_INTERVAL_MAX_MS_DOC, CONNECTOR_GROUP, 8, Width.SHORT, POLL_INTERVAL_MAX_MS_DISPLAY)
+        .define(DB_CLOCK_MAX_ERROR_MS_CONFIG, Type.LONG, DB_CLOCK_MAX_ERROR_MS_DEFAULT, ConfigDef.Range.atLeast(0), Importance.LOW, DB_CLOCK_MAX_ERROR_MS_DOC, CONNECTOR_GROUP, 9, Width.SHORT, DB_CLOCK_MAX_ERROR_MS_DISPLAY)
+        .define(TABLE_ASSIGNMENT_CONFIG, Type.STRING, TABLE_ASSIGNMENT_DEFAULT, ConfigDef.ValidString.in(TABLE_ASSIGNMENT_COUNT, TABLE_ASSIGNMENT_SIZE), Importance.LOW, TABLE_ASSIGNMENT_DOC, CONNECTOR_GROUP, 10, Width.SHORT, TABLE_ASSIGNMENT_DISPLAY)
+        .define(QUERY_PREFETCH_BATCHES_CONFIG, Type.INT, QUERY_PREFETCH_BATCHES_DEFAULT, ConfigDef.Range.atLeast(0), Importance.LOW, QUERY_PREFETCH_BATCHES_DOC, CONNECTOR_GROUP, 11, Width.SHORT, QUERY_PREFETCH_BATCHES_DISPLAY)
+        .define(LOB_MAX_SIZE_CONFIG, Type.INT, LOB_MAX_SIZE_DEFAULT, ConfigDef.Range.atLeast(0), Importance.LOW, LOB_MAX_SIZE_DOC, CONNECTOR_GROUP, 12, Width.SHORT, LOB_MAX_SIZE_DISPLAY)
+        .define(LOB_OVERFLOW_CONFIG, Type.STRING, LOB_OVERFLOW_DEFAULT, ConfigDef.ValidString.in(LOB_OVERFLOW_FAIL, LOB_OVERFLOW_TRUNCATE, LOB_OVERFLOW_SKIP), Importance.LOW, LOB_OVERFLOW_DOC, CONNECTOR_GROUP, 13, Width.SHORT, LOB_OVERFLOW_DISPLAY)
+        .define(NUMERIC_MAPPING_CONFIG, Type.STRING, NUMERIC_MAPPING_DEFAULT, ConfigDef.ValidString.in(NUMERIC_MAPPING_NONE, NUMERIC_MAPPING_PRECISION_ONLY, NUMERIC_MAPPING_BEST_FIT), Importance.LOW, NUMERIC_MAPPING_DOC, CONNECTOR_GROUP, 14, Width.SHORT, NUMERIC_MAPPING_DISPLAY);
   }
 
   public static final ConfigDef CONFIG_DEF = baseConfigDef();
@@ -210,9 +412,7 @@ public class JdbcSourceConnectorConfig extends AbstractConfig {
       if (dbUrl == null) {
         throw new ConfigException(CONNECTION_URL_CONFIG + " cannot be null.");
       }
-      Connection db;
-      try {
-        db = DriverManager.getConnection(dbUrl);
+      try (Connection db = DriverManager.getConnection(dbUrl)) {
         return new LinkedList<Object>(JdbcUtils.getTables(db));
       } catch (SQLException e) {
         throw new ConfigException("Couldn't open connection to " + dbUrl, e);
@@ -237,13 +437,16 @@ public class JdbcSourceConnectorConfig extends AbstractConfig {
       String mode = (String) config.get(MODE_CONFIG);
       switch (mode) {
         case MODE_BULK:
-          return false;
+          return name.equals(BULK_SPLIT_COUNT_CONFIG) || name.equals(BULK_SPLIT_COLUMN_CONFIG)
+                 || name.equals(BULK_RESUMABLE_CONFIG) || name.equals(BULK_PAGE_SIZE_CONFIG);
         case MODE_TIMESTAMP:
           return name.equals(TIMESTAMP_COLUMN_NAME_CONFIG) || name.equals(VALIDATE_NON_NULL_CONFIG);
         case MODE_INCREMENTING:
-          return name.equals(INCREMENTING_COLUMN_NAME_CONFIG) || name.equals(VALIDATE_NON_NULL_CONFIG);
+          return name.equals(INCREMENTING_COLUMN_NAME_CONFIG) || name.equals(VALIDATE_NON_NULL_CONFIG)
+                 || name.equals(INCREMENTAL_PAGE_SIZE_CONFIG);
         case MODE_TIMESTAMP_INCREMENTING:
-          return name.equals(TIMESTAMP_COLUMN_NAME_CONFIG) || name.equals(INCREMENTING_COLUMN_NAME_CONFIG) || name.equals(VALIDATE_NON_NULL_CONFIG);
+          return name.equals(TIMESTAMP_COLUMN_NAME_CONFIG) || name.equals(INCREMENTING_COLUMN_NAME_CONFIG) || name.equals(VALIDATE_NON_NULL_CONFIG)
+                 || name.equals(INCREMENTAL_PAGE_SIZE_CONFIG);
         case MODE_UNSPECIFIED:
           throw new ConfigException("Query mode must be specified");
         default:
@@ -256,6 +459,17 @@ public class JdbcSourceConnectorConfig extends AbstractConfig {
     super(subclassConfigDef, props);
   }
 
+  /**
+   * @return the connection pool for the configured database, shared with all connectors and tasks
+   * using the same connection URL and pool settings
+   */
+  public ConnectionPool connectionPool() {
+    return ConnectionPool.get(getString(CONNECTION_URL_CONFIG), null, null,
+                              getInt(CONNECTION_POOL_MAX_SIZE_CONFIG),
+                              getLong(CONNECTION_POOL_IDLE_TIMEOUT_MS_CONFIG),
+                              getLong(CONNECTION_POOL_MAX_LIFETIME_MS_CONFIG));
+  }
+
   public static void main(String[] args) {
     System.out.println(CONFIG_DEF.toRst());
   }
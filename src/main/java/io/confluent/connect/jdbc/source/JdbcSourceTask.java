@@ -26,10 +26,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
@@ -46,10 +46,17 @@ public class JdbcSourceTask extends SourceTask {
 
   private static final Logger log = LoggerFactory.getLogger(JdbcSourceTask.class);
 
+  // How long poll() waits for a batch from the query executor before checking for shutdown
+  private static final long EXECUTOR_POLL_TIMEOUT_MS = 100L;
+  // Passed to tasks by the worker along with the connector's configuration
+  private static final String CONNECTOR_NAME_PROPERTY = "name";
+
   private Time time;
   private JdbcSourceTaskConfig config;
   private Connection db;
   private PriorityQueue<TableQuerier> tableQueue = new PriorityQueue<TableQuerier>();
+  private TableQueryExecutor executor;
+  private JdbcSourceTaskMetrics metrics;
   private AtomicBoolean stop;
 
   public JdbcSourceTask() {
@@ -74,8 +81,13 @@ public class JdbcSourceTask extends SourceTask {
     }
 
     List<String> tables = config.getList(JdbcSourceTaskConfig.TABLES_CONFIG);
+    List<TableKeyRange> ranges = new ArrayList<>();
+    for (String range : config.getList(JdbcSourceTaskConfig.TABLE_RANGES_CONFIG)) {
+      ranges.add(TableKeyRange.parse(range));
+    }
+    boolean hasTables = !tables.isEmpty() || !ranges.isEmpty();
     String query = config.getString(JdbcSourceTaskConfig.QUERY_CONFIG);
-    if ((tables.isEmpty() && query.isEmpty()) || (!tables.isEmpty() && !query.isEmpty())) {
+    if ((!hasTables && query.isEmpty()) || (hasTables && !query.isEmpty())) {
       throw new ConnectException("Invalid configuration: each JdbcSourceTask must have at "
                                         + "least one table assigned to it or one query specified");
     }
@@ -85,11 +97,19 @@ public class JdbcSourceTask extends SourceTask {
                                  Collections.singletonList(query) : tables;
 
     String mode = config.getString(JdbcSourceTaskConfig.MODE_CONFIG);
+    if (queryMode == TableQuerier.QueryMode.TABLE && mode.equals(JdbcSourceTaskConfig.MODE_BULK)
+        && config.getBoolean(JdbcSourceTaskConfig.BULK_RESUMABLE_CONFIG)) {
+      // Resumable bulk loads read each whole table as a single key range
+      for (String table : tables) {
+        ranges.add(new TableKeyRange(table, null, null));
+      }
+      tablesOrQuery = Collections.emptyList();
+    }
     Map<Map<String, String>, Map<String, Object>> offsets = null;
+    List<Map<String, String>> partitions = new ArrayList<>(tables.size() + ranges.size());
     if (mode.equals(JdbcSourceTaskConfig.MODE_INCREMENTING) ||
         mode.equals(JdbcSourceTaskConfig.MODE_TIMESTAMP) ||
         mode.equals(JdbcSourceTaskConfig.MODE_TIMESTAMP_INCREMENTING)) {
-      List<Map<String, String>> partitions = new ArrayList<>(tables.size());
       switch (queryMode) {
         case TABLE:
           for (String table : tables) {
@@ -103,19 +123,21 @@ public class JdbcSourceTask extends SourceTask {
                                                   JdbcSourceConnectorConstants.QUERY_NAME_VALUE));
           break;
       }
+    }
+    // Key ranges of split tables track their progress even in bulk mode
+    for (TableKeyRange range : ranges) {
+      partitions.add(KeyRangeTableQuerier.partition(range));
+    }
+    if (!partitions.isEmpty()) {
       offsets = context.offsetStorageReader().offsets(partitions);
     }
 
     // Must setup the connection now to validate NOT NULL columns. At this point we've already
     // caught any easy-to-find errors so deferring the connection creation won't save any effort
     String dbUrl = config.getString(JdbcSourceTaskConfig.CONNECTION_URL_CONFIG);
-    log.debug("Trying to connect to {}", dbUrl);
-    try {
-      db = DriverManager.getConnection(dbUrl);
-    } catch (SQLException e) {
-      log.error("Couldn't open connection to {}: {}", dbUrl, e);
-      throw new ConnectException(e);
-    }
+    int fetchSize = config.getInt(JdbcSourceTaskConfig.QUERY_FETCH_SIZE_CONFIG);
+    db = openConnection(dbUrl);
+    int statementFetchSize = prepareForStreaming(db, fetchSize);
 
     String incrementingColumn
         = config.getString(JdbcSourceTaskConfig.INCREMENTING_COLUMN_NAME_CONFIG);
@@ -125,6 +147,18 @@ public class JdbcSourceTask extends SourceTask {
         = config.getLong(JdbcSourceTaskConfig.TIMESTAMP_DELAY_INTERVAL_MS_CONFIG);
     boolean validateNonNulls
         = config.getBoolean(JdbcSourceTaskConfig.VALIDATE_NON_NULL_CONFIG);
+    String topicPrefix = config.getString(JdbcSourceTaskConfig.TOPIC_PREFIX_CONFIG);
+    int pollInterval = config.getInt(JdbcSourceTaskConfig.POLL_INTERVAL_MS_CONFIG);
+    int maxPollInterval = config.getInt(JdbcSourceTaskConfig.POLL_INTERVAL_MAX_MS_CONFIG);
+    DatabaseClock dbClock = new DatabaseClock(
+        time, config.getLong(JdbcSourceTaskConfig.DB_CLOCK_MAX_ERROR_MS_CONFIG));
+    int incrementalPageSize = config.getInt(JdbcSourceTaskConfig.INCREMENTAL_PAGE_SIZE_CONFIG);
+    LobLimit lobLimit = new LobLimit(
+        config.getInt(JdbcSourceTaskConfig.LOB_MAX_SIZE_CONFIG),
+        LobLimit.OverflowAction.valueOf(
+            config.getString(JdbcSourceTaskConfig.LOB_OVERFLOW_CONFIG).toUpperCase()));
+    DataConverter.NumericMapping numericMapping = DataConverter.NumericMapping.valueOf(
+        config.getString(JdbcSourceTaskConfig.NUMERIC_MAPPING_CONFIG).toUpperCase());
 
     for (String tableOrQuery : tablesOrQuery) {
       final Map<String, String> partition;
@@ -145,20 +179,85 @@ public class JdbcSourceTask extends SourceTask {
       }
       Map<String, Object> offset = offsets == null ? null : offsets.get(partition);
 
-      String topicPrefix = config.getString(JdbcSourceTaskConfig.TOPIC_PREFIX_CONFIG);
-
       if (mode.equals(JdbcSourceTaskConfig.MODE_BULK)) {
-        tableQueue.add(new BulkTableQuerier(queryMode, tableOrQuery, topicPrefix));
+        tableQueue.add(new BulkTableQuerier(
+            queryMode, tableOrQuery, topicPrefix, statementFetchSize, lobLimit, numericMapping,
+            pollInterval, maxPollInterval));
       } else if (mode.equals(JdbcSourceTaskConfig.MODE_INCREMENTING)) {
         tableQueue.add(new TimestampIncrementingTableQuerier(
-            queryMode, tableOrQuery, topicPrefix, null, incrementingColumn, offset, timestampDelayInterval));
+            queryMode, tableOrQuery, topicPrefix, null, incrementingColumn, offset, timestampDelayInterval,
+            dbClock, incrementalPageSize, statementFetchSize, lobLimit, numericMapping,
+            pollInterval, maxPollInterval));
       } else if (mode.equals(JdbcSourceTaskConfig.MODE_TIMESTAMP)) {
         tableQueue.add(new TimestampIncrementingTableQuerier(
-            queryMode, tableOrQuery, topicPrefix, timestampColumn, null, offset, timestampDelayInterval));
+            queryMode, tableOrQuery, topicPrefix, timestampColumn, null, offset, timestampDelayInterval,
+            dbClock, 0, statementFetchSize, lobLimit, numericMapping, pollInterval,
+            maxPollInterval));
       } else if (mode.endsWith(JdbcSourceTaskConfig.MODE_TIMESTAMP_INCREMENTING)) {
         tableQueue.add(new TimestampIncrementingTableQuerier(
-            queryMode, tableOrQuery, topicPrefix, timestampColumn, incrementingColumn, offset, timestampDelayInterval));
+            queryMode, tableOrQuery, topicPrefix, timestampColumn, incrementingColumn, offset, timestampDelayInterval,
+            dbClock, incrementalPageSize, statementFetchSize, lobLimit, numericMapping,
+            pollInterval, maxPollInterval));
+      }
+    }
+
+    String splitColumn = config.getString(JdbcSourceTaskConfig.BULK_SPLIT_COLUMN_CONFIG);
+    int pageSize = config.getInt(JdbcSourceTaskConfig.BULK_PAGE_SIZE_CONFIG);
+    Map<String, String> keyColumns = new HashMap<>();
+    for (TableKeyRange range : ranges) {
+      if (!keyColumns.containsKey(range.table)) {
+        keyColumns.put(range.table, findKeyColumn(range.table, splitColumn, incrementingColumn));
       }
+      String keyColumn = keyColumns.get(range.table);
+      if (keyColumn == null) {
+        if (range.lower != null || range.upper != null) {
+          throw new ConnectException("Cannot load key ranges of " + range.table + " because it "
+                                     + "has no integer split column or single column integer "
+                                     + "primary key.");
+        }
+        log.warn("Loading {} without resuming because it has no integer key column",
+                 range.table);
+        tableQueue.add(new BulkTableQuerier(
+            TableQuerier.QueryMode.TABLE, range.table, topicPrefix, statementFetchSize, lobLimit,
+            numericMapping, pollInterval, maxPollInterval));
+        continue;
+      }
+      Map<String, Object> offset = offsets.get(KeyRangeTableQuerier.partition(range));
+      tableQueue.add(new KeyRangeTableQuerier(range, topicPrefix, keyColumn, offset, pageSize,
+                                              statementFetchSize, lobLimit, numericMapping,
+                                              pollInterval, maxPollInterval));
+    }
+
+    String connectorName = properties.get(CONNECTOR_NAME_PROPERTY);
+    metrics = new JdbcSourceTaskMetrics(connectorName != null ? connectorName : "unknown",
+                                        config.getInt(JdbcSourceTaskConfig.TASK_ID_CONFIG), time);
+    for (TableQuerier querier : tableQueue) {
+      querier.setMetrics(metrics.table(querier.metricsLabel()));
+    }
+
+    int queryConcurrency = Math.min(
+        config.getInt(JdbcSourceTaskConfig.QUERY_CONCURRENCY_CONFIG), tableQueue.size());
+    int prefetchBatches = config.getInt(JdbcSourceTaskConfig.QUERY_PREFETCH_BATCHES_CONFIG);
+    if (queryConcurrency > 1 || (queryConcurrency == 1 && prefetchBatches > 0)) {
+      // The task's connection becomes the first worker's, the executor owns them all from here on
+      List<Connection> connections = new ArrayList<>(queryConcurrency);
+      connections.add(db);
+      try {
+        while (connections.size() < queryConcurrency) {
+          Connection connection = openConnection(dbUrl);
+          connections.add(connection);
+          prepareForStreaming(connection, fetchSize);
+        }
+      } catch (ConnectException e) {
+        closeQuietly(connections);
+        throw e;
+      }
+      log.info("Querying {} tables with {} concurrent queries in the background",
+               tableQueue.size(), queryConcurrency);
+      executor = new TableQueryExecutor(
+          time, connections, tableQueue,
+          config.getInt(JdbcSourceTaskConfig.BATCH_MAX_ROWS_CONFIG), prefetchBatches);
+      executor.start();
     }
 
     stop = new AtomicBoolean(false);
@@ -169,7 +268,13 @@ public class JdbcSourceTask extends SourceTask {
     if (stop != null) {
       stop.set(true);
     }
-    if (db != null) {
+    if (executor != null) {
+      // Also closes the task's connection, which the executor took over
+      executor.stop();
+    } else if (db != null) {
+      for (TableQuerier querier : tableQueue) {
+        TableQueryExecutor.closeStatementQuietly(querier);
+      }
       log.debug("Trying to close database connection");
       try {
         db.close();
@@ -177,19 +282,24 @@ public class JdbcSourceTask extends SourceTask {
         log.error("Failed to close database connection: ", e);
       }
     }
+    if (metrics != null) {
+      metrics.close();
+    }
   }
 
   @Override
   public List<SourceRecord> poll() throws InterruptedException {
+    if (executor != null) {
+      return pollExecutor();
+    }
+
     long now = time.milliseconds();
     log.trace("{} Polling for new data");
     while (!stop.get()) {
       // If not in the middle of an update, wait for next update time
       TableQuerier querier = tableQueue.peek();
       if (!querier.querying()) {
-        long nextUpdate = querier.getLastUpdate() +
-                          config.getInt(JdbcSourceTaskConfig.POLL_INTERVAL_MS_CONFIG);
-        long untilNext = nextUpdate - now;
+        long untilNext = querier.getNextUpdate() - now;
         log.trace("Waiting {} ms to poll {} next", untilNext, querier.toString());
         if (untilNext > 0) {
           time.sleep(untilNext);
@@ -247,6 +357,61 @@ public class JdbcSourceTask extends SourceTask {
     return null;
   }
 
+  private List<SourceRecord> pollExecutor() throws InterruptedException {
+    while (!stop.get()) {
+      List<SourceRecord> results = executor.poll(EXECUTOR_POLL_TIMEOUT_MS);
+      if (results != null) {
+        log.debug("Returning {} records", results.size());
+        return results;
+      }
+    }
+
+    // Only in case of shutdown
+    return null;
+  }
+
+  // Returns null if the table has no usable key column, i.e. one that holds integers
+  private String findKeyColumn(String table, String splitColumn, String incrementingColumn) {
+    try {
+      String keyColumn
+          = KeyRangeTableQuerier.keyColumn(db, table, splitColumn, incrementingColumn);
+      if (keyColumn == null || !JdbcUtils.isColumnIntegral(db, table, keyColumn)) {
+        return null;
+      }
+      return keyColumn;
+    } catch (SQLException e) {
+      throw new ConnectException("Failed trying to find the key column of " + table, e);
+    }
+  }
+
+  private Connection openConnection(String dbUrl) {
+    log.debug("Trying to connect to {}", dbUrl);
+    try {
+      return config.connectionPool().getConnection();
+    } catch (SQLException e) {
+      log.error("Couldn't open connection to {}: {}", dbUrl, e);
+      throw new ConnectException(e);
+    }
+  }
+
+  private int prepareForStreaming(Connection connection, int fetchSize) {
+    try {
+      return JdbcUtils.prepareForStreaming(connection, fetchSize);
+    } catch (SQLException e) {
+      throw new ConnectException("Failed to set up connection for streaming query results", e);
+    }
+  }
+
+  private static void closeQuietly(List<Connection> connections) {
+    for (Connection connection : connections) {
+      try {
+        connection.close();
+      } catch (SQLException e) {
+        log.warn("Ignoring error closing connection", e);
+      }
+    }
+  }
+
   private void validateNonNullable(String incrementalMode, String table, String incrementingColumn,
                                    String timestampColumn) {
     try {
@@ -31,8 +31,22 @@ public class JdbcSourceTaskConfig extends JdbcSourceConnectorConfig {
   public static final String TABLES_CONFIG = "tables";
   private static final String TABLES_DOC = "List of tables for this task to watch for changes.";
 
+  public static final String TABLE_RANGES_CONFIG = "table.ranges";
+  private static final String TABLE_RANGES_DOC =
+      "List of key ranges of split tables for this task to load, each in the form "
+      + "table:lower:upper.";
+  public static final String TABLE_RANGES_DEFAULT = "";
+
+  public static final String TASK_ID_CONFIG = "task.id";
+  private static final String TASK_ID_DOC =
+      "Index of this task among the tasks of its connector, which labels the task's metrics.";
+  public static final int TASK_ID_DEFAULT = 0;
+
   static ConfigDef config = baseConfigDef()
-      .define(TABLES_CONFIG, Type.LIST, Importance.HIGH, TABLES_DOC);
+      .define(TABLES_CONFIG, Type.LIST, Importance.HIGH, TABLES_DOC)
+      .define(TABLE_RANGES_CONFIG, Type.LIST, TABLE_RANGES_DEFAULT, Importance.HIGH,
+              TABLE_RANGES_DOC)
+      .define(TASK_ID_CONFIG, Type.INT, TASK_ID_DEFAULT, Importance.LOW, TASK_ID_DOC);
 
   public JdbcSourceTaskConfig(Map<String, String> props) {
     super(config, props);
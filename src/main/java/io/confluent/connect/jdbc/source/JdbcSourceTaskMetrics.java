@@ -0,0 +1,195 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.source;
+
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.JmxReporter;
+import org.apache.kafka.common.metrics.Measurable;
+import org.apache.kafka.common.metrics.MetricConfig;
+import org.apache.kafka.common.metrics.Metrics;
+import org.apache.kafka.common.metrics.MetricsReporter;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.metrics.stats.Avg;
+import org.apache.kafka.common.metrics.stats.Max;
+import org.apache.kafka.common.metrics.stats.Rate;
+import org.apache.kafka.common.metrics.stats.Total;
+import org.apache.kafka.common.utils.Time;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Metrics of the queries of a source task, per table, registered over JMX as MBeans named
+ * {@code kafka.connect.jdbc:type=source-table-metrics,connector=<name>,task=<id>,table=<table>}.
+ * Queries in query mode are labelled with the table {@code query}. All key ranges of a table
+ * loaded by the same task share the table's metrics.
+ */
+public class JdbcSourceTaskMetrics {
+  public static final String JMX_PREFIX = "kafka.connect.jdbc";
+  public static final String GROUP = "source-table-metrics";
+
+  private static final double NANOS_PER_MS = 1000000.0;
+
+  private final Metrics metrics;
+  private final Time time;
+  private final Map<String, String> taskTags;
+  private final Map<String, TableMetrics> tables = new HashMap<>();
+
+  public JdbcSourceTaskMetrics(String connector, int taskId, Time time) {
+    this.time = time;
+    this.metrics = new Metrics(new MetricConfig(),
+                               Collections.<MetricsReporter>singletonList(
+                                   new JmxReporter(JMX_PREFIX)),
+                               time);
+    taskTags = new LinkedHashMap<>();
+    taskTags.put("connector", sanitize(connector));
+    taskTags.put("task", Integer.toString(taskId));
+  }
+
+  /**
+   * Get the metrics of a table, registering them the first time they are requested.
+   */
+  public synchronized TableMetrics table(String table) {
+    TableMetrics tableMetrics = tables.get(table);
+    if (tableMetrics == null) {
+      tableMetrics = new TableMetrics(table);
+      tables.put(table, tableMetrics);
+    }
+    return tableMetrics;
+  }
+
+  Metrics metrics() {
+    return metrics;
+  }
+
+  /**
+   * Unregister all metrics.
+   */
+  public void close() {
+    metrics.close();
+  }
+
+  // JMX doesn't allow these characters in unquoted values of object names
+  private static String sanitize(String value) {
+    return value.replaceAll("[,=:*?\"\\\\\n]", "_");
+  }
+
+  /**
+   * Metrics of the queries of a single table. Latencies are in ms, and apart from the execution
+   * of individual queries, cover a whole query cycle, from executing the query until its results
+   * have been read completely, which for paged queries spans several queries.
+   */
+  public class TableMetrics {
+    private final Sensor rows;
+    private final Sensor executeTime;
+    private final Sensor fetchTime;
+    private final Sensor convertTime;
+    private final Sensor rowsPerCycle;
+    private final Sensor cursorOpenTime;
+    private volatile long lastSuccess;
+
+    private TableMetrics(String table) {
+      Map<String, String> tags = new LinkedHashMap<>(taskTags);
+      tags.put("table", sanitize(table));
+      String prefix = "table." + table + ".";
+
+      rows = metrics.sensor(prefix + "rows");
+      rows.add(metricName("rows-rate", "Rows read per second", tags), new Rate());
+      rows.add(metricName("rows-total", "Total number of rows read", tags), new Total());
+
+      executeTime = metrics.sensor(prefix + "execute-time");
+      executeTime.add(metricName("query-execute-time-avg",
+                                 "Average time to execute a query until its first results are "
+                                 + "returned", tags), new Avg());
+      executeTime.add(metricName("query-execute-time-max",
+                                 "Maximum time to execute a query until its first results are "
+                                 + "returned", tags), new Max());
+
+      fetchTime = metrics.sensor(prefix + "fetch-time");
+      fetchTime.add(metricName("fetch-time-avg",
+                               "Average time per query cycle spent fetching rows", tags),
+                    new Avg());
+      fetchTime.add(metricName("fetch-time-max",
+                               "Maximum time per query cycle spent fetching rows", tags),
+                    new Max());
+
+      convertTime = metrics.sensor(prefix + "convert-time");
+      convertTime.add(metricName("convert-time-avg",
+                                 "Average time per query cycle spent converting rows to records",
+                                 tags), new Avg());
+      convertTime.add(metricName("convert-time-max",
+                                 "Maximum time per query cycle spent converting rows to records",
+                                 tags), new Max());
+
+      rowsPerCycle = metrics.sensor(prefix + "rows-per-cycle");
+      rowsPerCycle.add(metricName("rows-per-cycle-avg", "Average number of rows per query cycle",
+                                  tags), new Avg());
+      rowsPerCycle.add(metricName("rows-per-cycle-max", "Maximum number of rows per query cycle",
+                                  tags), new Max());
+
+      cursorOpenTime = metrics.sensor(prefix + "cursor-open-time");
+      cursorOpenTime.add(metricName("cursor-open-time-avg",
+                                    "Average time from executing a query until its results have "
+                                    + "been read completely", tags), new Avg());
+      cursorOpenTime.add(metricName("cursor-open-time-max",
+                                    "Maximum time from executing a query until its results have "
+                                    + "been read completely", tags), new Max());
+
+      lastSuccess = time.milliseconds();
+      metrics.addMetric(
+          metricName("time-since-last-success-ms",
+                     "Time since a query cycle last completed without errors, or since the task "
+                     + "started if none has yet", tags),
+          new Measurable() {
+            @Override
+            public double measure(MetricConfig config, long now) {
+              return now - lastSuccess;
+            }
+          });
+    }
+
+    private MetricName metricName(String name, String description, Map<String, String> tags) {
+      return new MetricName(name, GROUP, description, tags);
+    }
+
+    void recordRows(int count) {
+      rows.record(count);
+    }
+
+    void recordExecute(long nanos) {
+      executeTime.record(nanos / NANOS_PER_MS);
+    }
+
+    /**
+     * Record a query cycle that has ended.
+     * @param succeeded whether all results of the cycle were read without errors
+     * @param now the time the cycle ended
+     */
+    void recordCycle(int rows, long fetchNanos, long convertNanos, long openNanos,
+                     boolean succeeded, long now) {
+      rowsPerCycle.record(rows, now);
+      fetchTime.record(fetchNanos / NANOS_PER_MS, now);
+      convertTime.record(convertNanos / NANOS_PER_MS, now);
+      cursorOpenTime.record(openNanos / NANOS_PER_MS, now);
+      if (succeeded) {
+        lastSuccess = now;
+      }
+    }
+  }
+}
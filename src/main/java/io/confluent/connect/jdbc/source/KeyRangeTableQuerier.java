@@ -0,0 +1,301 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.source;
+
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.confluent.connect.jdbc.util.JdbcUtils;
+
+/**
+ * <p>
+ *   KeyRangeTableQuerier performs a bulk load of one {@link TableKeyRange} of a table, in order of
+ *   the table's numeric key column. Each range is its own source partition, so the ranges of a
+ *   large table can be loaded in parallel by different tasks or worker threads.
+ * </p>
+ * <p>
+ *   The offset of each record is the key of the last row emitted from the range. When the task
+ *   restarts partway through a load the query continues after that key instead of starting over.
+ *   Once the range has been read completely the next periodic load starts from the beginning
+ *   again. To tell a completed load apart from an interrupted one after a restart, each row is
+ *   read one ahead and the offset of the range's last row also marks the load as complete.
+ * </p>
+ * <p>
+ *   With a page size the range is read in keyset pages: each query returns at most that many rows
+ *   and the next one continues after the last key of the previous page, so no cursor is held open
+ *   across the whole range.
+ * </p>
+ */
+public class KeyRangeTableQuerier extends TableQuerier {
+  private static final Logger log = LoggerFactory.getLogger(KeyRangeTableQuerier.class);
+
+  static final String KEY_OFFSET_FIELD = "key";
+  static final String COMPLETE_OFFSET_FIELD = "complete";
+
+  private final TableKeyRange range;
+  private final String keyColumn;
+  private final Map<String, String> partition;
+  private final int pageSize;
+  // Field of the key column in the current schema
+  private Field keyField;
+  // Key of the last row emitted, which the offset is resumed from
+  private Long lastKey;
+  // Key of the last row read from the results, which the next page continues after
+  private Long fetchedKey;
+  // The row to be emitted next and the one read ahead of it, null at the end of the range
+  private Struct current;
+  private Struct following;
+  private boolean readAhead;
+  private boolean hasStart;
+  private int rowsInPage;
+
+  /**
+   * @param pageSize the maximum number of rows read by each query, or 0 to read the range with a
+   *                 single query
+   */
+  public KeyRangeTableQuerier(TableKeyRange range, String topicPrefix, String keyColumn,
+                              Map<String, Object> offset, int pageSize, int fetchSize,
+                              LobLimit lobLimit, DataConverter.NumericMapping numericMapping,
+                              long minPollIntervalMs, long maxPollIntervalMs) {
+    super(QueryMode.TABLE, range.table, topicPrefix, fetchSize, lobLimit, numericMapping,
+          minPollIntervalMs, maxPollIntervalMs);
+    this.range = range;
+    this.keyColumn = keyColumn;
+    this.partition = partition(range);
+    this.pageSize = pageSize;
+    if (offset != null && !Boolean.TRUE.equals(offset.get(COMPLETE_OFFSET_FIELD))) {
+      this.lastKey = (Long) offset.get(KEY_OFFSET_FIELD);
+    }
+    this.fetchedKey = lastKey;
+  }
+
+  /**
+   * @return the source partition of the given key range
+   */
+  public static Map<String, String> partition(TableKeyRange range) {
+    Map<String, String> partition = new HashMap<>(2);
+    partition.put(JdbcSourceConnectorConstants.TABLE_NAME_KEY, range.table);
+    partition.put(JdbcSourceConnectorConstants.RANGE_KEY, range.bounds());
+    return partition;
+  }
+
+  /**
+   * Determine the column used to split a table into key ranges: the explicitly configured split
+   * column if set, otherwise the incrementing column if set, otherwise the table's primary key if
+   * it consists of a single column.
+   * @return the key column, or null if none could be determined
+   */
+  public static String keyColumn(Connection db, String table, String splitColumn,
+                                 String incrementingColumn) throws SQLException {
+    if (splitColumn != null && !splitColumn.isEmpty()) {
+      return splitColumn;
+    }
+    if (incrementingColumn != null && !incrementingColumn.isEmpty()) {
+      return incrementingColumn;
+    }
+    List<String> primaryKey = JdbcUtils.getPrimaryKeyColumns(db, table);
+    return primaryKey.size() == 1 ? primaryKey.get(0) : null;
+  }
+
+  @Override
+  protected void createPreparedStatement(Connection db) throws SQLException {
+    String quoteString = JdbcUtils.getIdentifierQuoteString(db);
+    String quotedKey = JdbcUtils.quoteString(keyColumn, quoteString);
+
+    // Whether there is a start key depends on the offset, so the statement is rebuilt when that
+    // changes. Open ranges are queried without a lower predicate rather than binding
+    // Long.MIN_VALUE, which overflows narrower key column types on some databases.
+    hasStart = startKey() != null;
+    StringBuilder builder = new StringBuilder();
+    builder.append("SELECT * FROM ");
+    builder.append(JdbcUtils.quoteString(name, quoteString));
+    String separator = " WHERE ";
+    if (hasStart) {
+      builder.append(separator);
+      builder.append(quotedKey);
+      builder.append(" >= ?");
+      separator = " AND ";
+    }
+    if (range.upper != null) {
+      builder.append(separator);
+      builder.append(quotedKey);
+      builder.append(" < ?");
+    }
+    builder.append(" ORDER BY ");
+    builder.append(quotedKey);
+    builder.append(" ASC");
+    if (pageSize > 0) {
+      builder.append(JdbcUtils.getLimitClause(db, pageSize));
+    }
+    String queryString = builder.toString();
+    log.debug("{} prepared SQL query: {}", this, queryString);
+    stmt = db.prepareStatement(queryString);
+  }
+
+  @Override
+  public PreparedStatement getOrCreatePreparedStatement(Connection db) throws SQLException {
+    if (stmt != null && hasStart != (startKey() != null)) {
+      stmt.close();
+      stmt = null;
+    }
+    return super.getOrCreatePreparedStatement(db);
+  }
+
+  // Keys are integral, so continuing after the last key is the same as starting at the next one
+  private Long startKey() {
+    return fetchedKey != null ? Long.valueOf(fetchedKey + 1) : range.lower;
+  }
+
+  @Override
+  protected ResultSet executeQuery() throws SQLException {
+    Long start = startKey();
+    int index = 1;
+    if (start != null) {
+      stmt.setLong(index++, start);
+    }
+    if (range.upper != null) {
+      stmt.setLong(index, range.upper);
+    }
+    log.debug("Executing prepared statement for key range {} starting at {}", range, start);
+    rowsInPage = 0;
+    return stmt.executeQuery();
+  }
+
+  @Override
+  public boolean next() throws SQLException {
+    current = readAhead ? following : fetch();
+    following = current != null ? fetch() : null;
+    readAhead = true;
+    if (current == null) {
+      // The range has been loaded completely, the next load starts over
+      lastKey = null;
+      fetchedKey = null;
+      return false;
+    }
+    return true;
+  }
+
+  // Read and convert the next row of the range, or return null at its end
+  private Struct fetch() throws SQLException {
+    if (!fetchRow()) {
+      return null;
+    }
+    Struct row = convertRow();
+    fetchedKey = key(row);
+    return row;
+  }
+
+  private boolean fetchRow() throws SQLException {
+    if (super.next()) {
+      rowsInPage++;
+      return true;
+    }
+    if (pageSize > 0 && rowsInPage == pageSize) {
+      // A full page may be followed by more rows, continue with the next page
+      resultSet.close();
+      endTransaction();
+      stmt = getOrCreatePreparedStatement(stmtConnection);
+      resultSet = runQuery();
+      return fetchRow();
+    }
+    return false;
+  }
+
+  private long key(Struct row) {
+    Object key = row.get(keyField);
+    if (key == null) {
+      throw new ConnectException("Null value in key column " + keyColumn + " of " + name);
+    }
+    return ((Number) key).longValue();
+  }
+
+  @Override
+  public void close(long now) throws SQLException {
+    // A query ended before the end of the range continues after the last row emitted, not the
+    // row read ahead of it
+    fetchedKey = lastKey;
+    current = null;
+    following = null;
+    readAhead = false;
+    super.close(now);
+  }
+
+  @Override
+  protected void schemaChanged() {
+    keyField = schema.field(keyColumn);
+    if (keyField == null) {
+      throw new ConnectException("Key column " + keyColumn + " not found in " + name);
+    }
+    // Keys are paged through as longs, which would skip rows of keys with fractions
+    if (!isIntegral(keyField.schema())) {
+      throw new ConnectException("Invalid type for key column " + keyColumn + " of " + name + ": "
+                                 + keyField.schema().type() + ", it must hold integers");
+    }
+  }
+
+  private static boolean isIntegral(Schema schema) {
+    if (Decimal.LOGICAL_NAME.equals(schema.name())) {
+      String scale = schema.parameters().get(Decimal.SCALE_FIELD);
+      return scale != null && Integer.parseInt(scale) == 0;
+    }
+    switch (schema.type()) {
+      case INT8:
+      case INT16:
+      case INT32:
+      case INT64:
+        return schema.name() == null;
+      default:
+        return false;
+    }
+  }
+
+  @Override
+  public SourceRecord extractRecord() throws SQLException {
+    lastKey = key(current);
+    Map<String, Object> offset = new HashMap<>(2);
+    offset.put(KEY_OFFSET_FIELD, lastKey);
+    if (following == null) {
+      offset.put(COMPLETE_OFFSET_FIELD, true);
+    }
+    return new SourceRecord(partition, offset, topic, current.schema(), current);
+  }
+
+  @Override
+  public String toString() {
+    return "KeyRangeTableQuerier{" +
+           "name='" + name + '\'' +
+           ", range='" + range.bounds() + '\'' +
+           ", keyColumn='" + keyColumn + '\'' +
+           ", pageSize=" + pageSize +
+           ", topicPrefix='" + topicPrefix + '\'' +
+           '}';
+  }
+}
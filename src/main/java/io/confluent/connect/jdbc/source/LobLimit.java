@@ -0,0 +1,261 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.source;
+
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Limit on the size of large object column values, e.g. BLOBs and CLOBs, and what to do with
+ * values over it. Values are read through streams, so no more than the limit is read into memory
+ * however large the value is in the database.
+ */
+public class LobLimit {
+  private static final Logger log = LoggerFactory.getLogger(LobLimit.class);
+
+  public enum OverflowAction {
+    TRUNCATE, // Keep the start of the value
+    SKIP, // Replace the value with null, or an empty value if the field is required
+    FAIL // Fail the task
+  }
+
+  public static final LobLimit UNLIMITED = new LobLimit(0, OverflowAction.FAIL);
+
+  // Some JVMs reserve header words in arrays, so the largest safe array is a little shorter
+  private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+  private static final int INITIAL_BUFFER_SIZE = 8192;
+  // Buffers up to this size are kept for the next value read on the same thread, larger ones are
+  // left to the garbage collector so a single large value doesn't pin its memory
+  private static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+
+  private static final ThreadLocal<byte[]> BYTE_BUFFER = new ThreadLocal<byte[]>() {
+    @Override
+    protected byte[] initialValue() {
+      return new byte[INITIAL_BUFFER_SIZE];
+    }
+  };
+
+  private static final ThreadLocal<char[]> CHAR_BUFFER = new ThreadLocal<char[]>() {
+    @Override
+    protected char[] initialValue() {
+      return new char[INITIAL_BUFFER_SIZE];
+    }
+  };
+
+  private static final byte[] EMPTY_BYTES = new byte[0];
+
+  private final int maxSize;
+  private final OverflowAction action;
+
+  /**
+   * @param maxSize the maximum size of values, in bytes for binary and characters for character
+   *                values, or 0 for no limit
+   * @param action what to do with values over the maximum size
+   */
+  public LobLimit(int maxSize, OverflowAction action) {
+    this.maxSize = maxSize;
+    this.action = action;
+  }
+
+  /**
+   * @return whether values are limited, i.e. whether values of columns the database doesn't
+   *         report the length of up front have to be streamed too
+   */
+  public boolean limited() {
+    return maxSize > 0;
+  }
+
+  /**
+   * Read a binary value.
+   * @param field the field the value is read for
+   * @param length the length of the value if known, otherwise -1
+   * @param in the value's stream, closed once read; null for a null value
+   */
+  public byte[] readBytes(Field field, long length, InputStream in) throws IOException {
+    if (in == null) {
+      return null;
+    }
+    try {
+      int limit = limit();
+      if (length >= 0) {
+        if (length > limit && !keepOverflowing(field, length)) {
+          return field.schema().isOptional() ? null : EMPTY_BYTES;
+        }
+        // The length is known, so the value is read straight into a result of the right size
+        int size = (int) Math.min(length, limit);
+        byte[] value = new byte[size];
+        if (readFully(in, value, 0, size) < size) {
+          throw new IOException("Value of " + field.name() + " is shorter than its length");
+        }
+        return value;
+      }
+
+      byte[] buffer = BYTE_BUFFER.get();
+      int size = readFully(in, buffer, 0, buffer.length);
+      while (size == buffer.length && size <= limit) {
+        buffer = Arrays.copyOf(buffer, grow(buffer.length, limit));
+        size += readFully(in, buffer, size, buffer.length - size);
+      }
+      poolBuffer(BYTE_BUFFER, buffer);
+      if (size > limit) {
+        if (!keepOverflowing(field, -1)) {
+          return field.schema().isOptional() ? null : EMPTY_BYTES;
+        }
+        size = limit;
+      }
+      return Arrays.copyOf(buffer, size);
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Read a character value.
+   * @param field the field the value is read for
+   * @param length the length of the value in characters if known, otherwise -1
+   * @param in the value's reader, closed once read; null for a null value
+   */
+  public String readString(Field field, long length, Reader in) throws IOException {
+    if (in == null) {
+      return null;
+    }
+    try {
+      int limit = limit();
+      // Strings copy the characters they are created from, so even values of a known length are
+      // read through the pooled buffer rather than into an array of their own
+      char[] buffer = CHAR_BUFFER.get();
+      int size;
+      boolean truncated = false;
+      if (length >= 0) {
+        if (length > limit) {
+          if (!keepOverflowing(field, length)) {
+            return field.schema().isOptional() ? null : "";
+          }
+          truncated = true;
+        }
+        size = (int) Math.min(length, limit);
+        if (size > buffer.length) {
+          buffer = new char[size];
+        }
+        if (readFully(in, buffer, 0, size) < size) {
+          throw new IOException("Value of " + field.name() + " is shorter than its length");
+        }
+      } else {
+        size = readFully(in, buffer, 0, buffer.length);
+        while (size == buffer.length && size <= limit) {
+          buffer = Arrays.copyOf(buffer, grow(buffer.length, limit));
+          size += readFully(in, buffer, size, buffer.length - size);
+        }
+        if (size > limit) {
+          if (!keepOverflowing(field, -1)) {
+            return field.schema().isOptional() ? null : "";
+          }
+          size = limit;
+          truncated = true;
+        }
+      }
+      poolBuffer(CHAR_BUFFER, buffer);
+      // Don't split a surrogate pair when truncating
+      if (truncated && size > 0 && Character.isHighSurrogate(buffer[size - 1])) {
+        size--;
+      }
+      return new String(buffer, 0, size);
+    } finally {
+      in.close();
+    }
+  }
+
+  // Values are read into arrays, so even unlimited values are limited by the largest array. One
+  // element over the limit is read to tell values that fit it exactly apart from larger ones
+  private int limit() {
+    return Math.min(maxSize > 0 ? maxSize : Integer.MAX_VALUE, MAX_ARRAY_SIZE - 1);
+  }
+
+  /**
+   * Handle a value over the limit.
+   * @param length the length of the value, or -1 if it is only known to be over the limit
+   * @return true if the start of the value should be kept, false if it should be skipped
+   */
+  private boolean keepOverflowing(Field field, long length) throws IOException {
+    String size = length >= 0 ? Long.toString(length) : "more than " + limit();
+    if (maxSize <= 0) {
+      throw new IOException("Can't process values of " + field.name() + " of size " + size);
+    }
+    switch (action) {
+      case TRUNCATE:
+        log.debug("Truncating value of {} of size {} to {}", field.name(), size, maxSize);
+        return true;
+      case SKIP:
+        log.warn("Skipping value of {} of size {}, which is over the limit of {}", field.name(),
+                 size, maxSize);
+        return false;
+      default:
+        throw new ConnectException("Value of " + field.name() + " of size " + size + " is over "
+                                   + "the limit of " + maxSize + " set by "
+                                   + JdbcSourceConnectorConfig.LOB_MAX_SIZE_CONFIG);
+    }
+  }
+
+  private static int grow(int size, int limit) {
+    return (int) Math.min((long) size * 2, limit + 1);
+  }
+
+  private static void poolBuffer(ThreadLocal<byte[]> pool, byte[] buffer) {
+    if (buffer.length <= MAX_POOLED_BUFFER_SIZE) {
+      pool.set(buffer);
+    }
+  }
+
+  private static void poolBuffer(ThreadLocal<char[]> pool, char[] buffer) {
+    if (buffer.length <= MAX_POOLED_BUFFER_SIZE) {
+      pool.set(buffer);
+    }
+  }
+
+  private static int readFully(InputStream in, byte[] buffer, int offset, int length)
+      throws IOException {
+    int read = 0;
+    while (read < length) {
+      int count = in.read(buffer, offset + read, length - read);
+      if (count < 0) {
+        break;
+      }
+      read += count;
+    }
+    return read;
+  }
+
+  private static int readFully(Reader in, char[] buffer, int offset, int length)
+      throws IOException {
+    int read = 0;
+    while (read < length) {
+      int count = in.read(buffer, offset + read, length - read);
+      if (count < 0) {
+        break;
+      }
+      read += count;
+    }
+    return read;
+  }
+}
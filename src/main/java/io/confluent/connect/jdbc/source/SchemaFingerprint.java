@@ -0,0 +1,77 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.source;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Objects;
+
+/**
+ * A snapshot of the parts of a result set's metadata that {@link DataConverter#convertSchema}
+ * depends on: the label, name, type, precision, scale and nullability of every column. Queries
+ * against the same table almost always return identical metadata, so comparing against the
+ * fingerprint of the previous result set is enough to tell whether its schema can be reused.
+ */
+class SchemaFingerprint {
+  private final String[] labels;
+  private final String[] names;
+  private final int[] types;
+  private final int[] precisions;
+  private final int[] scales;
+  private final int[] nullables;
+
+  public SchemaFingerprint(ResultSetMetaData metadata) throws SQLException {
+    int columnCount = metadata.getColumnCount();
+    labels = new String[columnCount];
+    names = new String[columnCount];
+    types = new int[columnCount];
+    precisions = new int[columnCount];
+    scales = new int[columnCount];
+    nullables = new int[columnCount];
+    for (int i = 0; i < columnCount; i++) {
+      int col = i + 1;
+      labels[i] = metadata.getColumnLabel(col);
+      names[i] = metadata.getColumnName(col);
+      types[i] = metadata.getColumnType(col);
+      precisions[i] = metadata.getPrecision(col);
+      scales[i] = metadata.getScale(col);
+      nullables[i] = metadata.isNullable(col);
+    }
+  }
+
+  /**
+   * Check whether the metadata describes the same columns as this fingerprint, without allocating
+   * a new fingerprint.
+   */
+  public boolean matches(ResultSetMetaData metadata) throws SQLException {
+    if (metadata.getColumnCount() != types.length) {
+      return false;
+    }
+    for (int i = 0; i < types.length; i++) {
+      int col = i + 1;
+      if (types[i] != metadata.getColumnType(col) ||
+          precisions[i] != metadata.getPrecision(col) ||
+          scales[i] != metadata.getScale(col) ||
+          nullables[i] != metadata.isNullable(col) ||
+          !Objects.equals(labels[i], metadata.getColumnLabel(col)) ||
+          !Objects.equals(names[i], metadata.getColumnName(col))) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
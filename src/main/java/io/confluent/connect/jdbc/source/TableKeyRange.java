@@ -0,0 +1,137 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.source;
+
+import org.apache.kafka.common.config.ConfigException;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A contiguous range of values of a table's numeric key column, used to split a bulk load of one
+ * large table into independently loaded and resumable pieces. The lower bound is inclusive and the
+ * upper bound exclusive; a null bound leaves that end of the range open so that the ranges of a
+ * table always cover every possible key, including keys added after the split was computed.
+ */
+public class TableKeyRange {
+  private static final String SEPARATOR = ":";
+
+  public final String table;
+  public final Long lower;
+  public final Long upper;
+
+  public TableKeyRange(String table, Long lower, Long upper) {
+    this.table = table;
+    this.lower = lower;
+    this.upper = upper;
+  }
+
+  /**
+   * Split the keys between {@code min} and {@code max} into at most {@code count} ranges. The
+   * boundaries between ranges are multiples of a power of two, the smallest that divides the keys
+   * into no more than {@code count} ranges, rather than fractions of the span of keys. Splitting a
+   * table again after rows have been added or removed therefore yields the same ranges, and so
+   * the same source partitions and offsets, unless its keys have come to span a different power of
+   * two or a new multiple has been crossed at either end. The first range is open below and the
+   * last open above.
+   */
+  public static List<TableKeyRange> split(String table, long min, long max, int count) {
+    BigInteger lowest = BigInteger.valueOf(min);
+    BigInteger highest = BigInteger.valueOf(max);
+    BigInteger span = highest.subtract(lowest).add(BigInteger.ONE);
+    BigInteger maxRanges = BigInteger.valueOf(count);
+    int shift = 0;
+    while (maxRanges.shiftLeft(shift).compareTo(span) < 0) {
+      shift++;
+    }
+    // Shifting right rounds down, also for negative keys
+    while (highest.shiftRight(shift).subtract(lowest.shiftRight(shift)).compareTo(maxRanges) >= 0) {
+      shift++;
+    }
+
+    List<TableKeyRange> ranges = new ArrayList<>(count);
+    Long lower = null;
+    BigInteger last = highest.shiftRight(shift);
+    for (BigInteger multiple = lowest.shiftRight(shift).add(BigInteger.ONE);
+         multiple.compareTo(last) <= 0; multiple = multiple.add(BigInteger.ONE)) {
+      long boundary = multiple.shiftLeft(shift).longValue();
+      ranges.add(new TableKeyRange(table, lower, boundary));
+      lower = boundary;
+    }
+    ranges.add(new TableKeyRange(table, lower, null));
+    return ranges;
+  }
+
+  /**
+   * Parse a range previously encoded with {@link #toString()}.
+   */
+  public static TableKeyRange parse(String encoded) {
+    int upperStart = encoded.lastIndexOf(SEPARATOR);
+    int lowerStart = upperStart < 0 ? -1 : encoded.lastIndexOf(SEPARATOR, upperStart - 1);
+    if (lowerStart <= 0) {
+      throw new ConfigException("Invalid table key range: " + encoded);
+    }
+    try {
+      return new TableKeyRange(encoded.substring(0, lowerStart),
+                               parseBound(encoded.substring(lowerStart + 1, upperStart)),
+                               parseBound(encoded.substring(upperStart + 1)));
+    } catch (NumberFormatException e) {
+      throw new ConfigException("Invalid table key range: " + encoded);
+    }
+  }
+
+  /**
+   * @return the bounds of this range, without the table name, e.g. for use in source partitions
+   */
+  public String bounds() {
+    return formatBound(lower) + SEPARATOR + formatBound(upper);
+  }
+
+  private static Long parseBound(String bound) {
+    return bound.isEmpty() ? null : Long.parseLong(bound);
+  }
+
+  private static String formatBound(Long bound) {
+    return bound == null ? "" : bound.toString();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    TableKeyRange that = (TableKeyRange) o;
+    return Objects.equals(table, that.table) &&
+           Objects.equals(lower, that.lower) &&
+           Objects.equals(upper, that.upper);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(table, lower, upper);
+  }
+
+  @Override
+  public String toString() {
+    return table + SEPARATOR + bounds();
+  }
+}
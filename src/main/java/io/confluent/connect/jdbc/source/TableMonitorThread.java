@@ -24,17 +24,21 @@ import org.slf4j.LoggerFactory;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
+import io.confluent.connect.jdbc.util.CatalogFingerprint;
 import io.confluent.connect.jdbc.util.JdbcUtils;
 
 /**
  * Thread that monitors the database for changes to the set of tables in the database that this
- * connector should load data from.
+ * connector should load data from. Where the database supports it, the catalog is only listed
+ * again when its {@link CatalogFingerprint} changes.
  */
 public class TableMonitorThread extends Thread {
   private static final Logger log = LoggerFactory.getLogger(TableMonitorThread.class);
@@ -45,8 +49,12 @@ public class TableMonitorThread extends Thread {
   private final long pollMs;
   private Set<String> whitelist;
   private Set<String> blacklist;
-  private List<String> tables;
+  // Guards tables separately from the connection, so that reading them doesn't wait for the
+  // catalog to be listed
+  private final Object tablesLock = new Object();
+  private SortedSet<String> tables;
   private Set<String> tableTypes;
+  private String catalogFingerprint;
 
   public TableMonitorThread(Connection db, ConnectorContext context, long pollMs,
                             Set<String> whitelist, Set<String> blacklist, Set<String> tableTypes) {
@@ -78,15 +86,18 @@ public class TableMonitorThread extends Thread {
     }
   }
 
+  /**
+   * @return the tables to load data from, sorted by name
+   */
   public List<String> tables() {
     //TODO: Timeout should probably be user-configurable or class-level constant
     final long timeout = 10000L;
-    synchronized (db) {
+    synchronized (tablesLock) {
       long started = System.currentTimeMillis();
       long now = started;
       while (tables == null && now - started < timeout) {
         try {
-          db.wait(timeout - (now - started));
+          tablesLock.wait(timeout - (now - started));
         } catch (InterruptedException e) {
           // Ignore
         }
@@ -95,7 +106,7 @@ public class TableMonitorThread extends Thread {
       if (tables == null) {
         throw new ConnectException("Tables could not be updated quickly enough.");
       }
-      return tables;
+      return new ArrayList<>(tables);
     }
   }
 
@@ -103,49 +114,54 @@ public class TableMonitorThread extends Thread {
     shutdownLatch.countDown();
   }
 
-  // Update tables and return true if the
+  // Update tables and return true if the set of tables changed after the first lookup
   private boolean updateTables() {
+    final List<String> tables;
     synchronized (db) {
-      final List<String> tables;
       try {
+        // Taken before listing, so that changes made while listing are caught by the next probe
+        String fingerprint = CatalogFingerprint.of(db);
+        if (fingerprint != null && fingerprint.equals(catalogFingerprint)) {
+          log.trace("Catalog fingerprint {} is unchanged, not listing tables", fingerprint);
+          return false;
+        }
         tables = JdbcUtils.getTables(db, tableTypes);
-        log.debug("Got the following tables: " + Arrays.toString(tables.toArray()));
+        log.debug("Got {} tables with catalog fingerprint {}", tables.size(), fingerprint);
+        catalogFingerprint = fingerprint;
       } catch (SQLException e) {
         log.error("Error while trying to get updated table list, ignoring and waiting for next "
                   + "table poll interval", e);
         return false;
       }
+    }
 
-      final List<String> filteredTables;
-      if (whitelist != null) {
-        filteredTables = new ArrayList<>(tables.size());
-        for (String table : tables) {
-          if (whitelist.contains(table)) {
-            filteredTables.add(table);
-          }
-        }
-      } else if (blacklist != null) {
-        filteredTables = new ArrayList<>(tables.size());
-        for (String table : tables) {
-          if (!blacklist.contains(table)) {
-            filteredTables.add(table);
-          }
-        }
-      } else {
-        filteredTables = tables;
+    final SortedSet<String> filteredTables = new TreeSet<>();
+    for (String table : tables) {
+      if (whitelist != null ? whitelist.contains(table)
+                            : blacklist == null || !blacklist.contains(table)) {
+        filteredTables.add(table);
       }
+    }
 
-      if (!filteredTables.equals(this.tables)) {
-        log.debug("After filtering we got tables: " + Arrays.toString(filteredTables.toArray()));
-        List<String> previousTables = this.tables;
-        this.tables = filteredTables;
-        db.notifyAll();
-        // Only return true if the table list wasn't previously null, i.e. if this was not the
-        // first table lookup
-        return previousTables != null;
+    synchronized (tablesLock) {
+      SortedSet<String> previousTables = this.tables;
+      if (filteredTables.equals(previousTables)) {
+        return false;
       }
-
-      return false;
+      if (previousTables == null) {
+        log.debug("After filtering we got {} tables: {}", filteredTables.size(), filteredTables);
+      } else if (log.isInfoEnabled()) {
+        SortedSet<String> added = new TreeSet<>(filteredTables);
+        added.removeAll(previousTables);
+        SortedSet<String> removed = new TreeSet<>(previousTables);
+        removed.removeAll(filteredTables);
+        log.info("Tables changed, added: {}, removed: {}", added, removed);
+      }
+      this.tables = Collections.unmodifiableSortedSet(filteredTables);
+      tablesLock.notifyAll();
+      // Only return true if the table list wasn't previously null, i.e. if this was not the
+      // first table lookup
+      return previousTables != null;
     }
   }
 }
@@ -17,12 +17,16 @@
 package io.confluent.connect.jdbc.source;
 
 import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.connect.source.SourceRecord;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
 
 /**
  * TableQuerier executes queries against a specific table. Implementations handle different types
@@ -35,32 +39,116 @@ abstract class TableQuerier implements Comparable<TableQuerier> {
     QUERY // User-specified query
   }
 
+  private static final int ROWS_PER_RECORDING = 1000;
+
   protected final QueryMode mode;
   protected final String name;
   protected final String query;
   protected final String topicPrefix;
+  // Source partition and topic of the records, shared by all of them
+  protected final Map<String, String> sourcePartition;
+  protected final String topic;
+  protected final int fetchSize;
+  protected final LobLimit lobLimit;
+  protected final DataConverter.NumericMapping numericMapping;
   protected long lastUpdate;
+  // Time to wait after lastUpdate before querying again. It is reset to the minimum whenever a
+  // query returns rows and doubles, up to the maximum, whenever a query comes back empty
+  protected long pollIntervalMs;
+  private final long minPollIntervalMs;
+  private final long maxPollIntervalMs;
+  private boolean hadRows;
   protected PreparedStatement stmt;
+  // Connection the statement was prepared on. Statements of pooled connections report the
+  // physical connection rather than the one they were prepared on, so it is tracked separately
+  protected Connection stmtConnection;
   protected ResultSet resultSet;
   protected Schema schema;
+  protected DataConverter.RecordConverter converter;
+  // Metadata the current schema was converted from, kept across queries so it can be reused
+  private SchemaFingerprint schemaFingerprint;
+  // Metrics of the table, if instrumented, and what the current query cycle has accumulated for
+  // them. Rows are passed on in chunks rather than one by one to keep the overhead per row low
+  private JdbcSourceTaskMetrics.TableMetrics metrics;
+  private boolean measuring;
+  private boolean exhausted;
+  private long cycleStartNanos;
+  private long fetchNanos;
+  private long convertNanos;
+  private int cycleRows;
+  private int unrecordedRows;
 
-  public TableQuerier(QueryMode mode, String nameOrQuery, String topicPrefix) {
+  /**
+   * @param fetchSize the fetch size to set on the query's statement, or 0 for the driver default
+   * @param lobLimit the limit on the size of large object values
+   * @param numericMapping how NUMERIC and DECIMAL columns are mapped
+   * @param minPollIntervalMs the interval between queries while they keep returning rows
+   * @param maxPollIntervalMs the interval that queries which keep coming back empty back off to
+   */
+  public TableQuerier(QueryMode mode, String nameOrQuery, String topicPrefix, int fetchSize,
+                      LobLimit lobLimit, DataConverter.NumericMapping numericMapping,
+                      long minPollIntervalMs, long maxPollIntervalMs) {
     this.mode = mode;
     this.name = mode.equals(QueryMode.TABLE) ? nameOrQuery : null;
     this.query = mode.equals(QueryMode.QUERY) ? nameOrQuery : null;
     this.topicPrefix = topicPrefix;
+    if (mode.equals(QueryMode.TABLE)) {
+      this.sourcePartition = Collections.singletonMap(JdbcSourceConnectorConstants.TABLE_NAME_KEY,
+                                                      nameOrQuery);
+      this.topic = topicPrefix + nameOrQuery;
+    } else {
+      this.sourcePartition = Collections.singletonMap(JdbcSourceConnectorConstants.QUERY_NAME_KEY,
+                                                      JdbcSourceConnectorConstants.QUERY_NAME_VALUE);
+      this.topic = topicPrefix;
+    }
+    this.fetchSize = fetchSize;
+    this.lobLimit = lobLimit;
+    this.numericMapping = numericMapping;
     this.lastUpdate = 0;
+    this.minPollIntervalMs = minPollIntervalMs;
+    this.maxPollIntervalMs = Math.max(minPollIntervalMs, maxPollIntervalMs);
+    this.pollIntervalMs = minPollIntervalMs;
+  }
+
+  /**
+   * Record metrics of the queries from now on.
+   */
+  public void setMetrics(JdbcSourceTaskMetrics.TableMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * @return the label of the querier's metrics, its table or, for queries, "query"
+   */
+  public String metricsLabel() {
+    return name != null ? name : JdbcSourceConnectorConstants.QUERY_NAME_VALUE;
   }
 
   public long getLastUpdate() {
     return lastUpdate;
   }
 
+  /**
+   * @return the time at which the next query is due
+   */
+  public long getNextUpdate() {
+    return lastUpdate + pollIntervalMs;
+  }
+
   public PreparedStatement getOrCreatePreparedStatement(Connection db) throws SQLException {
     if (stmt != null) {
-      return stmt;
+      if (stmtConnection == db) {
+        return stmt;
+      }
+      // Never run on another connection than the statement belongs to, prepare it again instead
+      stmt.close();
+      stmt = null;
     }
     createPreparedStatement(db);
+    stmtConnection = db;
+    if (fetchSize != 0) {
+      stmt.setFetchSize(fetchSize);
+    }
     return stmt;
   }
 
@@ -72,16 +160,90 @@ abstract class TableQuerier implements Comparable<TableQuerier> {
 
   public void maybeStartQuery(Connection db) throws SQLException {
     if (resultSet == null) {
+      if (metrics != null) {
+        measuring = true;
+        exhausted = false;
+        cycleStartNanos = System.nanoTime();
+        fetchNanos = 0;
+        convertNanos = 0;
+        cycleRows = 0;
+        unrecordedRows = 0;
+      }
       stmt = getOrCreatePreparedStatement(db);
-      resultSet = executeQuery();
-      schema = DataConverter.convertSchema(name, resultSet.getMetaData());
+      resultSet = runQuery();
+      hadRows = false;
+      maybeUpdateSchema(resultSet.getMetaData());
+    }
+  }
+
+  private void maybeUpdateSchema(ResultSetMetaData metadata) throws SQLException {
+    // Reuse the same Schema instance and record converter while the metadata is unchanged, which
+    // avoids converting them on every query and lets downstream converters hit their identity
+    // based caches
+    if (schema != null && schemaFingerprint.matches(metadata)) {
+      return;
     }
+    schema = DataConverter.convertSchema(name, metadata, numericMapping);
+    converter = DataConverter.recordConverter(schema, metadata, lobLimit);
+    schemaFingerprint = new SchemaFingerprint(metadata);
+    schemaChanged();
+  }
+
+  /**
+   * Called when the schema of the query results has changed, e.g. to look up fields used for every
+   * record once per schema rather than once per record.
+   */
+  protected void schemaChanged() {
   }
 
   protected abstract ResultSet executeQuery() throws SQLException;
 
+  /**
+   * Execute the query, recording how long it took if instrumented. Queries executed again while
+   * reading the results, e.g. for the next page, should be executed through this as well.
+   */
+  protected ResultSet runQuery() throws SQLException {
+    if (metrics == null) {
+      return executeQuery();
+    }
+    long start = System.nanoTime();
+    ResultSet result = executeQuery();
+    metrics.recordExecute(System.nanoTime() - start);
+    return result;
+  }
+
   public boolean next() throws SQLException {
-    return resultSet.next();
+    if (metrics == null) {
+      boolean hasNext = resultSet.next();
+      hadRows |= hasNext;
+      return hasNext;
+    }
+    long start = System.nanoTime();
+    boolean hasNext = resultSet.next();
+    fetchNanos += System.nanoTime() - start;
+    hadRows |= hasNext;
+    exhausted = !hasNext;
+    if (hasNext) {
+      cycleRows++;
+      if (++unrecordedRows == ROWS_PER_RECORDING) {
+        metrics.recordRows(unrecordedRows);
+        unrecordedRows = 0;
+      }
+    }
+    return hasNext;
+  }
+
+  /**
+   * Convert the current row, recording how long it took if instrumented.
+   */
+  protected Struct convertRow() throws SQLException {
+    if (metrics == null) {
+      return converter.convert(resultSet);
+    }
+    long start = System.nanoTime();
+    Struct record = converter.convert(resultSet);
+    convertNanos += System.nanoTime() - start;
+    return record;
   }
 
   public abstract SourceRecord extractRecord() throws SQLException;
@@ -90,18 +252,64 @@ abstract class TableQuerier implements Comparable<TableQuerier> {
     if (resultSet != null)
       resultSet.close();
     resultSet = null;
-    // TODO: Can we cache this and quickly check that it's identical for the next query
-    // instead of constructing from scratch since it's almost always the same
-    schema = null;
 
     lastUpdate = now;
+    if (hadRows) {
+      pollIntervalMs = minPollIntervalMs;
+    } else {
+      pollIntervalMs = Math.min(pollIntervalMs * 2, maxPollIntervalMs);
+    }
+    hadRows = false;
+
+    if (measuring) {
+      if (unrecordedRows > 0) {
+        metrics.recordRows(unrecordedRows);
+      }
+      metrics.recordCycle(cycleRows, fetchNanos, convertNanos, System.nanoTime() - cycleStartNanos,
+                          exhausted, now);
+      measuring = false;
+    }
+
+    endTransaction();
+  }
+
+  /**
+   * Close the result set and statement of the querier once it is no longer used, so they don't
+   * stay open on a connection that is returned to a pool rather than closed.
+   */
+  public void closeStatement() throws SQLException {
+    PreparedStatement statement = stmt;
+    stmt = null;
+    stmtConnection = null;
+    try {
+      if (resultSet != null) {
+        resultSet.close();
+      }
+    } finally {
+      resultSet = null;
+      if (statement != null) {
+        statement.close();
+      }
+    }
+  }
+
+  /**
+   * Connections set up for streaming may not autocommit. End the query's transaction so it
+   * doesn't hold on to its snapshot, or stay aborted after an error, until the next query.
+   */
+  protected void endTransaction() throws SQLException {
+    if (stmt != null && !stmtConnection.getAutoCommit()) {
+      stmtConnection.commit();
+    }
   }
 
   @Override
   public int compareTo(TableQuerier other) {
-    if (this.lastUpdate < other.lastUpdate) {
+    long nextUpdate = getNextUpdate();
+    long otherNextUpdate = other.getNextUpdate();
+    if (nextUpdate < otherNextUpdate) {
       return -1;
-    } else if (this.lastUpdate > other.lastUpdate) {
+    } else if (nextUpdate > otherNextUpdate) {
       return 1;
     } else {
       return this.name.compareTo(other.name);
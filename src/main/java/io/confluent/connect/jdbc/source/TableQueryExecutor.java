@@ -0,0 +1,243 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.source;
+
+import org.apache.kafka.common.utils.Time;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * TableQueryExecutor runs the queries of a set of {@link TableQuerier}s concurrently on a fixed
+ * number of worker threads, each with its own database connection. Whenever a worker is free it
+ * claims whichever querier is due next from a schedule shared by all workers, so a slow query only
+ * holds up its own worker while the others keep serving the remaining tables. A querier is run by
+ * one worker at a time, and its statement is prepared again when a worker with another connection
+ * claims it, so a query, its result set and its transaction stay on a single connection and no
+ * connection is used by two workers at once. The worker reads the results in batches and hands
+ * each batch to {@link #poll(long)} through a bounded queue before the querier can be claimed
+ * again, so the records of a table are always delivered in order. With a single worker this
+ * prefetches records in the background while earlier batches are being sent, the size of the
+ * queue bounding how far it reads ahead. If a worker fails, the next call to {@link #poll(long)}
+ * throws the error.
+ */
+class TableQueryExecutor {
+  private static final Logger log = LoggerFactory.getLogger(TableQueryExecutor.class);
+
+  // Upper bound on how long an idle worker sleeps or blocks before checking for shutdown
+  private static final long MAX_IDLE_MS = 100L;
+  private static final long SHUTDOWN_TIMEOUT_MS = 10000L;
+
+  private final Time time;
+  private final List<Connection> connections;
+  // The queriers not being run by a worker, ordered by when they are due
+  private final PriorityQueue<TableQuerier> schedule;
+  private final BlockingQueue<List<SourceRecord>> batches;
+  private final List<Thread> workers;
+  private final int batchMaxRows;
+  private final AtomicBoolean stop = new AtomicBoolean(false);
+  // The first error a worker died of
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+  /**
+   * @param connections one connection per worker; the executor closes them when stopped
+   * @param prefetchBatches the number of finished batches that may wait to be polled, or 0 for
+   *                        one per worker
+   */
+  public TableQueryExecutor(Time time, List<Connection> connections,
+                            Collection<TableQuerier> queriers, int batchMaxRows,
+                            int prefetchBatches) {
+    this.time = time;
+    this.connections = connections;
+    this.schedule = new PriorityQueue<>(queriers);
+    // By default, allow each worker to have one finished batch waiting while it reads the next one
+    this.batches = new ArrayBlockingQueue<>(
+        prefetchBatches > 0 ? prefetchBatches : connections.size());
+    this.workers = new ArrayList<>(connections.size());
+    this.batchMaxRows = batchMaxRows;
+  }
+
+  public void start() {
+    for (int i = 0; i < connections.size(); i++) {
+      Thread worker = new Worker(i, connections.get(i));
+      workers.add(worker);
+      worker.start();
+    }
+  }
+
+  /**
+   * Get the next batch of records read by any of the workers.
+   * @param timeoutMs maximum time to wait for a batch to become available
+   * @return the records, or null if no batch became available in time
+   * @throws ConnectException if a worker has failed
+   */
+  public List<SourceRecord> poll(long timeoutMs) throws InterruptedException {
+    Throwable error = failure.get();
+    if (error != null) {
+      throw new ConnectException("Query worker failed", error);
+    }
+    return batches.poll(timeoutMs, TimeUnit.MILLISECONDS);
+  }
+
+  public void stop() {
+    stop.set(true);
+    for (Thread worker : workers) {
+      try {
+        worker.join(SHUTDOWN_TIMEOUT_MS);
+      } catch (InterruptedException e) {
+        // Ignore, shouldn't be interrupted
+      }
+    }
+    // Queriers still being run by a worker that did not stop in time aren't in the schedule
+    List<TableQuerier> idle;
+    synchronized (schedule) {
+      idle = new ArrayList<>(schedule);
+    }
+    for (TableQuerier querier : idle) {
+      closeStatementQuietly(querier);
+    }
+    log.debug("Trying to close {} worker database connections", connections.size());
+    for (Connection connection : connections) {
+      try {
+        connection.close();
+      } catch (SQLException e) {
+        log.error("Failed to close database connection: ", e);
+      }
+    }
+  }
+
+  // Wait until the querier at the head of the schedule is due and remove it, or return null if
+  // the executor is stopped first
+  private TableQuerier claimNext() {
+    while (!stop.get()) {
+      long untilNext;
+      synchronized (schedule) {
+        TableQuerier querier = schedule.peek();
+        if (querier == null) {
+          // Every querier is being run by another worker
+          untilNext = MAX_IDLE_MS;
+        } else {
+          untilNext = querier.getNextUpdate() - time.milliseconds();
+          if (untilNext <= 0) {
+            return schedule.poll();
+          }
+        }
+      }
+      log.trace("Waiting {} ms to poll next", untilNext);
+      time.sleep(Math.min(untilNext, MAX_IDLE_MS));
+    }
+    return null;
+  }
+
+  private void release(TableQuerier querier) {
+    synchronized (schedule) {
+      schedule.add(querier);
+    }
+  }
+
+  private void runQuery(Connection db, TableQuerier querier) throws InterruptedException {
+    try {
+      log.debug("Checking for next block of results from {}", querier.toString());
+      querier.maybeStartQuery(db);
+
+      boolean hadNext = true;
+      while (hadNext && !stop.get()) {
+        List<SourceRecord> results = new ArrayList<>();
+        while (results.size() < batchMaxRows && (hadNext = querier.next())) {
+          results.add(querier.extractRecord());
+        }
+        if (!results.isEmpty()) {
+          log.debug("Queueing {} records for {}", results.size(), querier.toString());
+          while (!batches.offer(results, MAX_IDLE_MS, TimeUnit.MILLISECONDS)) {
+            if (stop.get()) {
+              break;
+            }
+          }
+        }
+      }
+
+      log.debug("Closing this query for {}", querier.toString());
+      querier.close(time.milliseconds());
+    } catch (SQLException e) {
+      log.error("Failed to run query for table {}: {}", querier.toString(), e);
+      // clear out the query if we had errors, this also handles backoff in case of errors
+      closeQuietly(querier);
+    } catch (RuntimeException e) {
+      // Don't leave the result set and its transaction open, the worker is about to fail
+      closeQuietly(querier);
+      throw e;
+    }
+  }
+
+  private void closeQuietly(TableQuerier querier) {
+    try {
+      querier.close(time.milliseconds());
+    } catch (SQLException e) {
+      log.error("Failed to close result set for failed query ", e);
+    }
+  }
+
+  static void closeStatementQuietly(TableQuerier querier) {
+    try {
+      querier.closeStatement();
+    } catch (SQLException e) {
+      log.warn("Ignoring error closing the statement of {}", querier.toString(), e);
+    }
+  }
+
+  private class Worker extends Thread {
+    private final Connection db;
+
+    public Worker(int id, Connection db) {
+      super("jdbc-source-query-" + id);
+      setDaemon(true);
+      this.db = db;
+    }
+
+    @Override
+    public void run() {
+      try {
+        TableQuerier querier;
+        while ((querier = claimNext()) != null) {
+          try {
+            runQuery(db, querier);
+          } finally {
+            release(querier);
+          }
+        }
+      } catch (InterruptedException e) {
+        log.debug("{} interrupted, exiting", getName());
+      } catch (Throwable t) {
+        log.error("{} failed, stopping", getName(), t);
+        failure.compareAndSet(null, t);
+      }
+    }
+  }
+}
@@ -17,6 +17,7 @@
 package io.confluent.connect.jdbc.source;
 
 import java.sql.Timestamp;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -48,7 +49,13 @@ public class TimestampIncrementingOffset {
   }
 
   public Map<String, Object> toMap() {
-    Map<String, Object> map = new HashMap<>(3);
+    if (timestampOffset == null) {
+      // Incrementing only, the most common case, doesn't need a hash map per record
+      return incrementingOffset == null
+             ? Collections.<String, Object>emptyMap()
+             : Collections.<String, Object>singletonMap(INCREMENTING_FIELD, incrementingOffset);
+    }
+    Map<String, Object> map = new HashMap<>(4);
     if (incrementingOffset != null) {
       map.put(INCREMENTING_FIELD, incrementingOffset);
     }
@@ -16,6 +16,7 @@
 
 package io.confluent.connect.jdbc.source;
 
+import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.connect.errors.ConnectException;
 import org.apache.kafka.connect.source.SourceRecord;
@@ -27,7 +28,6 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.Calendar;
-import java.util.Collections;
 import java.util.GregorianCalendar;
 import java.util.Map;
 import java.util.TimeZone;
@@ -59,18 +59,75 @@ public class TimestampIncrementingTableQuerier extends TableQuerier {
   private String timestampColumn;
   private String incrementingColumn;
   private long timestampDelay;
+  private final DatabaseClock dbClock;
   private TimestampIncrementingOffset offset;
+  private PredicateStrategy predicateStrategy;
+  private final int pageSize;
+  private boolean paged;
+  private int rowsInPage;
+  // Fields of the columns in the current schema
+  private Field incrementingField;
+  private Field timestampField;
 
+  /**
+   * @param pageSize the maximum number of rows read by each query, or 0 to read all new rows with
+   *                 a single query. Only queries with an incrementing column are paged, since
+   *                 timestamps alone can't tell where a page ended.
+   */
   public TimestampIncrementingTableQuerier(QueryMode mode, String name, String topicPrefix,
                                            String timestampColumn, String incrementingColumn,
-                                           Map<String, Object> offsetMap, Long timestampDelay) {
-    super(mode, name, topicPrefix);
+                                           Map<String, Object> offsetMap, Long timestampDelay,
+                                           DatabaseClock dbClock, int pageSize, int fetchSize,
+                                           LobLimit lobLimit,
+                                           DataConverter.NumericMapping numericMapping,
+                                           long minPollIntervalMs, long maxPollIntervalMs) {
+    super(mode, name, topicPrefix, fetchSize, lobLimit, numericMapping, minPollIntervalMs,
+          maxPollIntervalMs);
     this.timestampColumn = timestampColumn;
     this.incrementingColumn = incrementingColumn;
     this.timestampDelay = timestampDelay;
+    this.dbClock = dbClock;
+    this.pageSize = pageSize;
     this.offset = TimestampIncrementingOffset.fromMap(offsetMap);
   }
 
+  /**
+   * How the condition selecting rows after a timestamp and incrementing offset is expressed, from
+   * most to least index friendly. Row value comparisons and the union both let the database
+   * answer the query with range scans of an index on (timestamp, incrementing), which many
+   * optimizers can't do for the equivalent condition with an OR.
+   */
+  enum PredicateStrategy {
+    // ts < end AND (ts, id) > (offset ts, offset id)
+    ROW_VALUE,
+    // ts = offset ts AND id > offset id AND ts < end UNION ALL ts > offset ts AND ts < end
+    UNION,
+    // ts < end AND ((ts = offset ts AND id > offset id) OR ts > offset ts)
+    OR;
+
+    /**
+     * @return the strategy for databases with the given product name, falling back to the OR
+     *         form that every database supports
+     */
+    static PredicateStrategy forDatabase(String dbProduct) {
+      switch (dbProduct) {
+        case "PostgreSQL":
+        case "MySQL":
+          return ROW_VALUE;
+        case "Apache Derby":
+        case "Oracle":
+        case "Microsoft SQL Server":
+          return UNION;
+        default:
+          return OR;
+      }
+    }
+  }
+
+  protected PredicateStrategy predicateStrategy(Connection db) throws SQLException {
+    return PredicateStrategy.forDatabase(db.getMetaData().getDatabaseProductName());
+  }
+
   @Override
   protected void createPreparedStatement(Connection db) throws SQLException {
     // Default when unspecified uses an autoincrementing column
@@ -80,50 +137,89 @@ public class TimestampIncrementingTableQuerier extends TableQuerier {
 
     String quoteString = JdbcUtils.getIdentifierQuoteString(db);
 
-    StringBuilder builder = new StringBuilder();
-
+    String select;
     switch (mode) {
       case TABLE:
-        builder.append("SELECT * FROM ");
-        builder.append(JdbcUtils.quoteString(name, quoteString));
+        select = "SELECT * FROM " + JdbcUtils.quoteString(name, quoteString);
         break;
       case QUERY:
-        builder.append(query);
+        select = query;
         break;
       default:
         throw new ConnectException("Unknown mode encountered when preparing query: " + mode.toString());
     }
 
+    // Pages continue from the offset of the last row of the previous page, which only identifies
+    // a row uniquely with an incrementing column
+    paged = pageSize > 0 && incrementingColumn != null;
+
+    StringBuilder builder = new StringBuilder();
     if (incrementingColumn != null && timestampColumn != null) {
-      // This version combines two possible conditions. The first checks timestamp == last
-      // timestamp and incrementing > last incrementing. The timestamp alone would include
-      // duplicates, but adding the incrementing condition ensures no duplicates, e.g. you would
-      // get only the row with id = 23:
+      String quotedTimestamp = JdbcUtils.quoteString(timestampColumn, quoteString);
+      String quotedIncrementing = JdbcUtils.quoteString(incrementingColumn, quoteString);
+      predicateStrategy = predicateStrategy(db);
+      // Each strategy selects the rows after the last timestamp and incrementing value, i.e.
+      // those with the same timestamp and a larger incrementing value, and every row with a
+      // larger timestamp. The timestamp alone would include duplicates, but adding the
+      // incrementing condition ensures no duplicates, e.g. you would get only the row with
+      // id = 23:
       //  timestamp 1234, id 22 <- last
       //  timestamp 1234, id 23
-      // The second check only uses the timestamp >= last timestamp. This covers everything new,
-      // even if it is an update of the existing row. If we previously had:
+      // Any larger timestamp covers everything new, even if it is an update of the existing row.
+      // If we previously had:
       //  timestamp 1234, id 22 <- last
       // and then these rows were written:
       //  timestamp 1235, id 22
       //  timestamp 1236, id 23
       // We should capture both id = 22 (an update) and id = 23 (a new row)
-      builder.append(" WHERE ");
-      builder.append(JdbcUtils.quoteString(timestampColumn, quoteString));
-      builder.append(" < ? AND ((");
-      builder.append(JdbcUtils.quoteString(timestampColumn, quoteString));
-      builder.append(" = ? AND ");
-      builder.append(JdbcUtils.quoteString(incrementingColumn, quoteString));
-      builder.append(" > ?");
-      builder.append(") OR ");
-      builder.append(JdbcUtils.quoteString(timestampColumn, quoteString));
-      builder.append(" > ?)");
+      switch (predicateStrategy) {
+        case ROW_VALUE:
+          builder.append(select);
+          builder.append(" WHERE ");
+          builder.append(quotedTimestamp);
+          builder.append(" < ? AND (");
+          builder.append(quotedTimestamp);
+          builder.append(", ");
+          builder.append(quotedIncrementing);
+          builder.append(") > (?, ?)");
+          break;
+        case UNION:
+          builder.append(select);
+          builder.append(" WHERE ");
+          builder.append(quotedTimestamp);
+          builder.append(" = ? AND ");
+          builder.append(quotedIncrementing);
+          builder.append(" > ? AND ");
+          builder.append(quotedTimestamp);
+          builder.append(" < ? UNION ALL ");
+          builder.append(select);
+          builder.append(" WHERE ");
+          builder.append(quotedTimestamp);
+          builder.append(" > ? AND ");
+          builder.append(quotedTimestamp);
+          builder.append(" < ?");
+          break;
+        case OR:
+          builder.append(select);
+          builder.append(" WHERE ");
+          builder.append(quotedTimestamp);
+          builder.append(" < ? AND ((");
+          builder.append(quotedTimestamp);
+          builder.append(" = ? AND ");
+          builder.append(quotedIncrementing);
+          builder.append(" > ?");
+          builder.append(") OR ");
+          builder.append(quotedTimestamp);
+          builder.append(" > ?)");
+          break;
+      }
       builder.append(" ORDER BY ");
-      builder.append(JdbcUtils.quoteString(timestampColumn, quoteString));
+      builder.append(quotedTimestamp);
       builder.append(",");
-      builder.append(JdbcUtils.quoteString(incrementingColumn, quoteString));
+      builder.append(quotedIncrementing);
       builder.append(" ASC");
     } else if (incrementingColumn != null) {
+      builder.append(select);
       builder.append(" WHERE ");
       builder.append(JdbcUtils.quoteString(incrementingColumn, quoteString));
       builder.append(" > ?");
@@ -131,6 +227,7 @@ public class TimestampIncrementingTableQuerier extends TableQuerier {
       builder.append(JdbcUtils.quoteString(incrementingColumn, quoteString));
       builder.append(" ASC");
     } else if (timestampColumn != null) {
+      builder.append(select);
       builder.append(" WHERE ");
       builder.append(JdbcUtils.quoteString(timestampColumn, quoteString));
       builder.append(" > ? AND ");
@@ -138,6 +235,11 @@ public class TimestampIncrementingTableQuerier extends TableQuerier {
       builder.append(" < ? ORDER BY ");
       builder.append(JdbcUtils.quoteString(timestampColumn, quoteString));
       builder.append(" ASC");
+    } else {
+      builder.append(select);
+    }
+    if (paged) {
+      builder.append(JdbcUtils.getLimitClause(db, pageSize));
     }
     String queryString = builder.toString();
     log.debug("{} prepared SQL query: {}", this, queryString);
@@ -151,11 +253,27 @@ public class TimestampIncrementingTableQuerier extends TableQuerier {
     if (incrementingColumn != null && timestampColumn != null) {
       Timestamp tsOffset = offset.getTimestampOffset();
       Long incOffset = offset.getIncrementingOffset();
-      Timestamp endTime = new Timestamp(JdbcUtils.getCurrentTimeOnDB(stmt.getConnection(), UTC_CALENDAR).getTime() - timestampDelay);
-      stmt.setTimestamp(1, endTime, UTC_CALENDAR);
-      stmt.setTimestamp(2, tsOffset, UTC_CALENDAR);
-      stmt.setLong(3, incOffset);
-      stmt.setTimestamp(4, tsOffset, UTC_CALENDAR);
+      Timestamp endTime = new Timestamp(dbClock.currentTime(stmt.getConnection(), UTC_CALENDAR).getTime() - timestampDelay);
+      switch (predicateStrategy) {
+        case ROW_VALUE:
+          stmt.setTimestamp(1, endTime, UTC_CALENDAR);
+          stmt.setTimestamp(2, tsOffset, UTC_CALENDAR);
+          stmt.setLong(3, incOffset);
+          break;
+        case UNION:
+          stmt.setTimestamp(1, tsOffset, UTC_CALENDAR);
+          stmt.setLong(2, incOffset);
+          stmt.setTimestamp(3, endTime, UTC_CALENDAR);
+          stmt.setTimestamp(4, tsOffset, UTC_CALENDAR);
+          stmt.setTimestamp(5, endTime, UTC_CALENDAR);
+          break;
+        case OR:
+          stmt.setTimestamp(1, endTime, UTC_CALENDAR);
+          stmt.setTimestamp(2, tsOffset, UTC_CALENDAR);
+          stmt.setLong(3, incOffset);
+          stmt.setTimestamp(4, tsOffset, UTC_CALENDAR);
+          break;
+      }
       log.debug("Executing prepared statement with start time value = {} end time = {} and incrementing value = {}",
               JdbcUtils.formatUTC(tsOffset),
               JdbcUtils.formatUTC(endTime),
@@ -166,32 +284,66 @@ public class TimestampIncrementingTableQuerier extends TableQuerier {
       log.debug("Executing prepared statement with incrementing value = {}", incOffset);
     } else if (timestampColumn != null) {
       Timestamp tsOffset = offset.getTimestampOffset();
-      Timestamp endTime = new Timestamp(JdbcUtils.getCurrentTimeOnDB(stmt.getConnection(), UTC_CALENDAR).getTime() - timestampDelay);
+      Timestamp endTime = new Timestamp(dbClock.currentTime(stmt.getConnection(), UTC_CALENDAR).getTime() - timestampDelay);
       stmt.setTimestamp(1, tsOffset, UTC_CALENDAR);
       stmt.setTimestamp(2, endTime, UTC_CALENDAR);
       log.debug("Executing prepared statement with timestamp value = {} end time = {}",
               JdbcUtils.formatUTC(tsOffset),
               JdbcUtils.formatUTC(endTime));
     }
+    rowsInPage = 0;
     return stmt.executeQuery();
   }
 
+  @Override
+  public boolean next() throws SQLException {
+    if (super.next()) {
+      rowsInPage++;
+      return true;
+    }
+    if (paged && rowsInPage == pageSize) {
+      // A full page may be followed by more rows, continue from the offset it reached
+      resultSet.close();
+      endTransaction();
+      resultSet = runQuery();
+      return next();
+    }
+    return false;
+  }
+
+  @Override
+  protected void schemaChanged() {
+    incrementingField = incrementingColumn != null ? field(incrementingColumn) : null;
+    timestampField = timestampColumn != null ? field(timestampColumn) : null;
+  }
+
+  private Field field(String column) {
+    Field field = schema.field(column);
+    if (field == null) {
+      throw new ConnectException("Column " + column + " not found in the results of " + this);
+    }
+    return field;
+  }
+
   @Override
   public SourceRecord extractRecord() throws SQLException {
-    Struct record = DataConverter.convertRecord(schema, resultSet);
+    Struct record = convertRow();
     Long id = null;
     Timestamp latest = null;
-    if (incrementingColumn != null) {
-      switch (schema.field(incrementingColumn).schema().type()) {
+    if (incrementingField != null) {
+      switch (incrementingField.schema().type()) {
+        // Narrow types come from e.g. small NUMBER(p, 0) columns, widened like INT32
+        case INT8:
+        case INT16:
         case INT32:
-          id = (long) (Integer) record.get(incrementingColumn);
+          id = ((Number) record.get(incrementingField)).longValue();
           break;
         case INT64:
-          id = (Long) record.get(incrementingColumn);
+          id = (Long) record.get(incrementingField);
           break;
         default:
           throw new ConnectException("Invalid type for incrementing column: "
-                                            + schema.field(incrementingColumn).schema().type());
+                                            + incrementingField.schema().type());
       }
 
       // If we are only using an incrementing column, then this must be incrementing. If we are also
@@ -199,30 +351,15 @@ public class TimestampIncrementingTableQuerier extends TableQuerier {
       long incrementingOffset = offset.getIncrementingOffset();
       assert (incrementingOffset == -1 || id > incrementingOffset) || timestampColumn != null;
     }
-    if (timestampColumn != null) {
-      latest = (Timestamp) record.get(timestampColumn);
+    if (timestampField != null) {
+      latest = (Timestamp) record.get(timestampField);
       Timestamp timestampOffset = offset.getTimestampOffset();
       assert timestampOffset != null && timestampOffset.compareTo(latest) <= 0;
     }
     offset = new TimestampIncrementingOffset(latest, id);
 
     // TODO: Key?
-    final String topic;
-    final Map<String, String> partition;
-    switch (mode) {
-      case TABLE:
-        partition = Collections.singletonMap(JdbcSourceConnectorConstants.TABLE_NAME_KEY, name);
-        topic = topicPrefix + name;
-        break;
-      case QUERY:
-        partition = Collections.singletonMap(JdbcSourceConnectorConstants.QUERY_NAME_KEY,
-                                             JdbcSourceConnectorConstants.QUERY_NAME_VALUE);
-        topic = topicPrefix;
-        break;
-      default:
-        throw new ConnectException("Unexpected query mode: " + mode);
-    }
-    return new SourceRecord(partition, offset.toMap(), topic, record.schema(), record);
+    return new SourceRecord(sourcePartition, offset.toMap(), topic, record.schema(), record);
   }
 
   @Override
@@ -233,6 +370,7 @@ public class TimestampIncrementingTableQuerier extends TableQuerier {
            ", topicPrefix='" + topicPrefix + '\'' +
            ", timestampColumn='" + timestampColumn + '\'' +
            ", incrementingColumn='" + incrementingColumn + '\'' +
+           ", pageSize=" + pageSize +
            '}';
   }
 }
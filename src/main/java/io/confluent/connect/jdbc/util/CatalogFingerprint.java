@@ -0,0 +1,89 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Cheap probes of whether the set of tables in a database may have changed, so that the full
+ * catalog only needs to be listed again when it has. Each probe aggregates the catalog on the
+ * database into a single row, e.g. a count and a hash of the table names, instead of transferring
+ * and comparing every table name.
+ */
+public class CatalogFingerprint {
+  private static final Logger log = LoggerFactory.getLogger(CatalogFingerprint.class);
+
+  /**
+   * Get a fingerprint of the tables and views in the database. The fingerprint changes whenever
+   * tables or views are created, dropped or renamed, but may also change for other reasons.
+   * @param conn database connection
+   * @return the fingerprint, or null if the database doesn't support a cheap fingerprint, in which
+   *         case the tables have to be listed to detect changes
+   * @throws SQLException
+   */
+  public static String of(Connection conn) throws SQLException {
+    String query = query(conn.getMetaData().getDatabaseProductName());
+    if (query == null) {
+      return null;
+    }
+    log.trace("Getting catalog fingerprint with query {}", query);
+    try (Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery(query)) {
+      if (!rs.next()) {
+        return null;
+      }
+      int columns = rs.getMetaData().getColumnCount();
+      StringBuilder fingerprint = new StringBuilder();
+      for (int col = 1; col <= columns; col++) {
+        if (col > 1) {
+          fingerprint.append(',');
+        }
+        fingerprint.append(rs.getString(col));
+      }
+      return fingerprint.toString();
+    }
+  }
+
+  private static String query(String dbProduct) {
+    switch (dbProduct) {
+      case "SQLite":
+        // Incremented by every schema change
+        return "PRAGMA schema_version";
+      case "PostgreSQL":
+        return "SELECT COUNT(*), SUM(hashtext(relname || relkind)::bigint) "
+               + "FROM pg_catalog.pg_class WHERE relkind IN ('r', 'v', 'm', 'f', 'p')";
+      case "MySQL":
+        return "SELECT COUNT(*), SUM(CRC32(CONCAT(TABLE_NAME, TABLE_TYPE))) "
+               + "FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE()";
+      case "Microsoft SQL Server":
+        return "SELECT COUNT(*), CHECKSUM_AGG(CHECKSUM(name, type)) "
+               + "FROM sys.objects WHERE type IN ('U', 'V')";
+      case "Oracle":
+        // Creating or renaming an object sets its DDL time
+        return "SELECT COUNT(*), MAX(LAST_DDL_TIME) "
+               + "FROM ALL_OBJECTS WHERE OBJECT_TYPE IN ('TABLE', 'VIEW')";
+      default:
+        return null;
+    }
+  }
+}
@@ -0,0 +1,530 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.util;
+
+import org.apache.kafka.common.utils.SystemTime;
+import org.apache.kafka.common.utils.Time;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *   ConnectionPool keeps open connections to a database for reuse, so that connectors and tasks
+ *   restarted during a rebalance don't pay for setting up new connections, and limits how many
+ *   connections are open to the database at once. Pools are shared in the JVM by everything that
+ *   connects with the same URL, credentials and pool settings; see {@link #get}. The size limit
+ *   of a shared pool counts the connections of all pools for its URL, and connections idle in
+ *   other pools are closed to make room for new ones.
+ * </p>
+ * <p>
+ *   Closing a connection obtained from the pool returns it to the pool instead, closing the
+ *   statements that were created on it and left open. Idle connections
+ *   are validated before they are handed out again, closed once they have been idle for longer
+ *   than the idle timeout, and never reused after reaching their maximum lifetime. When the pool
+ *   is at its maximum size, requests for a connection wait for one to be returned or closed.
+ * </p>
+ */
+public class ConnectionPool {
+  private static final Logger log = LoggerFactory.getLogger(ConnectionPool.class);
+
+  private static final long ACQUIRE_TIMEOUT_MS = 30000L;
+  private static final int VALIDATION_TIMEOUT_S = 5;
+  private static final long EVICTION_INTERVAL_MS = 10000L;
+
+  private static final Map<List<Object>, ConnectionPool> POOLS = new HashMap<>();
+  private static final Map<String, UrlConnections> URL_CONNECTIONS = new HashMap<>();
+  private static ScheduledExecutorService evictor;
+
+  private final String url;
+  private final String user;
+  private final String password;
+  private final int maxSize;
+  private final long idleTimeoutMs;
+  private final long maxLifetimeMs;
+  private final Time time;
+  private final UrlConnections urlConnections;
+  // Most recently returned first, so that rarely needed connections become idle long enough to
+  // be evicted
+  private final Deque<PooledConnection> idle = new ArrayDeque<>();
+  // Idle and in use connections of this pool, including ones that are being opened
+  private int size = 0;
+
+  /**
+   * @param maxSize the maximum number of connections open at once, or 0 for no limit
+   * @param idleTimeoutMs how long returned connections are kept open for reuse
+   * @param maxLifetimeMs the age after which connections are closed instead of reused
+   */
+  public ConnectionPool(String url, String user, String password, int maxSize,
+                        long idleTimeoutMs, long maxLifetimeMs, Time time) {
+    this(url, user, password, maxSize, idleTimeoutMs, maxLifetimeMs, time, new UrlConnections());
+  }
+
+  private ConnectionPool(String url, String user, String password, int maxSize,
+                         long idleTimeoutMs, long maxLifetimeMs, Time time,
+                         UrlConnections urlConnections) {
+    this.url = url;
+    this.user = user;
+    this.password = password;
+    this.maxSize = maxSize;
+    this.idleTimeoutMs = idleTimeoutMs;
+    this.maxLifetimeMs = maxLifetimeMs;
+    this.time = time;
+    this.urlConnections = urlConnections;
+    urlConnections.add(this);
+  }
+
+  /**
+   * Get the pool shared in the JVM for connections with the given URL, credentials and settings,
+   * creating it if necessary. Its maximum size limits the connections open to the URL by all
+   * shared pools, whatever their credentials and settings.
+   */
+  public static ConnectionPool get(String url, String user, String password, int maxSize,
+                                   long idleTimeoutMs, long maxLifetimeMs) {
+    // Pools are kept for the lifetime of the JVM, so their keys only hold a digest of the password
+    List<Object> key = Arrays.<Object>asList(url, user, digest(password), maxSize, idleTimeoutMs,
+                                             maxLifetimeMs);
+    synchronized (POOLS) {
+      ConnectionPool pool = POOLS.get(key);
+      if (pool == null) {
+        UrlConnections urlConnections = URL_CONNECTIONS.get(url);
+        if (urlConnections == null) {
+          urlConnections = new UrlConnections();
+          URL_CONNECTIONS.put(url, urlConnections);
+        }
+        pool = new ConnectionPool(url, user, password, maxSize, idleTimeoutMs, maxLifetimeMs,
+                                  new SystemTime(), urlConnections);
+        POOLS.put(key, pool);
+        if (evictor == null) {
+          evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+              Thread thread = new Thread(runnable, "jdbc-connection-pool-evictor");
+              thread.setDaemon(true);
+              return thread;
+            }
+          });
+          evictor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+              evictAll();
+            }
+          }, EVICTION_INTERVAL_MS, EVICTION_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+      }
+      return pool;
+    }
+  }
+
+  private static ByteBuffer digest(String password) {
+    if (password == null) {
+      return null;
+    }
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return ByteBuffer.wrap(digest.digest(password.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void evictAll() {
+    List<ConnectionPool> pools;
+    synchronized (POOLS) {
+      pools = new ArrayList<>(POOLS.values());
+    }
+    for (ConnectionPool pool : pools) {
+      pool.evictIdle();
+    }
+  }
+
+  /**
+   * Get a connection from the pool, opening a new one if none is idle. Closing the connection
+   * returns it to the pool.
+   * @throws SQLException if opening a connection fails, or none became available in time
+   */
+  public Connection getConnection() throws SQLException {
+    long deadline = time.milliseconds() + ACQUIRE_TIMEOUT_MS;
+    while (true) {
+      // Taken before looking for an idle connection, so that one returned in between isn't missed
+      long changes = urlConnections.changes();
+      PooledConnection pooled;
+      synchronized (this) {
+        pooled = idle.pollFirst();
+      }
+
+      if (pooled == null) {
+        if (!reserve()) {
+          long remaining = deadline - time.milliseconds();
+          if (remaining <= 0) {
+            throw new SQLException("Timed out waiting for a connection to " + url + ", "
+                                   + maxSize + " connections to it are in use");
+          }
+          try {
+            urlConnections.awaitChange(changes, remaining);
+          } catch (InterruptedException e) {
+            throw new SQLException("Interrupted waiting for a connection to " + url, e);
+          }
+          continue;
+        }
+        try {
+          return open().proxy();
+        } catch (SQLException e) {
+          discarded();
+          throw e;
+        }
+      }
+      if (isReusable(pooled)) {
+        log.trace("Reusing pooled connection to {}", url);
+        return pooled.proxy();
+      }
+      closeQuietly(pooled);
+      discarded();
+    }
+  }
+
+  // Reserve a slot for a new connection, which is opened without holding any lock. At the size
+  // limit, a connection idle in another pool for the URL is closed to make room
+  private boolean reserve() {
+    if (!urlConnections.tryReserve(maxSize)
+        && !(urlConnections.closeIdle(this) && urlConnections.tryReserve(maxSize))) {
+      return false;
+    }
+    synchronized (this) {
+      size++;
+    }
+    return true;
+  }
+
+  // Close the least recently returned idle connection, if there is one
+  private boolean closeIdle() {
+    PooledConnection pooled;
+    synchronized (this) {
+      pooled = idle.pollLast();
+    }
+    if (pooled == null) {
+      return false;
+    }
+    log.debug("Closing idle connection to {} to make room for another pool", url);
+    closeQuietly(pooled);
+    discarded();
+    return true;
+  }
+
+  /**
+   * Close idle connections that have exceeded the idle timeout or their maximum lifetime.
+   */
+  public void evictIdle() {
+    List<PooledConnection> evicted = new ArrayList<>();
+    synchronized (this) {
+      long now = time.milliseconds();
+      Iterator<PooledConnection> it = idle.iterator();
+      while (it.hasNext()) {
+        PooledConnection pooled = it.next();
+        if (now - pooled.returned >= idleTimeoutMs || expired(pooled, now)) {
+          it.remove();
+          evicted.add(pooled);
+        }
+      }
+    }
+    for (PooledConnection pooled : evicted) {
+      log.debug("Closing idle connection to {}", url);
+      closeQuietly(pooled);
+      discarded();
+    }
+  }
+
+  synchronized int size() {
+    return size;
+  }
+
+  synchronized int idleSize() {
+    return idle.size();
+  }
+
+  private PooledConnection open() throws SQLException {
+    log.debug("Opening new pooled connection to {}", url);
+    Connection connection;
+    if (user == null && password == null) {
+      connection = DriverManager.getConnection(url);
+    } else {
+      connection = DriverManager.getConnection(url, user, password);
+    }
+    return new PooledConnection(connection, time.milliseconds());
+  }
+
+  private boolean isReusable(PooledConnection pooled) {
+    if (expired(pooled, time.milliseconds())) {
+      return false;
+    }
+    try {
+      return pooled.connection.isValid(VALIDATION_TIMEOUT_S);
+    } catch (SQLException e) {
+      log.debug("Failed to validate pooled connection to {}: ", url, e);
+      return false;
+    }
+  }
+
+  private boolean expired(PooledConnection pooled, long now) {
+    return maxLifetimeMs > 0 && now - pooled.created >= maxLifetimeMs;
+  }
+
+  private void release(PooledConnection pooled) {
+    long now = time.milliseconds();
+    if (idleTimeoutMs > 0 && !expired(pooled, now) && reset(pooled)) {
+      synchronized (this) {
+        pooled.returned = now;
+        idle.addFirst(pooled);
+      }
+      urlConnections.changed();
+      return;
+    }
+    closeQuietly(pooled);
+    discarded();
+  }
+
+  // Undo the changes users commonly make to the state of a connection before it is reused
+  private boolean reset(PooledConnection pooled) {
+    try {
+      Connection connection = pooled.connection;
+      if (connection.isClosed()) {
+        return false;
+      }
+      if (!connection.getAutoCommit()) {
+        connection.rollback();
+        connection.setAutoCommit(true);
+      }
+      return true;
+    } catch (SQLException e) {
+      log.debug("Failed to reset connection to {} for reuse: ", url, e);
+      return false;
+    }
+  }
+
+  private void discarded() {
+    synchronized (this) {
+      size--;
+    }
+    urlConnections.released();
+  }
+
+  private void closeQuietly(PooledConnection pooled) {
+    try {
+      pooled.connection.close();
+    } catch (SQLException e) {
+      log.warn("Ignoring error closing connection to {}", url, e);
+    }
+  }
+
+  /**
+   * The connections open to a URL by all pools for it, which their size limits apply to. Waiting
+   * requests are woken up whenever a connection is returned or closed.
+   */
+  private static final class UrlConnections {
+    private final List<ConnectionPool> pools = new ArrayList<>();
+    private int open = 0;
+    private long changes = 0;
+
+    synchronized void add(ConnectionPool pool) {
+      pools.add(pool);
+    }
+
+    synchronized boolean tryReserve(int maxSize) {
+      if (maxSize > 0 && open >= maxSize) {
+        return false;
+      }
+      open++;
+      return true;
+    }
+
+    synchronized void released() {
+      open--;
+      changed();
+    }
+
+    synchronized void changed() {
+      changes++;
+      notifyAll();
+    }
+
+    synchronized long changes() {
+      return changes;
+    }
+
+    synchronized void awaitChange(long seen, long timeoutMs) throws InterruptedException {
+      if (changes == seen) {
+        wait(timeoutMs);
+      }
+    }
+
+    // Close a connection idle in one of the pools other than the given one
+    boolean closeIdle(ConnectionPool except) {
+      List<ConnectionPool> others;
+      synchronized (this) {
+        others = new ArrayList<>(pools);
+      }
+      others.remove(except);
+      for (ConnectionPool pool : others) {
+        if (pool.closeIdle()) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private class PooledConnection {
+    final Connection connection;
+    final long created;
+    long returned;
+
+    PooledConnection(Connection connection, long created) {
+      this.connection = connection;
+      this.created = created;
+    }
+
+    // Each loan gets its own proxy, so closing it again after it's been returned has no effect
+    // on later users of the connection
+    Connection proxy() {
+      return (Connection) Proxy.newProxyInstance(
+          Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+          new Loan(this));
+    }
+  }
+
+  private class Loan implements InvocationHandler {
+    // Statements are tracked for closing when the connection is returned. Ones already closed by
+    // their users are only pruned once the list has doubled in size, to keep tracking cheap
+    private static final int MIN_PRUNE_SIZE = 16;
+
+    private final PooledConnection pooled;
+    private final List<Statement> statements = new ArrayList<>();
+    private int pruneSize = MIN_PRUNE_SIZE;
+    private boolean closed = false;
+
+    Loan(PooledConnection pooled) {
+      this.pooled = pooled;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close":
+          List<Statement> open;
+          synchronized (this) {
+            if (closed) {
+              return null;
+            }
+            closed = true;
+            open = new ArrayList<>(statements);
+            statements.clear();
+          }
+          closeStatements(open);
+          release(pooled);
+          return null;
+        case "isClosed":
+          synchronized (this) {
+            if (closed) {
+              return true;
+            }
+          }
+          break;
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "toString":
+          return "PooledConnection{" + pooled.connection + "}";
+        default:
+          synchronized (this) {
+            if (closed) {
+              throw new SQLException("Connection has been returned to the pool");
+            }
+          }
+      }
+      Object result;
+      try {
+        result = method.invoke(pooled.connection, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+      if (result instanceof Statement) {
+        track((Statement) result);
+      }
+      return result;
+    }
+
+    private synchronized void track(Statement statement) {
+      if (statements.size() >= pruneSize) {
+        Iterator<Statement> it = statements.iterator();
+        while (it.hasNext()) {
+          if (isClosed(it.next())) {
+            it.remove();
+          }
+        }
+        pruneSize = Math.max(MIN_PRUNE_SIZE, 2 * statements.size());
+      }
+      statements.add(statement);
+    }
+
+    private boolean isClosed(Statement statement) {
+      try {
+        return statement.isClosed();
+      } catch (SQLException e) {
+        return false;
+      }
+    }
+
+    private void closeStatements(List<Statement> open) {
+      for (Statement statement : open) {
+        try {
+          if (!statement.isClosed()) {
+            log.debug("Closing statement left open on connection to {}", url);
+            statement.close();
+          }
+        } catch (SQLException e) {
+          log.debug("Ignoring error closing statement on connection to {}", url, e);
+        }
+      }
+    }
+  }
+}
@@ -22,11 +22,13 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
+import java.sql.Types;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -36,7 +38,9 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.TimeZone;
+import java.util.TreeMap;
 
 /**
  * Utilties for interacting with a JDBC database.
@@ -58,9 +62,17 @@ public class JdbcUtils {
   private static final int GET_TABLES_NAME_COLUMN = 3;
 
   private static final int GET_COLUMNS_COLUMN_NAME = 4;
+  private static final int GET_COLUMNS_DATA_TYPE = 5;
+  private static final int GET_COLUMNS_DECIMAL_DIGITS = 9;
   private static final int GET_COLUMNS_IS_NULLABLE = 18;
   private static final int GET_COLUMNS_IS_AUTOINCREMENT = 23;
 
+  private static final int GET_PRIMARY_KEYS_COLUMN_NAME = 4;
+  private static final int GET_PRIMARY_KEYS_KEY_SEQ = 5;
+
+  private static final int GET_INDEX_INFO_TYPE = 7;
+  private static final int GET_INDEX_INFO_CARDINALITY = 11;
+
 
   private static final ThreadLocal<SimpleDateFormat> DATE_FORMATTER = new ThreadLocal<SimpleDateFormat>() {
     @Override
@@ -90,13 +102,14 @@ public class JdbcUtils {
    */
   public static List<String> getTables(Connection conn, Set<String> types) throws SQLException {
     DatabaseMetaData metadata = conn.getMetaData();
+    // SQLite JDBC driver does not correctly mark its tables as system tables
+    boolean isSqlite = metadata.getDatabaseProductName().equals("SQLite");
     try (ResultSet rs = metadata.getTables(null, null, "%", null)) {
       List<String> tableNames = new ArrayList<>();
       while (rs.next()) {
         if (types.contains(rs.getString(GET_TABLES_TYPE_COLUMN))) {
           String colName = rs.getString(GET_TABLES_NAME_COLUMN);
-          // SQLite JDBC driver does not correctly mark these as system tables
-          if (metadata.getDatabaseProductName().equals("SQLite") && colName.startsWith("sqlite_")) {
+          if (isSqlite && colName.startsWith("sqlite_")) {
             continue;
           }
 
@@ -149,6 +162,112 @@ public class JdbcUtils {
     return (matches == 1 ? result : null);
   }
 
+  /**
+   * Look up the primary key columns of the specified table.
+   * @param conn database connection
+   * @param table the table
+   * @return the names of the primary key columns in key order, or an empty list if the table has
+   *         no primary key
+   * @throws SQLException
+   */
+  public static List<String> getPrimaryKeyColumns(Connection conn, String table)
+      throws SQLException {
+    SortedMap<Short, String> columnsBySeq = new TreeMap<>();
+    try (ResultSet rs = conn.getMetaData().getPrimaryKeys(null, null, table)) {
+      while (rs.next()) {
+        columnsBySeq.put(rs.getShort(GET_PRIMARY_KEYS_KEY_SEQ),
+                         rs.getString(GET_PRIMARY_KEYS_COLUMN_NAME));
+      }
+    }
+    return new ArrayList<>(columnsBySeq.values());
+  }
+
+  /**
+   * Get the smallest and largest value of a numeric column.
+   * @param conn database connection
+   * @param table the table
+   * @param column the numeric column
+   * @return a two element array holding the minimum and maximum, or null if the table is empty
+   * @throws SQLException
+   */
+  public static long[] getColumnBounds(Connection conn, String table, String column)
+      throws SQLException {
+    String quoteString = getIdentifierQuoteString(conn);
+    String quotedColumn = quoteString(column, quoteString);
+    String query = "SELECT MIN(" + quotedColumn + "), MAX(" + quotedColumn + ") FROM "
+                   + quoteString(table, quoteString);
+    log.debug("Getting bounds of {} with query {}", column, query);
+    try (Statement stmt = conn.createStatement();
+         ResultSet rs = stmt.executeQuery(query)) {
+      if (!rs.next()) {
+        return null;
+      }
+      long min = rs.getLong(1);
+      if (rs.wasNull()) {
+        return null;
+      }
+      return new long[]{min, rs.getLong(2)};
+    }
+  }
+
+  /**
+   * Get the number of rows in a table as estimated by the database's statistics, without scanning
+   * the table. Databases whose drivers don't report table statistics through the metadata API are
+   * asked for the statistics of their catalog directly.
+   * @param conn database connection
+   * @param table the table
+   * @return the estimated number of rows, or -1 if the database has no statistics for the table
+   * @throws SQLException
+   */
+  public static long getRowCountEstimate(Connection conn, String table) throws SQLException {
+    String query = rowCountEstimateQuery(conn.getMetaData().getDatabaseProductName());
+    if (query != null) {
+      log.trace("Estimating rows of {} with query {}", table, query);
+      try (PreparedStatement stmt = conn.prepareStatement(query)) {
+        stmt.setString(1, table);
+        try (ResultSet rs = stmt.executeQuery()) {
+          if (!rs.next()) {
+            return -1;
+          }
+          long rows = rs.getLong(1);
+          // PostgreSQL reports -1 for tables that have never been analyzed
+          return rs.wasNull() || rows < 0 ? -1 : rows;
+        }
+      }
+    }
+
+    try (ResultSet rs = conn.getMetaData().getIndexInfo(null, null, table, false, true)) {
+      while (rs.next()) {
+        if (rs.getShort(GET_INDEX_INFO_TYPE) == DatabaseMetaData.tableIndexStatistic) {
+          long rows = rs.getLong(GET_INDEX_INFO_CARDINALITY);
+          return rs.wasNull() ? -1 : rows;
+        }
+      }
+    }
+    return -1;
+  }
+
+  // Query for the estimated number of rows of the table given as its only parameter, or null to
+  // use the metadata API
+  private static String rowCountEstimateQuery(String dbProduct) {
+    switch (dbProduct) {
+      case "PostgreSQL":
+        return "SELECT reltuples::bigint FROM pg_catalog.pg_class "
+               + "WHERE relname = ? AND relkind IN ('r', 'm', 'p') "
+               + "AND pg_catalog.pg_table_is_visible(oid)";
+      case "MySQL":
+        return "SELECT TABLE_ROWS FROM information_schema.TABLES "
+               + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+      case "Microsoft SQL Server":
+        return "SELECT SUM(rows) FROM sys.partitions "
+               + "WHERE object_id = OBJECT_ID(?) AND index_id IN (0, 1)";
+      case "Oracle":
+        return "SELECT NUM_ROWS FROM USER_TABLES WHERE TABLE_NAME = ?";
+      default:
+        return null;
+    }
+  }
+
   public static boolean isColumnNullable(Connection conn, String table, String column)
       throws SQLException {
     try (ResultSet rs = conn.getMetaData().getColumns(null, null, table, column)) {
@@ -164,6 +283,34 @@ public class JdbcUtils {
     return false;
   }
 
+  /**
+   * Check whether a column only holds integers, i.e. is of an integer type or a NUMERIC or DECIMAL
+   * type without fractional digits.
+   * @return true if the column is integral, false if it isn't or doesn't exist
+   */
+  public static boolean isColumnIntegral(Connection conn, String table, String column)
+      throws SQLException {
+    try (ResultSet rs = conn.getMetaData().getColumns(null, null, table, column)) {
+      // Should only be one match
+      if (!rs.next()) {
+        return false;
+      }
+      switch (rs.getInt(GET_COLUMNS_DATA_TYPE)) {
+        case Types.TINYINT:
+        case Types.SMALLINT:
+        case Types.INTEGER:
+        case Types.BIGINT:
+          return true;
+        case Types.NUMERIC:
+        case Types.DECIMAL:
+          int digits = rs.getInt(GET_COLUMNS_DECIMAL_DIGITS);
+          return !rs.wasNull() && digits == 0;
+        default:
+          return false;
+      }
+    }
+  }
+
   /**
    * Format the given Date assuming UTC timezone in a format supported by SQL.
    * @param date the date to convert to a String
@@ -195,6 +342,50 @@ public class JdbcUtils {
     return quote + orig + quote;
   }
 
+  /**
+   * Return the clause that limits the results of a query with an ORDER BY clause to at most
+   * {@code limit} rows, which is appended to the query. Databases that support it use the
+   * standard FETCH FIRST clause, others their own LIMIT clause.
+   */
+  public static String getLimitClause(Connection conn, int limit) throws SQLException {
+    String dbProduct = conn.getMetaData().getDatabaseProductName();
+    switch (dbProduct) {
+      case "MySQL":
+      case "SQLite":
+      case "PostgreSQL":
+        return " LIMIT " + limit;
+      case "Microsoft SQL Server":
+        return " OFFSET 0 ROWS FETCH NEXT " + limit + " ROWS ONLY";
+      default:
+        return " FETCH FIRST " + limit + " ROWS ONLY";
+    }
+  }
+
+  /**
+   * Prepare a connection for streaming large query results in chunks of {@code fetchSize} rows
+   * instead of loading them into memory all at once. Most drivers only need the fetch size set on
+   * each statement, but some need more: PostgreSQL only uses cursors outside of autocommit mode,
+   * so autocommit is disabled and queries have to commit once they're done, and MySQL only streams
+   * rows with the special fetch size Integer.MIN_VALUE unless cursor fetching is enabled in the
+   * connection URL.
+   * @param conn the connection to prepare
+   * @param fetchSize the requested number of rows per fetch, or 0 to use the driver's default
+   * @return the fetch size to set on statements created from the connection, or 0 to leave it
+   */
+  public static int prepareForStreaming(Connection conn, int fetchSize) throws SQLException {
+    if (fetchSize <= 0) {
+      return 0;
+    }
+    DatabaseMetaData metadata = conn.getMetaData();
+    String dbProduct = metadata.getDatabaseProductName();
+    if ("PostgreSQL".equals(dbProduct)) {
+      conn.setAutoCommit(false);
+    } else if ("MySQL".equals(dbProduct) && !metadata.getURL().contains("useCursorFetch=true")) {
+      return Integer.MIN_VALUE;
+    }
+    return fetchSize;
+  }
+
   /**
    * Return current time at the database
    * @param conn
@@ -0,0 +1,93 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Splits weighted elements, e.g. tables weighted by their size, into groups of roughly equal total
+ * weight. This is the weighted counterpart of
+ * {@link org.apache.kafka.connect.util.ConnectorUtils#groupPartitions}, which balances the number
+ * of elements per group regardless of how much work each of them represents.
+ */
+public class WeightedPartitioner {
+
+  /**
+   * Group the elements into {@code numGroups} groups of roughly equal total weight, placing the
+   * heaviest elements first, each in the group that is lightest at that point. The result only
+   * depends on the order of the elements and their weights, so it is stable across calls.
+   * @param elements the elements to group
+   * @param weights the non-negative weight of each element, in the same order as the elements
+   * @param numGroups the number of groups to create
+   * @return the groups, each holding its elements in their original order
+   */
+  public static <T> List<List<T>> groupPartitions(List<T> elements, final List<Long> weights,
+                                                  int numGroups) {
+    if (numGroups <= 0) {
+      throw new IllegalArgumentException("Number of groups must be positive.");
+    }
+    if (elements.size() != weights.size()) {
+      throw new IllegalArgumentException("Every element must have a weight.");
+    }
+
+    List<Integer> byWeight = new ArrayList<>(elements.size());
+    for (int i = 0; i < elements.size(); i++) {
+      byWeight.add(i);
+    }
+    // Heaviest first, ties in their original order
+    Collections.sort(byWeight, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer a, Integer b) {
+        int result = Long.compare(weights.get(b), weights.get(a));
+        return result != 0 ? result : Integer.compare(a, b);
+      }
+    });
+
+    long[] groupWeights = new long[numGroups];
+    List<List<Integer>> groupIndexes = new ArrayList<>(numGroups);
+    for (int group = 0; group < numGroups; group++) {
+      groupIndexes.add(new ArrayList<Integer>());
+    }
+    for (Integer index : byWeight) {
+      // Among equally light groups, prefer the one with the fewest elements and then the first
+      int lightest = 0;
+      for (int group = 1; group < numGroups; group++) {
+        if (groupWeights[group] < groupWeights[lightest]
+            || (groupWeights[group] == groupWeights[lightest]
+                && groupIndexes.get(group).size() < groupIndexes.get(lightest).size())) {
+          lightest = group;
+        }
+      }
+      groupWeights[lightest] += weights.get(index);
+      groupIndexes.get(lightest).add(index);
+    }
+
+    List<List<T>> groups = new ArrayList<>(numGroups);
+    for (List<Integer> indexes : groupIndexes) {
+      Collections.sort(indexes);
+      List<T> group = new ArrayList<>(indexes.size());
+      for (Integer index : indexes) {
+        group.add(elements.get(index));
+      }
+      groups.add(group);
+    }
+    return groups;
+  }
+}
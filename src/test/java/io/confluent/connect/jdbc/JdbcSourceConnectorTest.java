@@ -39,12 +39,14 @@ import io.confluent.connect.jdbc.source.EmbeddedDerby;
 import io.confluent.connect.jdbc.source.JdbcSourceConnectorConfig;
 import io.confluent.connect.jdbc.source.JdbcSourceTask;
 import io.confluent.connect.jdbc.source.JdbcSourceTaskConfig;
+import io.confluent.connect.jdbc.util.ConnectionPool;
+import io.confluent.connect.jdbc.util.JdbcUtils;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
 @RunWith(PowerMockRunner.class)
-@PrepareForTest({JdbcSourceConnector.class})
+@PrepareForTest({JdbcSourceConnector.class, ConnectionPool.class, JdbcUtils.class})
 @PowerMockIgnore("javax.management.*")
 public class JdbcSourceConnectorTest {
 
@@ -109,6 +111,9 @@ public class JdbcSourceConnectorTest {
 
     PowerMock.replayAll();
 
+    // Without idle connections in the pool, closing the connector's connection closes it
+    // immediately
+    connProps.put(JdbcSourceConnectorConfig.CONNECTION_POOL_IDLE_TIMEOUT_MS_CONFIG, "0");
     connector.start(connProps);
     connector.stop();
 
@@ -151,6 +156,108 @@ public class JdbcSourceConnectorTest {
     connector.stop();
   }
 
+  @Test
+  public void testPartitioningSplitTable() throws Exception {
+    // Tests spreading the key ranges of a split table across tasks along with whole tables
+    db.createTable("test1", "id", "INT NOT NULL");
+    db.createTable("test2", "id", "INT NOT NULL");
+    for (int id = 1; id <= 100; id++) {
+      db.insert("test1", "id", id);
+    }
+    connProps.put(JdbcSourceConnectorConfig.BULK_SPLIT_COUNT_CONFIG, "4");
+    connProps.put(JdbcSourceConnectorConfig.BULK_SPLIT_COLUMN_CONFIG, "id");
+    connector.start(connProps);
+    List<Map<String, String>> configs = connector.taskConfigs(3);
+    assertEquals(3, configs.size());
+    assertTaskConfigsHaveParentConfigs(configs);
+
+    assertEquals("", configs.get(0).get(JdbcSourceTaskConfig.TABLES_CONFIG));
+    assertEquals("test1::32,test1:32:64",
+                 configs.get(0).get(JdbcSourceTaskConfig.TABLE_RANGES_CONFIG));
+    assertEquals("", configs.get(1).get(JdbcSourceTaskConfig.TABLES_CONFIG));
+    assertEquals("test1:64:96,test1:96:",
+                 configs.get(1).get(JdbcSourceTaskConfig.TABLE_RANGES_CONFIG));
+    // test2 is empty, so there is nothing to split it on
+    assertEquals("test2", configs.get(2).get(JdbcSourceTaskConfig.TABLES_CONFIG));
+    assertEquals("", configs.get(2).get(JdbcSourceTaskConfig.TABLE_RANGES_CONFIG));
+
+    connector.stop();
+  }
+
+  @Test
+  public void testNonIntegralKeyIsNotSplit() throws Exception {
+    db.createTable("test1", "id", "DECIMAL(10, 2) NOT NULL");
+    db.createTable("test2", "id", "INT NOT NULL");
+    for (int id = 1; id <= 100; id++) {
+      db.insert("test1", "id", id);
+      db.insert("test2", "id", id);
+    }
+    connProps.put(JdbcSourceConnectorConfig.BULK_SPLIT_COUNT_CONFIG, "2");
+    connProps.put(JdbcSourceConnectorConfig.BULK_SPLIT_COLUMN_CONFIG, "id");
+    connector.start(connProps);
+    List<Map<String, String>> configs = connector.taskConfigs(3);
+    assertEquals(3, configs.size());
+
+    // test1 is loaded whole, its keys can't be paged through as integers
+    assertEquals("test1", configs.get(0).get(JdbcSourceTaskConfig.TABLES_CONFIG));
+    assertEquals("", configs.get(0).get(JdbcSourceTaskConfig.TABLE_RANGES_CONFIG));
+    assertEquals("test2::64", configs.get(1).get(JdbcSourceTaskConfig.TABLE_RANGES_CONFIG));
+    assertEquals("test2:64:", configs.get(2).get(JdbcSourceTaskConfig.TABLE_RANGES_CONFIG));
+
+    connector.stop();
+  }
+
+  @Test
+  public void testPartitioningBySize() throws Exception {
+    // Without statistics every table weighs the same, so tables are spread evenly by count
+    db.createTable("test1", "id", "INT NOT NULL");
+    db.createTable("test2", "id", "INT NOT NULL");
+    db.createTable("test3", "id", "INT NOT NULL");
+    db.createTable("test4", "id", "INT NOT NULL");
+    connProps.put(JdbcSourceConnectorConfig.TABLE_ASSIGNMENT_CONFIG,
+                  JdbcSourceConnectorConfig.TABLE_ASSIGNMENT_SIZE);
+    connector.start(connProps);
+    List<Map<String, String>> configs = connector.taskConfigs(3);
+    assertEquals(3, configs.size());
+    assertTaskConfigsHaveParentConfigs(configs);
+
+    assertEquals("test1,test4", configs.get(0).get(JdbcSourceTaskConfig.TABLES_CONFIG));
+    assertEquals("test2", configs.get(1).get(JdbcSourceTaskConfig.TABLES_CONFIG));
+    assertEquals("test3", configs.get(2).get(JdbcSourceTaskConfig.TABLES_CONFIG));
+
+    connector.stop();
+  }
+
+  @Test
+  public void testPartitioningByEstimatedSize() throws Exception {
+    // A table estimated to be much larger than the others gets a task to itself
+    db.createTable("test1", "id", "INT NOT NULL");
+    db.createTable("test2", "id", "INT NOT NULL");
+    db.createTable("test3", "id", "INT NOT NULL");
+    db.createTable("test4", "id", "INT NOT NULL");
+    PowerMock.mockStaticPartial(JdbcUtils.class, "getRowCountEstimate");
+    EasyMock.expect(JdbcUtils.getRowCountEstimate(EasyMock.anyObject(Connection.class),
+                                                  EasyMock.eq("test1")))
+        .andReturn(1000000L).anyTimes();
+    EasyMock.expect(JdbcUtils.getRowCountEstimate(EasyMock.anyObject(Connection.class),
+                                                  EasyMock.not(EasyMock.eq("test1"))))
+        .andReturn(1000L).anyTimes();
+    PowerMock.replayAll();
+
+    connProps.put(JdbcSourceConnectorConfig.TABLE_ASSIGNMENT_CONFIG,
+                  JdbcSourceConnectorConfig.TABLE_ASSIGNMENT_SIZE);
+    connector.start(connProps);
+    List<Map<String, String>> configs = connector.taskConfigs(3);
+    assertEquals(3, configs.size());
+    assertTaskConfigsHaveParentConfigs(configs);
+
+    assertEquals("test1", configs.get(0).get(JdbcSourceTaskConfig.TABLES_CONFIG));
+    assertEquals("test2,test4", configs.get(1).get(JdbcSourceTaskConfig.TABLES_CONFIG));
+    assertEquals("test3", configs.get(2).get(JdbcSourceTaskConfig.TABLES_CONFIG));
+
+    connector.stop();
+  }
+
   @Test
   public void testPartitioningQuery() throws Exception {
     // Tests "partitioning" when config specifies running a custom query
@@ -25,6 +25,9 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collections;
@@ -33,6 +36,12 @@ import java.util.HashMap;
 import io.confluent.connect.jdbc.sink.dialect.DbDialect;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class BufferedRecordsTest {
 
@@ -78,18 +87,196 @@ public class BufferedRecordsTest {
         .put("age", 4);
     final SinkRecord recordB = new SinkRecord("dummy", 1, null, null, schemaB, valueB, 1);
 
-    // test records are batched correctly based on schema equality as records are added
-    //   (schemaA,schemaA,schemaA,schemaB,schemaA) -> ([schemaA,schemaA,schemaA],[schemaB],[schemaA])
+    // test records of different schemas are buffered together in sub-batches per schema as records are added
+    //   (schemaA,schemaA,schemaA,schemaB,schemaA) -> ([schemaA,schemaA,schemaA,schemaA],[schemaB])
 
     assertEquals(Collections.emptyList(), buffer.add(recordA));
     assertEquals(Collections.emptyList(), buffer.add(recordA));
     assertEquals(Collections.emptyList(), buffer.add(recordA));
 
-    assertEquals(Arrays.asList(recordA, recordA, recordA), buffer.add(recordB));
+    assertEquals(Collections.emptyList(), buffer.add(recordB));
 
-    assertEquals(Collections.singletonList(recordB), buffer.add(recordA));
+    assertEquals(Collections.emptyList(), buffer.add(recordA));
+
+    assertEquals(Arrays.asList(recordA, recordA, recordA, recordB, recordA), buffer.flush());
+    assertEquals(5, sqliteHelper.select("SELECT * FROM dummy", new SqliteHelper.ResultSetReadCallback() {
+      @Override
+      public void read(ResultSet rs) {
+      }
+    }));
+  }
+
+  @Test
+  public void flushUpsertsOfKeyInOtherSchema() throws SQLException {
+    final DbDialect dbDialect = DbDialect.fromConnectionString(sqliteHelper.sqliteUri());
+    final DbStructure dbStructure = new DbStructure(dbDialect);
+
+    final HashMap<Object, Object> props = new HashMap<>();
+    props.put("connection.url", sqliteHelper.sqliteUri());
+    props.put("auto.create", true);
+    props.put("auto.evolve", true);
+    props.put("insert.mode", "upsert");
+    props.put("pk.mode", "record_value");
+    props.put("pk.fields", "id");
+    final JdbcSinkConfig config = new JdbcSinkConfig(props);
+
+    final BufferedRecords buffer = new BufferedRecords(config, "dummy", dbDialect, dbStructure, sqliteHelper.connection);
+
+    final Schema schemaA = SchemaBuilder.struct()
+        .field("id", Schema.INT32_SCHEMA)
+        .field("name", Schema.STRING_SCHEMA)
+        .build();
+    final Schema schemaB = SchemaBuilder.struct()
+        .field("id", Schema.INT32_SCHEMA)
+        .field("name", Schema.STRING_SCHEMA)
+        .field("age", Schema.OPTIONAL_INT32_SCHEMA)
+        .build();
+    final SinkRecord recordA1 = new SinkRecord("dummy", 0, null, null, schemaA, new Struct(schemaA).put("id", 1).put("name", "a"), 0);
+    final SinkRecord recordB2 = new SinkRecord("dummy", 0, null, null, schemaB, new Struct(schemaB).put("id", 2).put("name", "b"), 1);
+    final SinkRecord recordB1 = new SinkRecord("dummy", 0, null, null, schemaB, new Struct(schemaB).put("id", 1).put("name", "c"), 2);
+    final SinkRecord recordA1Again = new SinkRecord("dummy", 0, null, null, schemaA, new Struct(schemaA).put("id", 1).put("name", "d"), 3);
+
+    // upserts of the same key in different sub-batches would be applied out of order, so the buffered ones are flushed first
+    assertEquals(Collections.emptyList(), buffer.add(recordA1));
+    assertEquals(Collections.emptyList(), buffer.add(recordB2));
+    assertEquals(Arrays.asList(recordA1, recordB2), buffer.add(recordB1));
+    assertEquals(Collections.singletonList(recordB1), buffer.add(recordA1Again));
+    assertEquals(Collections.singletonList(recordA1Again), buffer.flush());
+
+    sqliteHelper.select("SELECT name FROM dummy WHERE id = 1", new SqliteHelper.ResultSetReadCallback() {
+      @Override
+      public void read(ResultSet rs) throws SQLException {
+        assertEquals("d", rs.getString(1));
+      }
+    });
+  }
+
+  @Test
+  public void flushUpsertsOfKeyWithChangedType() throws SQLException {
+    final DbDialect dbDialect = DbDialect.fromConnectionString(sqliteHelper.sqliteUri());
+    final DbStructure dbStructure = new DbStructure(dbDialect);
+
+    final HashMap<Object, Object> props = new HashMap<>();
+    props.put("connection.url", sqliteHelper.sqliteUri());
+    props.put("auto.create", true);
+    props.put("auto.evolve", true);
+    props.put("insert.mode", "upsert");
+    props.put("pk.mode", "record_value");
+    props.put("pk.fields", "id");
+    final JdbcSinkConfig config = new JdbcSinkConfig(props);
+
+    final BufferedRecords buffer = new BufferedRecords(config, "dummy", dbDialect, dbStructure, sqliteHelper.connection);
+
+    final Schema schemaA = SchemaBuilder.struct()
+        .field("id", Schema.INT32_SCHEMA)
+        .field("name", Schema.STRING_SCHEMA)
+        .build();
+    // The key field was widened in a later version of the schema
+    final Schema schemaB = SchemaBuilder.struct()
+        .field("id", Schema.INT64_SCHEMA)
+        .field("name", Schema.STRING_SCHEMA)
+        .build();
+    final SinkRecord recordA1 = new SinkRecord("dummy", 0, null, null, schemaA, new Struct(schemaA).put("id", 1).put("name", "a"), 0);
+    final SinkRecord recordB2 = new SinkRecord("dummy", 0, null, null, schemaB, new Struct(schemaB).put("id", 2L).put("name", "b"), 1);
+    final SinkRecord recordB1 = new SinkRecord("dummy", 0, null, null, schemaB, new Struct(schemaB).put("id", 1L).put("name", "c"), 2);
+
+    // Keys of different types aren't compared, so the upserts of the older schema are flushed before any of the new one
+    assertEquals(Collections.emptyList(), buffer.add(recordA1));
+    assertEquals(Collections.singletonList(recordA1), buffer.add(recordB2));
+    assertEquals(Collections.emptyList(), buffer.add(recordB1));
+    assertEquals(Arrays.asList(recordB2, recordB1), buffer.flush());
+
+    sqliteHelper.select("SELECT name FROM dummy WHERE id = 1", new SqliteHelper.ResultSetReadCallback() {
+      @Override
+      public void read(ResultSet rs) throws SQLException {
+        assertEquals("c", rs.getString(1));
+      }
+    });
+  }
+
+  @Test
+  public void reusePreparedStatements() throws SQLException {
+    final DbDialect dbDialect = DbDialect.fromConnectionString(sqliteHelper.sqliteUri());
+    final DbStructure dbStructure = new DbStructure(dbDialect);
+
+    final HashMap<Object, Object> props = new HashMap<>();
+    props.put("connection.url", sqliteHelper.sqliteUri());
+    props.put("auto.create", true);
+    props.put("auto.evolve", true);
+    props.put("statement.cache.size", 1);
+    final JdbcSinkConfig config = new JdbcSinkConfig(props);
+
+    final Connection connection = spy(sqliteHelper.connection);
+    final BufferedRecords buffer = new BufferedRecords(config, "dummy", dbDialect, dbStructure, connection);
+
+    final Schema schemaA = SchemaBuilder.struct()
+        .field("name", Schema.STRING_SCHEMA)
+        .build();
+    final SinkRecord recordA = new SinkRecord("dummy", 0, null, null, schemaA, new Struct(schemaA).put("name", "cuba"), 0);
+
+    final Schema schemaB = SchemaBuilder.struct()
+        .field("name", Schema.STRING_SCHEMA)
+        .field("age", Schema.OPTIONAL_INT32_SCHEMA)
+        .build();
+    final SinkRecord recordB = new SinkRecord("dummy", 1, null, null, schemaB, new Struct(schemaB).put("name", "cuba").put("age", 4), 1);
+
+    buffer.add(recordA);
+    buffer.flush();
+    buffer.add(recordA);
+    buffer.flush();
+    verify(connection, times(1)).prepareStatement(anyString());
+
+    // the statement for schemaA is evicted to make room for the one for schemaB
+    buffer.add(recordB);
+    buffer.add(recordA);
+    buffer.flush();
+    verify(connection, times(3)).prepareStatement(anyString());
+
+    assertEquals(4, sqliteHelper.select("SELECT * FROM dummy", new SqliteHelper.ResultSetReadCallback() {
+      @Override
+      public void read(ResultSet rs) {
+      }
+    }));
+  }
+
+  @Test
+  public void deduplicateUpserts() throws SQLException {
+    final DbDialect dbDialect = DbDialect.fromConnectionString(sqliteHelper.sqliteUri());
+
+    final HashMap<Object, Object> props = new HashMap<>();
+    props.put("connection.url", sqliteHelper.sqliteUri());
+    props.put("insert.mode", "upsert");
+    props.put("upsert.deduplicate", true);
+    props.put("pk.mode", "record_value");
+    props.put("pk.fields", "id");
+    final JdbcSinkConfig config = new JdbcSinkConfig(props);
+
+    final PreparedStatement statement = mock(PreparedStatement.class);
+    when(statement.executeBatch()).thenReturn(new int[]{1, 1});
+    final Connection connection = mock(Connection.class);
+    when(connection.prepareStatement(anyString())).thenReturn(statement);
+    final BufferedRecords buffer = new BufferedRecords(config, "dummy", dbDialect, mock(DbStructure.class), connection);
+
+    final Schema schema = SchemaBuilder.struct()
+        .field("id", Schema.INT32_SCHEMA)
+        .field("name", Schema.STRING_SCHEMA)
+        .build();
+    final SinkRecord first = new SinkRecord("dummy", 0, null, null, schema, new Struct(schema).put("id", 1).put("name", "a"), 0);
+    final SinkRecord other = new SinkRecord("dummy", 0, null, null, schema, new Struct(schema).put("id", 2).put("name", "b"), 1);
+    final SinkRecord last = new SinkRecord("dummy", 0, null, null, schema, new Struct(schema).put("id", 1).put("name", "c"), 2);
+
+    buffer.add(first);
+    buffer.add(other);
+    buffer.add(last);
+    assertEquals(Arrays.asList(first, other, last), buffer.flush());
 
-    assertEquals(Collections.singletonList(recordA), buffer.flush());
+    // only the last record of key 1 is written, in the position of the first
+    verify(statement, times(2)).addBatch();
+    verify(statement, times(1)).setInt(1, 1);
+    verify(statement, times(1)).setString(2, "c");
+    verify(statement, times(1)).setInt(1, 2);
+    verify(statement, times(1)).setString(2, "b");
+    verify(statement, times(0)).setString(2, "a");
   }
 
 }
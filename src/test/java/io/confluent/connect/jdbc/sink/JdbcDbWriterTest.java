@@ -26,6 +26,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Arrays;
@@ -40,6 +42,11 @@ import io.confluent.connect.jdbc.sink.metadata.DbTable;
 
 import static junit.framework.TestCase.assertTrue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.startsWith;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 public class JdbcDbWriterTest {
 
@@ -191,6 +198,73 @@ public class JdbcDbWriterTest {
     );
   }
 
+  @Test
+  public void closesStatementsOfLeastRecentlyWrittenTables() throws SQLException {
+    Map<String, String> props = new HashMap<>();
+    props.put("connection.url", sqliteHelper.sqliteUri());
+    props.put("auto.create", "true");
+    props.put("statement.cache.total.size", "1");
+    final Connection spiedConnection = spy(DriverManager.getConnection(sqliteHelper.sqliteUri()));
+    final JdbcSinkConfig config = new JdbcSinkConfig(props);
+    final DbDialect dbDialect = new SqliteDialect();
+    JdbcDbWriter writer = new JdbcDbWriter(config, dbDialect, new DbStructure(dbDialect)) {
+      @Override
+      Connection newConnection() {
+        return spiedConnection;
+      }
+    };
+
+    Schema schema = SchemaBuilder.struct().field("id", Schema.INT32_SCHEMA).build();
+    SinkRecord first = new SinkRecord("first", 0, null, null, schema, new Struct(schema).put("id", 1), 0);
+    SinkRecord second = new SinkRecord("second", 0, null, null, schema, new Struct(schema).put("id", 2), 0);
+
+    writer.write(Arrays.asList(first, second));
+    verify(spiedConnection, times(2)).prepareStatement(startsWith("INSERT"));
+
+    // Only the statement of the most recently written table is kept open
+    writer.write(Collections.singleton(second));
+    verify(spiedConnection, times(2)).prepareStatement(startsWith("INSERT"));
+    writer.write(Collections.singleton(first));
+    verify(spiedConnection, times(3)).prepareStatement(startsWith("INSERT"));
+    writer.write(Collections.singleton(first));
+    verify(spiedConnection, times(3)).prepareStatement(startsWith("INSERT"));
+    writer.closeQuietly();
+  }
+
+  @Test
+  public void failedWriteIsNotCommittedWithTheNextOne() throws SQLException {
+    Map<String, String> props = new HashMap<>();
+    props.put("connection.url", sqliteHelper.sqliteUri());
+    props.put("auto.create", "true");
+    props.put("pk.mode", "record_value");
+    props.put("pk.fields", "id");
+    // The database is deleted after the test, so its connection mustn't be pooled for the next one
+    props.put("connection.pool.idle.timeout.ms", "0");
+    JdbcDbWriter writer = newWriter(props);
+
+    Schema schema = SchemaBuilder.struct().field("id", Schema.INT32_SCHEMA).build();
+    SinkRecord first = new SinkRecord("books", 0, null, null, schema, new Struct(schema).put("id", 1), 0);
+    SinkRecord second = new SinkRecord("books", 0, null, null, schema, new Struct(schema).put("id", 2), 1);
+
+    try {
+      // The duplicate key fails the batch after the first row was inserted
+      writer.write(Arrays.asList(first, first));
+      fail("The duplicate key was written");
+    } catch (SQLException e) {
+      // expected
+    }
+    writer.write(Collections.singleton(second));
+
+    sqliteHelper.select("SELECT count(*), max(id) FROM books", new SqliteHelper.ResultSetReadCallback() {
+      @Override
+      public void read(ResultSet rs) throws SQLException {
+        assertEquals(1, rs.getInt(1));
+        assertEquals(2, rs.getInt(2));
+      }
+    });
+    writer.closeQuietly();
+  }
+
   @Test
   public void sameRecordNTimes() throws SQLException {
     String tableName = "batched_statement_test_100";
@@ -34,6 +34,10 @@ import java.util.concurrent.ThreadLocalRandom;
 import io.confluent.connect.jdbc.sink.metadata.FieldsMetadata;
 import io.confluent.connect.jdbc.sink.metadata.SchemaPair;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -104,6 +108,130 @@ public class PreparedStatementBinderTest {
     verify(statement, times(1)).setObject(index++, null);
   }
 
+  @Test
+  public void bindRecordKafkaCoordinates() throws SQLException {
+    Schema valueSchema = SchemaBuilder.struct()
+        .field("name", Schema.STRING_SCHEMA)
+        .build();
+    Struct valueStruct = new Struct(valueSchema).put("name", "cuba");
+
+    SchemaPair schemaPair = new SchemaPair(null, valueSchema);
+    JdbcSinkConfig.PrimaryKeyMode pkMode = JdbcSinkConfig.PrimaryKeyMode.KAFKA;
+    FieldsMetadata fieldsMetadata = FieldsMetadata.extract("people", pkMode, Collections.<String>emptyList(), schemaPair);
+
+    PreparedStatement statement = mock(PreparedStatement.class);
+    PreparedStatementBinder binder = new PreparedStatementBinder(statement, pkMode, schemaPair, fieldsMetadata);
+
+    binder.bindRecord(new SinkRecord("topic", 3, null, null, valueSchema, valueStruct, 42));
+
+    verify(statement, times(1)).setString(1, "topic");
+    verify(statement, times(1)).setInt(2, 3);
+    verify(statement, times(1)).setLong(3, 42L);
+    verify(statement, times(1)).setString(4, "cuba");
+    verify(statement, times(1)).addBatch();
+  }
+
+  @Test
+  public void bindRecordStructKey() throws SQLException {
+    Schema keySchema = SchemaBuilder.struct()
+        .field("id", Schema.INT64_SCHEMA)
+        .field("region", Schema.OPTIONAL_STRING_SCHEMA)
+        .build();
+    Struct keyStruct = new Struct(keySchema).put("id", 7L);
+
+    Schema valueSchema = SchemaBuilder.struct()
+        .field("name", Schema.STRING_SCHEMA)
+        .build();
+    Struct valueStruct = new Struct(valueSchema).put("name", "cuba");
+
+    SchemaPair schemaPair = new SchemaPair(keySchema, valueSchema);
+    JdbcSinkConfig.PrimaryKeyMode pkMode = JdbcSinkConfig.PrimaryKeyMode.RECORD_KEY;
+    FieldsMetadata fieldsMetadata = FieldsMetadata.extract("people", pkMode, Collections.<String>emptyList(), schemaPair);
+
+    PreparedStatement statement = mock(PreparedStatement.class);
+    PreparedStatementBinder binder = new PreparedStatementBinder(statement, pkMode, schemaPair, fieldsMetadata);
+
+    // bound twice, as for consecutive records of a batch
+    binder.bindRecord(new SinkRecord("topic", 0, keySchema, keyStruct, valueSchema, valueStruct, 0));
+    binder.bindRecord(new SinkRecord("topic", 0, keySchema, keyStruct, valueSchema, valueStruct, 1));
+
+    verify(statement, times(2)).setLong(1, 7L);
+    verify(statement, times(2)).setObject(2, null);
+    verify(statement, times(2)).setString(3, "cuba");
+    verify(statement, times(2)).addBatch();
+  }
+
+  @Test
+  public void key() {
+    Schema keySchema = SchemaBuilder.struct()
+        .field("id", Schema.INT64_SCHEMA)
+        .field("hash", Schema.BYTES_SCHEMA)
+        .build();
+    Schema valueSchema = SchemaBuilder.struct()
+        .field("name", Schema.STRING_SCHEMA)
+        .build();
+    Struct valueStruct = new Struct(valueSchema).put("name", "cuba");
+
+    SchemaPair schemaPair = new SchemaPair(keySchema, valueSchema);
+    JdbcSinkConfig.PrimaryKeyMode pkMode = JdbcSinkConfig.PrimaryKeyMode.RECORD_KEY;
+    FieldsMetadata fieldsMetadata = FieldsMetadata.extract("people", pkMode, Collections.<String>emptyList(), schemaPair);
+    PreparedStatementBinder binder = new PreparedStatementBinder(mock(PreparedStatement.class), pkMode, schemaPair, fieldsMetadata);
+
+    Object key = binder.key(new SinkRecord("topic", 0, keySchema, new Struct(keySchema).put("id", 7L).put("hash", new byte[]{1, 2}),
+                                           valueSchema, valueStruct, 0));
+    Object sameKey = binder.key(new SinkRecord("topic", 0, keySchema, new Struct(keySchema).put("id", 7L).put("hash", new byte[]{1, 2}),
+                                               valueSchema, valueStruct, 1));
+    Object otherKey = binder.key(new SinkRecord("topic", 0, keySchema, new Struct(keySchema).put("id", 7L).put("hash", new byte[]{1, 3}),
+                                                valueSchema, valueStruct, 2));
+    Object otherId = binder.key(new SinkRecord("topic", 0, keySchema, new Struct(keySchema).put("id", 8L).put("hash", new byte[]{1, 2}),
+                                               valueSchema, valueStruct, 3));
+    assertEquals(key, sameKey);
+    assertEquals(key.hashCode(), sameKey.hashCode());
+    assertNotEquals(key, otherKey);
+    assertNotEquals(key, otherId);
+  }
+
+  @Test
+  public void keyWithNullValues() {
+    Schema valueSchema = SchemaBuilder.struct()
+        .field("id", Schema.OPTIONAL_INT32_SCHEMA)
+        .field("region", Schema.OPTIONAL_INT32_SCHEMA)
+        .build();
+    PreparedStatementBinder binder = valueKeyBinder(valueSchema, "id", "region");
+
+    Object nullId = binder.key(valueRecord(valueSchema, null, 1));
+    assertEquals(nullId, binder.key(valueRecord(valueSchema, null, 1)));
+    assertNotEquals(nullId, binder.key(valueRecord(valueSchema, 0, 1)));
+    assertNotEquals(binder.key(valueRecord(valueSchema, 1, null)), binder.key(valueRecord(valueSchema, null, 1)));
+  }
+
+  @Test
+  public void keyOfSingleColumnIsTheValue() {
+    Schema valueSchema = SchemaBuilder.struct().field("id", Schema.INT32_SCHEMA).build();
+    PreparedStatementBinder binder = valueKeyBinder(valueSchema, "id");
+    assertEquals(42, binder.key(new SinkRecord("topic", 0, null, null, valueSchema, new Struct(valueSchema).put("id", 42), 0)));
+  }
+
+  @Test
+  public void hasSameKeyTypes() {
+    Schema intSchema = SchemaBuilder.struct().field("id", Schema.INT32_SCHEMA).field("name", Schema.STRING_SCHEMA).build();
+    Schema otherIntSchema = SchemaBuilder.struct().field("id", Schema.INT32_SCHEMA).field("age", Schema.INT32_SCHEMA).build();
+    Schema longSchema = SchemaBuilder.struct().field("id", Schema.INT64_SCHEMA).field("name", Schema.STRING_SCHEMA).build();
+    PreparedStatementBinder binder = valueKeyBinder(intSchema, "id");
+    assertTrue(binder.hasSameKeyTypes(valueKeyBinder(otherIntSchema, "id")));
+    assertFalse(binder.hasSameKeyTypes(valueKeyBinder(longSchema, "id")));
+  }
+
+  private static PreparedStatementBinder valueKeyBinder(Schema valueSchema, String... keyFields) {
+    SchemaPair schemaPair = new SchemaPair(null, valueSchema);
+    JdbcSinkConfig.PrimaryKeyMode pkMode = JdbcSinkConfig.PrimaryKeyMode.RECORD_VALUE;
+    FieldsMetadata fieldsMetadata = FieldsMetadata.extract("people", pkMode, Arrays.asList(keyFields), schemaPair);
+    return new PreparedStatementBinder(mock(PreparedStatement.class), pkMode, schemaPair, fieldsMetadata);
+  }
+
+  private static SinkRecord valueRecord(Schema valueSchema, Integer id, Integer region) {
+    return new SinkRecord("topic", 0, null, null, valueSchema, new Struct(valueSchema).put("id", id).put("region", region), 0);
+  }
 
   @Test
   public void bindFieldPrimitiveValues() throws SQLException {
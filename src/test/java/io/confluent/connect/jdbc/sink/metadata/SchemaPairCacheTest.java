@@ -0,0 +1,79 @@
+/*
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.confluent.connect.jdbc.sink.metadata;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class SchemaPairCacheTest {
+
+  private static Schema valueSchema(String fieldName) {
+    return SchemaBuilder.struct().field(fieldName, Schema.STRING_SCHEMA).build();
+  }
+
+  @Test
+  public void sameInstances() {
+    final SchemaPairCache cache = new SchemaPairCache(10);
+    final Schema valueSchema = valueSchema("name");
+    final SchemaPair schemaPair = cache.intern(Schema.INT64_SCHEMA, valueSchema);
+    assertSame(Schema.INT64_SCHEMA, schemaPair.keySchema);
+    assertSame(valueSchema, schemaPair.valueSchema);
+    assertSame(schemaPair, cache.intern(Schema.INT64_SCHEMA, valueSchema));
+  }
+
+  @Test
+  public void equalInstances() {
+    final SchemaPairCache cache = new SchemaPairCache(10);
+    final SchemaPair schemaPair = cache.intern(null, valueSchema("name"));
+    assertSame(schemaPair, cache.intern(null, valueSchema("name")));
+  }
+
+  @Test
+  public void equalInstancesAlternating() {
+    final SchemaPairCache cache = new SchemaPairCache(10);
+    final SchemaPair name = cache.intern(null, valueSchema("name"));
+    final SchemaPair age = cache.intern(null, valueSchema("age"));
+    assertSame(name, cache.intern(null, valueSchema("name")));
+    assertSame(name, cache.intern(null, valueSchema("name")));
+    assertSame(age, cache.intern(null, valueSchema("age")));
+  }
+
+  @Test
+  public void differentSchemas() {
+    final SchemaPairCache cache = new SchemaPairCache(10);
+    final SchemaPair schemaPair = cache.intern(null, valueSchema("name"));
+    assertNotSame(schemaPair, cache.intern(null, valueSchema("age")));
+    assertNotSame(schemaPair, cache.intern(Schema.STRING_SCHEMA, valueSchema("name")));
+  }
+
+  @Test
+  public void evictLeastRecentlyUsed() {
+    final SchemaPairCache cache = new SchemaPairCache(1);
+    final Schema valueSchema = valueSchema("name");
+    final SchemaPair schemaPair = cache.intern(null, valueSchema);
+    cache.intern(null, valueSchema("age"));
+    final SchemaPair reinterned = cache.intern(null, valueSchema);
+    assertNotSame(schemaPair, reinterned);
+    assertEquals(schemaPair, reinterned);
+  }
+}
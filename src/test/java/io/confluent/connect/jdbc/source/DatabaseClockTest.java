@@ -0,0 +1,105 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.source;
+
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import io.confluent.connect.jdbc.util.JdbcUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DatabaseClockTest {
+  private static final Calendar UTC_CALENDAR = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+
+  private EmbeddedDerby db;
+  private MockTime time;
+  // Any use of this connection, i.e. sampling the database time, fails the test
+  private Connection unusedConnection;
+
+  @Before
+  public void setup() {
+    db = new EmbeddedDerby();
+    time = new MockTime();
+    unusedConnection = EasyMock.createStrictMock(Connection.class);
+    EasyMock.replay(unusedConnection);
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    db.close();
+    db.dropDatabase();
+  }
+
+  @Test
+  public void testEstimatesFromSample() throws Exception {
+    DatabaseClock clock = new DatabaseClock(time, 100);
+    long before = JdbcUtils.getCurrentTimeOnDB(db.getConnection(), UTC_CALENDAR).getTime();
+    Timestamp first = clock.currentTime(db.getConnection(), UTC_CALENDAR);
+    assertTrue(first.getTime() >= before);
+
+    // Follows the local clock without querying the database, lowered by the possible drift
+    time.sleep(10000);
+    Timestamp second = clock.currentTime(unusedConnection, UTC_CALENDAR);
+    assertEquals(first.getTime() + 10000 - 5, second.getTime());
+
+    time.sleep(180000);
+    Timestamp third = clock.currentTime(unusedConnection, UTC_CALENDAR);
+    assertEquals(first.getTime() + 190000 - 95, third.getTime());
+    EasyMock.verify(unusedConnection);
+  }
+
+  @Test
+  public void testResamplesWhenUncertain() throws Exception {
+    DatabaseClock clock = new DatabaseClock(time, 100);
+    Timestamp first = clock.currentTime(db.getConnection(), UTC_CALENDAR);
+
+    // The drift allowance after this long exceeds the bound, so the database is sampled again.
+    // Since the database clock didn't move along with the mock clock the new estimate is lower
+    // than the previous one would have been.
+    time.sleep(1000000);
+    Timestamp second = clock.currentTime(db.getConnection(), UTC_CALENDAR);
+    assertTrue(second.getTime() < first.getTime() + 1000000 - 500);
+  }
+
+  @Test
+  public void testAlwaysSampleWithoutBound() throws Exception {
+    DatabaseClock clock = new DatabaseClock(time, 0);
+    clock.currentTime(db.getConnection(), UTC_CALENDAR);
+    Connection conn = EasyMock.createMock(Connection.class);
+    EasyMock.expect(conn.getMetaData()).andThrow(new SQLException("sampled"));
+    EasyMock.replay(conn);
+    try {
+      clock.currentTime(conn, UTC_CALENDAR);
+      fail("Expected the database time to be sampled again");
+    } catch (SQLException e) {
+      assertEquals("sampled", e.getMessage());
+    }
+    EasyMock.verify(conn);
+  }
+}
@@ -35,6 +35,7 @@ import java.nio.ByteBuffer;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
 import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
 
 import javax.sql.rowset.serial.SerialBlob;
@@ -209,6 +210,35 @@ public class JdbcSourceTaskConversionTest extends JdbcSourceTaskTestBase {
                    null);
   }
 
+  @Test
+  public void testNumericPrecisionOnly() throws Exception {
+    restartWithNumericMapping(JdbcSourceConnectorConfig.NUMERIC_MAPPING_PRECISION_ONLY);
+    typeConversion("NUMERIC(2,0)", false, 12, Schema.INT8_SCHEMA, (byte) 12);
+    typeConversion("NUMERIC(4,0)", false, 1234, Schema.INT16_SCHEMA, (short) 1234);
+    typeConversion("NUMERIC(9,0)", true, 123456789, Schema.OPTIONAL_INT32_SCHEMA, 123456789);
+    typeConversion("NUMERIC(9,0)", true, null, Schema.OPTIONAL_INT32_SCHEMA, null);
+    typeConversion("NUMERIC(18,0)", false, 123456789012345678L, Schema.INT64_SCHEMA,
+                   123456789012345678L);
+    // Too many digits for a long
+    typeConversion("NUMERIC(19,0)", false, 1, Decimal.schema(0), new BigDecimal(1));
+    typeConversion("DECIMAL(5,2)", false,
+                   new EmbeddedDerby.Literal("CAST (123.45 AS DECIMAL(5,2))"),
+                   Decimal.schema(2), new BigDecimal(new BigInteger("12345"), 2));
+  }
+
+  @Test
+  public void testNumericBestFit() throws Exception {
+    restartWithNumericMapping(JdbcSourceConnectorConfig.NUMERIC_MAPPING_BEST_FIT);
+    typeConversion("NUMERIC(9,0)", false, 123456789, Schema.INT32_SCHEMA, 123456789);
+    typeConversion("DECIMAL(5,2)", false,
+                   new EmbeddedDerby.Literal("CAST (123.45 AS DECIMAL(5,2))"),
+                   Schema.FLOAT64_SCHEMA, 123.45);
+    // Too many digits for a double
+    typeConversion("DECIMAL(16,2)", false,
+                   new EmbeddedDerby.Literal("CAST (123.45 AS DECIMAL(16,2))"),
+                   Decimal.schema(2), new BigDecimal(new BigInteger("12345"), 2));
+  }
+
   @Test
   public void testDate() throws Exception {
     GregorianCalendar expected = new GregorianCalendar(1977, Calendar.FEBRUARY, 13, 0, 0, 0);
@@ -275,6 +305,14 @@ public class JdbcSourceTaskConversionTest extends JdbcSourceTaskTestBase {
   // Derby has an XML type, but the JDBC driver doesn't implement any of the type bindings,
   // returning strings instead, so the XML type is not tested here
 
+  private void restartWithNumericMapping(String numericMapping) {
+    task.stop();
+    task = new JdbcSourceTask(time);
+    Map<String, String> props = singleTableConfig();
+    props.put(JdbcSourceConnectorConfig.NUMERIC_MAPPING_CONFIG, numericMapping);
+    task.start(props);
+  }
+
   private void typeConversion(String sqlType, boolean nullable,
                               Object sqlValue, Schema convertedSchema,
                               Object convertedValue) throws Exception {
@@ -16,6 +16,7 @@
 
 package io.confluent.connect.jdbc.source;
 
+import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.connect.errors.ConnectException;
 import org.apache.kafka.connect.source.SourceRecord;
 import org.easymock.EasyMock;
@@ -28,13 +29,18 @@ import org.powermock.modules.junit4.PowerMockRunner;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import io.confluent.connect.jdbc.util.ConnectionPool;
+
 import static org.junit.Assert.assertEquals;
 
 @RunWith(PowerMockRunner.class)
-@PrepareForTest({JdbcSourceTask.class})
+@PrepareForTest({JdbcSourceTask.class, ConnectionPool.class})
 @PowerMockIgnore("javax.management.*")
 public class JdbcSourceTaskLifecycleTest extends JdbcSourceTaskTestBase {
 
@@ -66,7 +72,10 @@ public class JdbcSourceTaskLifecycleTest extends JdbcSourceTaskTestBase {
 
     PowerMock.replayAll();
 
-    task.start(singleTableConfig());
+    // Without idle connections in the pool, closing the task's connection closes it immediately
+    Map<String, String> props = singleTableConfig();
+    props.put(JdbcSourceConnectorConfig.CONNECTION_POOL_IDLE_TIMEOUT_MS_CONFIG, "0");
+    task.start(props);
     task.stop();
 
     PowerMock.verifyAll();
@@ -206,6 +215,62 @@ public class JdbcSourceTaskLifecycleTest extends JdbcSourceTaskTestBase {
     }
   }
 
+  @Test
+  public void testConcurrentQueries() throws Exception {
+    db.createTable(SINGLE_TABLE_NAME, "id", "INT");
+    db.createTable(SECOND_TABLE_NAME, "id", "INT");
+    // Insert before starting so that no bulk load can see only part of the rows
+    db.insert(SINGLE_TABLE_NAME, "id", 1);
+    db.insert(SINGLE_TABLE_NAME, "id", 2);
+    db.insert(SECOND_TABLE_NAME, "id", 3);
+
+    Map<String, String> taskConfig = twoTableConfig();
+    taskConfig.put(JdbcSourceConnectorConfig.QUERY_CONCURRENCY_CONFIG, "2");
+    taskConfig.put(JdbcSourceConnectorConfig.BATCH_MAX_ROWS_CONFIG, "1");
+    task.start(taskConfig);
+
+    // Batches from both tables are interleaved in any order, but each table's rows stay in order
+    Map<String, List<Integer>> idsByTable = new HashMap<>();
+    idsByTable.put(SINGLE_TABLE_NAME, new ArrayList<Integer>());
+    idsByTable.put(SECOND_TABLE_NAME, new ArrayList<Integer>());
+    while (idsByTable.get(SINGLE_TABLE_NAME).size() < 2
+           || idsByTable.get(SECOND_TABLE_NAME).isEmpty()) {
+      List<SourceRecord> records = task.poll();
+      assertEquals(1, records.size());
+      String table = (String) records.get(0).sourcePartition()
+          .get(JdbcSourceConnectorConstants.TABLE_NAME_KEY);
+      idsByTable.get(table).add(((Struct) records.get(0).value()).getInt32("id"));
+    }
+    assertEquals(Arrays.asList(1, 2), idsByTable.get(SINGLE_TABLE_NAME).subList(0, 2));
+    assertEquals(Integer.valueOf(3), idsByTable.get(SECOND_TABLE_NAME).get(0));
+
+    task.stop();
+  }
+
+  @Test
+  public void testPrefetch() throws Exception {
+    db.createTable(SINGLE_TABLE_NAME, "id", "INT");
+    db.insert(SINGLE_TABLE_NAME, "id", 1);
+    db.insert(SINGLE_TABLE_NAME, "id", 2);
+    db.insert(SINGLE_TABLE_NAME, "id", 3);
+
+    // A single query read ahead in the background still delivers its rows in order
+    Map<String, String> taskConfig = singleTableConfig();
+    taskConfig.put(JdbcSourceConnectorConfig.QUERY_PREFETCH_BATCHES_CONFIG, "2");
+    taskConfig.put(JdbcSourceConnectorConfig.BATCH_MAX_ROWS_CONFIG, "1");
+    task.start(taskConfig);
+
+    List<Integer> ids = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      List<SourceRecord> records = task.poll();
+      assertEquals(1, records.size());
+      ids.add(((Struct) records.get(0).value()).getInt32("id"));
+    }
+    assertEquals(Arrays.asList(1, 2, 3), ids);
+
+    task.stop();
+  }
+
   private static void validatePollResultTable(List<SourceRecord> records,
                                               int expected, String table) {
     assertEquals(expected, records.size());
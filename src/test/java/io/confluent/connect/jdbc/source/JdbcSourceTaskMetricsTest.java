@@ -0,0 +1,116 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.source;
+
+import org.apache.kafka.common.MetricName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.management.ObjectName;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JdbcSourceTaskMetricsTest {
+  private static final String TABLE_NAME = "test";
+
+  private EmbeddedDerby db;
+  private MockTime time;
+  private JdbcSourceTaskMetrics metrics;
+
+  @Before
+  public void setup() throws Exception {
+    db = new EmbeddedDerby();
+    db.createTable(TABLE_NAME, "id", "INT NOT NULL");
+    db.insert(TABLE_NAME, "id", 1);
+    db.insert(TABLE_NAME, "id", 2);
+    db.insert(TABLE_NAME, "id", 3);
+    time = new MockTime();
+    metrics = new JdbcSourceTaskMetrics("test-connector", 1, time);
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    metrics.close();
+    db.close();
+    db.dropDatabase();
+  }
+
+  @Test
+  public void testQueryCycle() throws Exception {
+    TableQuerier querier = querier();
+    querier.maybeStartQuery(db.getConnection());
+    while (querier.next()) {
+      querier.extractRecord();
+    }
+    querier.close(time.milliseconds());
+
+    assertEquals(3.0, value("rows-total"), 0);
+    assertEquals(3.0, value("rows-per-cycle-max"), 0);
+    assertEquals(0.0, value("time-since-last-success-ms"), 0);
+    time.sleep(1000);
+    assertEquals(1000.0, value("time-since-last-success-ms"), 0);
+  }
+
+  @Test
+  public void testIncompleteCycleIsNotSuccessful() throws Exception {
+    TableQuerier querier = querier();
+    time.sleep(1000);
+    querier.maybeStartQuery(db.getConnection());
+    assertTrue(querier.next());
+    querier.extractRecord();
+    // Closed before all results were read, e.g. because reading them failed
+    querier.close(time.milliseconds());
+
+    assertEquals(1.0, value("rows-total"), 0);
+    assertEquals(1000.0, value("time-since-last-success-ms"), 0);
+  }
+
+  @Test
+  public void testRegisteredOverJmx() throws Exception {
+    metrics.table(TABLE_NAME);
+    ObjectName name = new ObjectName(JdbcSourceTaskMetrics.JMX_PREFIX + ":type="
+                                     + JdbcSourceTaskMetrics.GROUP
+                                     + ",connector=test-connector,task=1,table=" + TABLE_NAME);
+    assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    metrics.close();
+    assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+  }
+
+  private TableQuerier querier() {
+    TableQuerier querier = new BulkTableQuerier(TableQuerier.QueryMode.TABLE, TABLE_NAME, "test-",
+                                                0, LobLimit.UNLIMITED,
+                                                DataConverter.NumericMapping.NONE, 0, 0);
+    querier.setMetrics(metrics.table(querier.metricsLabel()));
+    return querier;
+  }
+
+  private double value(String metric) {
+    Map<String, String> tags = new LinkedHashMap<>();
+    tags.put("connector", "test-connector");
+    tags.put("task", "1");
+    tags.put("table", TABLE_NAME);
+    MetricName name = new MetricName(metric, JdbcSourceTaskMetrics.GROUP, "", tags);
+    return metrics.metrics().metrics().get(name).value();
+  }
+}
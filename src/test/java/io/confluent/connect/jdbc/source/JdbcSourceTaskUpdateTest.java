@@ -16,6 +16,7 @@
 
 package io.confluent.connect.jdbc.source;
 
+import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.connect.errors.ConnectException;
 import org.apache.kafka.connect.source.SourceRecord;
@@ -24,6 +25,7 @@ import org.junit.Test;
 import org.powermock.api.easymock.PowerMock;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
@@ -34,6 +36,10 @@ import java.util.Map;
 import io.confluent.connect.jdbc.util.JdbcUtils;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 // Tests of polling that return data updates, i.e. verifies the different behaviors for getting
 // incremental data updates from the database
@@ -79,6 +85,190 @@ public class JdbcSourceTaskUpdateTest extends JdbcSourceTaskTestBase {
     assertRecordsTopic(records, TOPIC_PREFIX + SINGLE_TABLE_NAME);
   }
 
+  @Test
+  public void testBulkFetchSize() throws Exception {
+    db.createTable(SINGLE_TABLE_NAME, "id", "INT NOT NULL");
+    for (int id = 1; id <= 5; id++) {
+      db.insert(SINGLE_TABLE_NAME, "id", id);
+    }
+
+    Map<String, String> taskConfig = singleTableConfig();
+    taskConfig.put(JdbcSourceConnectorConfig.QUERY_FETCH_SIZE_CONFIG, "2");
+    task.start(taskConfig);
+
+    // Fetching in smaller chunks than a batch still returns every row in one batch
+    List<SourceRecord> records = task.poll();
+    assertEquals(5, records.size());
+    assertRecordsTopic(records, TOPIC_PREFIX + SINGLE_TABLE_NAME);
+  }
+
+  @Test
+  public void testBulkSchemaReuse() throws Exception {
+    db.createTable(SINGLE_TABLE_NAME, "id", "INT NOT NULL");
+    db.insert(SINGLE_TABLE_NAME, "id", 1);
+
+    task.start(singleTableConfig());
+
+    List<SourceRecord> records = task.poll();
+    Schema schema = records.get(0).valueSchema();
+    // Unchanged table metadata reuses the same schema instance
+    records = task.poll();
+    assertSame(schema, records.get(0).valueSchema());
+
+    db.execute("ALTER TABLE \"" + SINGLE_TABLE_NAME + "\" ADD COLUMN \"name\" VARCHAR(20)");
+    records = task.poll();
+    assertNotSame(schema, records.get(0).valueSchema());
+    assertNotNull(records.get(0).valueSchema().field("name"));
+  }
+
+  @Test
+  public void testBulkKeyRanges() throws Exception {
+    TableKeyRange lowRange = new TableKeyRange(SINGLE_TABLE_NAME, null, 3L);
+    TableKeyRange highRange = new TableKeyRange(SINGLE_TABLE_NAME, 3L, null);
+    Map<Map<String, String>, Map<String, Object>> offsets = new HashMap<>();
+    offsets.put(KeyRangeTableQuerier.partition(lowRange), null);
+    // The high range was interrupted after emitting the row with key 3
+    offsets.put(KeyRangeTableQuerier.partition(highRange),
+                Collections.<String, Object>singletonMap(KeyRangeTableQuerier.KEY_OFFSET_FIELD, 3L));
+    expectInitialize(Arrays.asList(KeyRangeTableQuerier.partition(lowRange),
+                                   KeyRangeTableQuerier.partition(highRange)), offsets);
+
+    PowerMock.replayAll();
+
+    db.createTable(SINGLE_TABLE_NAME, "id", "INT NOT NULL");
+    for (int id = 1; id <= 5; id++) {
+      db.insert(SINGLE_TABLE_NAME, "id", id);
+    }
+
+    initializeTask();
+    Map<String, String> taskConfig = singleTableConfig();
+    taskConfig.put(JdbcSourceTaskConfig.TABLES_CONFIG, "");
+    taskConfig.put(JdbcSourceTaskConfig.TABLE_RANGES_CONFIG, lowRange + "," + highRange);
+    taskConfig.put(JdbcSourceConnectorConfig.BULK_SPLIT_COLUMN_CONFIG, "id");
+    task.start(taskConfig);
+
+    Map<Map<String, ?>, List<SourceRecord>> recordsByRange = new HashMap<>();
+    for (int i = 0; i < 2; i++) {
+      List<SourceRecord> records = task.poll();
+      assertRecordsTopic(records, TOPIC_PREFIX + SINGLE_TABLE_NAME);
+      recordsByRange.put(records.get(0).sourcePartition(), records);
+    }
+
+    List<SourceRecord> low = recordsByRange.get(KeyRangeTableQuerier.partition(lowRange));
+    assertEquals(Arrays.asList(1, 2), idValues(low));
+    assertEquals(2L, low.get(1).sourceOffset().get(KeyRangeTableQuerier.KEY_OFFSET_FIELD));
+    // Resumes after the offset instead of reloading the whole range
+    List<SourceRecord> high = recordsByRange.get(KeyRangeTableQuerier.partition(highRange));
+    assertEquals(Arrays.asList(4, 5), idValues(high));
+    assertEquals(5L, high.get(1).sourceOffset().get(KeyRangeTableQuerier.KEY_OFFSET_FIELD));
+
+    // Once a range has been loaded completely the next load starts over
+    List<SourceRecord> records = task.poll();
+    Map<String, ?> partition = records.get(0).sourcePartition();
+    if (partition.equals(KeyRangeTableQuerier.partition(lowRange))) {
+      assertEquals(Arrays.asList(1, 2), idValues(records));
+    } else {
+      assertEquals(Arrays.asList(3, 4, 5), idValues(records));
+    }
+
+    PowerMock.verifyAll();
+  }
+
+  @Test
+  public void testBulkResumable() throws Exception {
+    TableKeyRange wholeTable = new TableKeyRange(SINGLE_TABLE_NAME, null, null);
+    // The previous load was interrupted after emitting the row with key 2
+    expectInitialize(
+        Arrays.asList(KeyRangeTableQuerier.partition(wholeTable)),
+        Collections.singletonMap(
+            KeyRangeTableQuerier.partition(wholeTable),
+            Collections.<String, Object>singletonMap(KeyRangeTableQuerier.KEY_OFFSET_FIELD, 2L)));
+
+    PowerMock.replayAll();
+
+    db.createTable(SINGLE_TABLE_NAME, "id", "INT NOT NULL");
+    for (int id = 1; id <= 5; id++) {
+      db.insert(SINGLE_TABLE_NAME, "id", id);
+    }
+
+    initializeTask();
+    Map<String, String> taskConfig = singleTableConfig();
+    taskConfig.put(JdbcSourceConnectorConfig.BULK_RESUMABLE_CONFIG, "true");
+    taskConfig.put(JdbcSourceConnectorConfig.BULK_SPLIT_COLUMN_CONFIG, "id");
+    taskConfig.put(JdbcSourceConnectorConfig.BULK_PAGE_SIZE_CONFIG, "2");
+    task.start(taskConfig);
+
+    // Pages continue after the last key of the previous page within the same load
+    List<SourceRecord> records = task.poll();
+    assertEquals(Arrays.asList(3, 4, 5), idValues(records));
+    assertRecordsTopic(records, TOPIC_PREFIX + SINGLE_TABLE_NAME);
+    assertEquals(5L, records.get(2).sourceOffset().get(KeyRangeTableQuerier.KEY_OFFSET_FIELD));
+    // Only the offset of the last row marks the load as complete
+    assertNull(records.get(1).sourceOffset().get(KeyRangeTableQuerier.COMPLETE_OFFSET_FIELD));
+    assertEquals(true,
+                 records.get(2).sourceOffset().get(KeyRangeTableQuerier.COMPLETE_OFFSET_FIELD));
+
+    records = task.poll();
+    assertEquals(Arrays.asList(1, 2, 3, 4, 5), idValues(records));
+
+    PowerMock.verifyAll();
+  }
+
+  @Test
+  public void testBulkResumableAfterCompletedLoad() throws Exception {
+    TableKeyRange wholeTable = new TableKeyRange(SINGLE_TABLE_NAME, null, null);
+    // The previous load emitted every row up to the last one before the task stopped
+    Map<String, Object> offset = new HashMap<>();
+    offset.put(KeyRangeTableQuerier.KEY_OFFSET_FIELD, 5L);
+    offset.put(KeyRangeTableQuerier.COMPLETE_OFFSET_FIELD, true);
+    expectInitialize(Arrays.asList(KeyRangeTableQuerier.partition(wholeTable)),
+                     Collections.singletonMap(KeyRangeTableQuerier.partition(wholeTable), offset));
+
+    PowerMock.replayAll();
+
+    db.createTable(SINGLE_TABLE_NAME, "id", "INT NOT NULL");
+    for (int id = 1; id <= 5; id++) {
+      db.insert(SINGLE_TABLE_NAME, "id", id);
+    }
+
+    initializeTask();
+    Map<String, String> taskConfig = singleTableConfig();
+    taskConfig.put(JdbcSourceConnectorConfig.BULK_RESUMABLE_CONFIG, "true");
+    taskConfig.put(JdbcSourceConnectorConfig.BULK_SPLIT_COLUMN_CONFIG, "id");
+    task.start(taskConfig);
+
+    // The first load after the restart is a complete one
+    List<SourceRecord> records = task.poll();
+    assertEquals(Arrays.asList(1, 2, 3, 4, 5), idValues(records));
+
+    PowerMock.verifyAll();
+  }
+
+  @Test
+  public void testBulkResumableNonIntegralKey() throws Exception {
+    TableKeyRange wholeTable = new TableKeyRange(SINGLE_TABLE_NAME, null, null);
+    expectInitializeNoOffsets(Arrays.asList(KeyRangeTableQuerier.partition(wholeTable)));
+
+    PowerMock.replayAll();
+
+    db.createTable(SINGLE_TABLE_NAME, "id", "DOUBLE NOT NULL");
+    db.insert(SINGLE_TABLE_NAME, "id", 1.5);
+    db.insert(SINGLE_TABLE_NAME, "id", 1.75);
+
+    initializeTask();
+    Map<String, String> taskConfig = singleTableConfig();
+    taskConfig.put(JdbcSourceConnectorConfig.BULK_RESUMABLE_CONFIG, "true");
+    taskConfig.put(JdbcSourceConnectorConfig.BULK_SPLIT_COLUMN_CONFIG, "id");
+    task.start(taskConfig);
+
+    // Paging after the last key would skip rows, so the table is loaded whole without resuming
+    List<SourceRecord> records = task.poll();
+    assertEquals(2, records.size());
+    assertEquals(SINGLE_TABLE_PARTITION, records.get(0).sourcePartition());
+
+    PowerMock.verifyAll();
+  }
+
   @Test(expected = ConnectException.class)
   public void testIncrementingInvalidColumn() throws Exception {
     expectInitializeNoOffsets(Arrays.asList(SINGLE_TABLE_PARTITION));
@@ -442,6 +632,11 @@ public class JdbcSourceTaskUpdateTest extends JdbcSourceTaskTestBase {
       taskConfig.put(JdbcSourceConnectorConfig.INCREMENTING_COLUMN_NAME_CONFIG, incrementingColumn);
     }
     taskConfig.put(JdbcSourceConnectorConfig.TIMESTAMP_DELAY_INTERVAL_MS_CONFIG, delay == null ? "0" : delay.toString());
+    if (delay != null && delay > 0) {
+      // Delays are checked against rows timestamped with the real time, which the mock time used
+      // to estimate the database clock doesn't follow
+      taskConfig.put(JdbcSourceConnectorConfig.DB_CLOCK_MAX_ERROR_MS_CONFIG, "0");
+    }
     task.start(taskConfig);
   }
 
@@ -535,6 +730,14 @@ public class JdbcSourceTaskUpdateTest extends JdbcSourceTaskTestBase {
     return result;
   }
 
+  private List<Integer> idValues(List<SourceRecord> records) {
+    List<Integer> ids = new ArrayList<>(records.size());
+    for (SourceRecord record : records) {
+      ids.add(((Struct) record.value()).getInt32("id"));
+    }
+    return ids;
+  }
+
   private Map<Integer, Integer> countIntValues(List<SourceRecord> records, String fieldName) {
     return countInts(records, Field.VALUE, fieldName);
   }
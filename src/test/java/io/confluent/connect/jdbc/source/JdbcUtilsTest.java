@@ -20,6 +20,10 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -30,6 +34,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class JdbcUtilsTest {
 
@@ -67,6 +75,48 @@ public class JdbcUtilsTest {
         new HashSet<String>(JdbcUtils.getTables(db.getConnection())));
   }
 
+  @Test
+  public void testGetLimitClause() throws Exception {
+    assertEquals(" FETCH FIRST 10 ROWS ONLY", JdbcUtils.getLimitClause(db.getConnection(), 10));
+  }
+
+  @Test
+  public void testGetRowCountEstimate() throws Exception {
+    db.createTable("test", "id", "INT NOT NULL");
+    db.insert("test", "id", 1);
+    // Derby doesn't report table statistics through the metadata API
+    assertEquals(-1, JdbcUtils.getRowCountEstimate(db.getConnection(), "test"));
+  }
+
+  @Test
+  public void testGetRowCountEstimateFromCatalog() throws Exception {
+    // PostgreSQL's driver doesn't report table statistics either, so its catalog is queried
+    Connection conn = mock(Connection.class);
+    DatabaseMetaData metadata = mock(DatabaseMetaData.class);
+    PreparedStatement stmt = mock(PreparedStatement.class);
+    ResultSet rs = mock(ResultSet.class);
+    when(conn.getMetaData()).thenReturn(metadata);
+    when(metadata.getDatabaseProductName()).thenReturn("PostgreSQL");
+    when(conn.prepareStatement(startsWith("SELECT reltuples"))).thenReturn(stmt);
+    when(stmt.executeQuery()).thenReturn(rs);
+    when(rs.next()).thenReturn(true);
+    when(rs.getLong(1)).thenReturn(12345L);
+    assertEquals(12345, JdbcUtils.getRowCountEstimate(conn, "test"));
+    verify(stmt).setString(1, "test");
+
+    // Tables that have never been analyzed have no estimate
+    when(rs.getLong(1)).thenReturn(-1L);
+    assertEquals(-1, JdbcUtils.getRowCountEstimate(conn, "test"));
+  }
+
+  @Test
+  public void testPrepareForStreaming() throws Exception {
+    // Derby streams with any fetch size and doesn't need any other changes to the connection
+    assertEquals(0, JdbcUtils.prepareForStreaming(db.getConnection(), 0));
+    assertEquals(500, JdbcUtils.prepareForStreaming(db.getConnection(), 500));
+    assertTrue(db.getConnection().getAutoCommit());
+  }
+
   @Test
   public void testGetAutoincrement() throws Exception {
     // Normal case
@@ -0,0 +1,138 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.source;
+
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LobLimitTest {
+  private static final Field BYTES = new Field("bytes", 0, Schema.BYTES_SCHEMA);
+  private static final Field OPTIONAL_BYTES = new Field("bytes", 0, Schema.OPTIONAL_BYTES_SCHEMA);
+  private static final Field STRING = new Field("string", 0, Schema.STRING_SCHEMA);
+  private static final Field OPTIONAL_STRING = new Field("string", 0,
+                                                         Schema.OPTIONAL_STRING_SCHEMA);
+
+  private static final LobLimit TRUNCATE = new LobLimit(10, LobLimit.OverflowAction.TRUNCATE);
+  private static final LobLimit SKIP = new LobLimit(10, LobLimit.OverflowAction.SKIP);
+  private static final LobLimit FAIL = new LobLimit(10, LobLimit.OverflowAction.FAIL);
+
+  @Test
+  public void testUnlimited() throws Exception {
+    // Larger than the pooled buffer, so it has to grow
+    byte[] bytes = bytes(100000);
+    assertArrayEquals(bytes, LobLimit.UNLIMITED.readBytes(BYTES, -1, stream(bytes)));
+    assertArrayEquals(bytes, LobLimit.UNLIMITED.readBytes(BYTES, bytes.length, stream(bytes)));
+    String string = new String(chars(100000));
+    assertEquals(string, LobLimit.UNLIMITED.readString(STRING, -1, new StringReader(string)));
+    assertEquals(string, LobLimit.UNLIMITED.readString(STRING, string.length(),
+                                                       new StringReader(string)));
+  }
+
+  @Test
+  public void testNull() throws Exception {
+    assertNull(FAIL.readBytes(BYTES, -1, null));
+    assertNull(FAIL.readString(STRING, -1, null));
+  }
+
+  @Test
+  public void testWithinLimit() throws Exception {
+    byte[] bytes = bytes(10);
+    assertArrayEquals(bytes, FAIL.readBytes(BYTES, -1, stream(bytes)));
+    assertArrayEquals(bytes, FAIL.readBytes(BYTES, 10, stream(bytes)));
+    assertEquals("0123456789", FAIL.readString(STRING, -1, new StringReader("0123456789")));
+    assertEquals("0123456789", FAIL.readString(STRING, 10, new StringReader("0123456789")));
+  }
+
+  @Test
+  public void testTruncate() throws Exception {
+    byte[] bytes = bytes(100000);
+    byte[] truncated = Arrays.copyOf(bytes, 10);
+    assertArrayEquals(truncated, TRUNCATE.readBytes(BYTES, -1, stream(bytes)));
+    assertArrayEquals(truncated, TRUNCATE.readBytes(BYTES, bytes.length, stream(bytes)));
+    String string = new String(chars(100000));
+    assertEquals(string.substring(0, 10), TRUNCATE.readString(STRING, -1,
+                                                              new StringReader(string)));
+    assertEquals(string.substring(0, 10), TRUNCATE.readString(STRING, string.length(),
+                                                              new StringReader(string)));
+  }
+
+  @Test
+  public void testTruncateKeepsSurrogatePairs() throws Exception {
+    // The tenth character starts a surrogate pair that would be split by the limit
+    String string = "012345678😀";
+    assertEquals("012345678", TRUNCATE.readString(STRING, -1, new StringReader(string)));
+    assertEquals("012345678", TRUNCATE.readString(STRING, string.length(),
+                                                  new StringReader(string)));
+  }
+
+  @Test
+  public void testSkip() throws Exception {
+    byte[] bytes = bytes(11);
+    assertNull(SKIP.readBytes(OPTIONAL_BYTES, -1, stream(bytes)));
+    assertNull(SKIP.readBytes(OPTIONAL_BYTES, 11, stream(bytes)));
+    assertArrayEquals(new byte[0], SKIP.readBytes(BYTES, -1, stream(bytes)));
+    assertNull(SKIP.readString(OPTIONAL_STRING, -1, new StringReader("0123456789a")));
+    assertNull(SKIP.readString(OPTIONAL_STRING, 11, new StringReader("0123456789a")));
+    assertEquals("", SKIP.readString(STRING, -1, new StringReader("0123456789a")));
+  }
+
+  @Test(expected = ConnectException.class)
+  public void testFailBytes() throws Exception {
+    FAIL.readBytes(BYTES, -1, stream(bytes(11)));
+  }
+
+  @Test(expected = ConnectException.class)
+  public void testFailString() throws Exception {
+    FAIL.readString(STRING, 11, new StringReader("0123456789a"));
+  }
+
+  @Test(expected = IOException.class)
+  public void testShorterThanLength() throws Exception {
+    FAIL.readBytes(BYTES, 5, stream(bytes(3)));
+  }
+
+  private static ByteArrayInputStream stream(byte[] bytes) {
+    return new ByteArrayInputStream(bytes);
+  }
+
+  private static byte[] bytes(int length) {
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = (byte) i;
+    }
+    return bytes;
+  }
+
+  private static char[] chars(int length) {
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = (char) ('a' + i % 26);
+    }
+    return chars;
+  }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.source;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TableKeyRangeTest {
+
+  @Test
+  public void testSplit() {
+    assertEquals(Arrays.asList(new TableKeyRange("t", null, 32L),
+                               new TableKeyRange("t", 32L, 64L),
+                               new TableKeyRange("t", 64L, 96L),
+                               new TableKeyRange("t", 96L, null)),
+                 TableKeyRange.split("t", 1, 100, 4));
+  }
+
+  @Test
+  public void testSplitIsStableAsKeysChange() {
+    // Rows added and removed since the last split don't move the boundaries
+    assertEquals(TableKeyRange.split("t", 1, 100, 4), TableKeyRange.split("t", 3, 120, 4));
+    // Boundaries are multiples of the width, not offsets from the smallest key
+    assertEquals(Arrays.asList(new TableKeyRange("t", null, 64L),
+                               new TableKeyRange("t", 64L, null)),
+                 TableKeyRange.split("t", 60, 70, 2));
+  }
+
+  @Test
+  public void testSplitNegativeKeys() {
+    assertEquals(Arrays.asList(new TableKeyRange("t", null, -8L),
+                               new TableKeyRange("t", -8L, 0L),
+                               new TableKeyRange("t", 0L, null)),
+                 TableKeyRange.split("t", -10, 5, 4));
+  }
+
+  @Test
+  public void testSplitNarrowSpan() {
+    // Fewer distinct keys than requested ranges
+    assertEquals(Arrays.asList(new TableKeyRange("t", null, 2L),
+                               new TableKeyRange("t", 2L, null)),
+                 TableKeyRange.split("t", 1, 2, 4));
+    assertEquals(Collections.singletonList(new TableKeyRange("t", null, null)),
+                 TableKeyRange.split("t", 5, 5, 4));
+  }
+
+  @Test
+  public void testSplitFullKeySpace() {
+    List<TableKeyRange> ranges = TableKeyRange.split("t", Long.MIN_VALUE, Long.MAX_VALUE, 2);
+    assertEquals(Arrays.asList(new TableKeyRange("t", null, 0L),
+                               new TableKeyRange("t", 0L, null)),
+                 ranges);
+  }
+
+  @Test
+  public void testParse() {
+    TableKeyRange range = new TableKeyRange("t", -10L, 20L);
+    assertEquals("t:-10:20", range.toString());
+    assertEquals(range, TableKeyRange.parse(range.toString()));
+
+    TableKeyRange open = new TableKeyRange("schema:t", null, null);
+    assertEquals(":", open.bounds());
+    assertEquals(open, TableKeyRange.parse(open.toString()));
+  }
+
+  @Test(expected = ConfigException.class)
+  public void testParseMissingBounds() {
+    TableKeyRange.parse("t:10");
+  }
+
+  @Test(expected = ConfigException.class)
+  public void testParseInvalidBound() {
+    TableKeyRange.parse("t:a:10");
+  }
+}
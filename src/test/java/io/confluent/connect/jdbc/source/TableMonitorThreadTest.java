@@ -34,12 +34,13 @@ import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.*;
 
+import io.confluent.connect.jdbc.util.CatalogFingerprint;
 import io.confluent.connect.jdbc.util.JdbcUtils;
 
 import static org.junit.Assert.assertEquals;
 
 @RunWith(PowerMockRunner.class)
-@PrepareForTest({TableMonitorThread.class, JdbcUtils.class})
+@PrepareForTest({TableMonitorThread.class, JdbcUtils.class, CatalogFingerprint.class})
 @PowerMockIgnore("javax.management.*")
 public class TableMonitorThreadTest {
   private static final long POLL_INTERVAL = 100;
@@ -48,6 +49,7 @@ public class TableMonitorThreadTest {
   private static final List<String> VIEW_TOPIC_LIST = Arrays.asList("");
   private static final List<String> SECOND_TOPIC_LIST = Arrays.asList("foo", "bar");
   private static final List<String> THIRD_TOPIC_LIST = Arrays.asList("foo", "bar", "baz");
+  private static final List<String> SORTED_SECOND_TOPIC_LIST = Arrays.asList("bar", "foo");
   public static final Set<String> DEFAULT_TABLE_TYPES = Collections.unmodifiableSet(
           new HashSet<String>(Arrays.asList("TABLE"))
   );
@@ -111,7 +113,8 @@ public class TableMonitorThreadTest {
 
     tableMonitorThread.start();
     tableMonitorThread.join();
-    assertEquals(Arrays.asList("foo", "bar"), tableMonitorThread.tables());
+    // Tables are sorted by name
+    assertEquals(Arrays.asList("bar", "foo"), tableMonitorThread.tables());
 
     PowerMock.verifyAll();
   }
@@ -159,7 +162,7 @@ public class TableMonitorThreadTest {
     EasyMock.expect(JdbcUtils.getTables(dbConn, DEFAULT_TABLE_TYPES)).andAnswer(new IAnswer<List<String>>() {
       @Override
       public List<String> answer() throws Throwable {
-        assertEquals(SECOND_TOPIC_LIST, tableMonitorThread.tables());
+        assertEquals(SORTED_SECOND_TOPIC_LIST, tableMonitorThread.tables());
         tableMonitorThread.shutdown();
         return FIRST_TOPIC_LIST;
       }
@@ -198,4 +201,35 @@ public class TableMonitorThreadTest {
 
     PowerMock.verifyAll();
   }
+
+  @Test
+  public void testUnchangedCatalogFingerprint() throws Exception {
+    tableMonitorThread = new TableMonitorThread(dbConn, context, POLL_INTERVAL, null, null,
+                                                DEFAULT_TABLE_TYPES);
+    PowerMock.mockStatic(CatalogFingerprint.class);
+
+    EasyMock.expect(CatalogFingerprint.of(dbConn)).andReturn("1");
+    EasyMock.expect(JdbcUtils.getTables(dbConn, DEFAULT_TABLE_TYPES)).andReturn(FIRST_TOPIC_LIST);
+    // An unchanged fingerprint should not list the tables again
+    EasyMock.expect(CatalogFingerprint.of(dbConn)).andReturn("1");
+    // A changed fingerprint should list the tables and pick up their changes
+    EasyMock.expect(CatalogFingerprint.of(dbConn)).andReturn("2");
+    EasyMock.expect(JdbcUtils.getTables(dbConn, DEFAULT_TABLE_TYPES)).andAnswer(new IAnswer<List<String>>() {
+      @Override
+      public List<String> answer() throws Throwable {
+        tableMonitorThread.shutdown();
+        return SECOND_TOPIC_LIST;
+      }
+    });
+    context.requestTaskReconfiguration();
+    PowerMock.expectLastCall();
+
+    PowerMock.replayAll();
+
+    tableMonitorThread.start();
+    tableMonitorThread.join();
+    assertEquals(SORTED_SECOND_TOPIC_LIST, tableMonitorThread.tables());
+
+    PowerMock.verifyAll();
+  }
 }
@@ -0,0 +1,167 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.source;
+
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.Collections;
+
+import javax.sql.rowset.serial.SerialBlob;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TableQuerierTest {
+  private static final String TABLE_NAME = "test";
+
+  private EmbeddedDerby db;
+
+  @Before
+  public void setup() throws Exception {
+    db = new EmbeddedDerby();
+    db.createTable(TABLE_NAME, "id", "INT NOT NULL");
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    db.close();
+    db.dropDatabase();
+  }
+
+  @Test
+  public void testAdaptivePollInterval() throws Exception {
+    TableQuerier querier = new BulkTableQuerier(TableQuerier.QueryMode.TABLE, TABLE_NAME, "test-",
+                                                0, LobLimit.UNLIMITED,
+                                                DataConverter.NumericMapping.NONE, 100, 400);
+    assertEquals(100, querier.getNextUpdate());
+
+    // Empty queries back off exponentially up to the maximum
+    runQuery(querier, 1000);
+    assertEquals(1200, querier.getNextUpdate());
+    runQuery(querier, 2000);
+    assertEquals(2400, querier.getNextUpdate());
+    runQuery(querier, 3000);
+    assertEquals(3400, querier.getNextUpdate());
+
+    // Any rows return to the minimum interval
+    db.insert(TABLE_NAME, "id", 1);
+    runQuery(querier, 4000);
+    assertEquals(4100, querier.getNextUpdate());
+  }
+
+  @Test
+  public void testPollIntervalResetsAfterBackoff() throws Exception {
+    TableQuerier querier = new TimestampIncrementingTableQuerier(
+        TableQuerier.QueryMode.TABLE, TABLE_NAME, "test-", null, "id", null, 0L,
+        new DatabaseClock(new MockTime(), 0), 0, 0, LobLimit.UNLIMITED,
+        DataConverter.NumericMapping.NONE, 100, 800);
+    db.insert(TABLE_NAME, "id", 1);
+    runQuery(querier, 1000);
+    assertEquals(1100, querier.getNextUpdate());
+
+    // Only new rows are returned, so the table now looks idle
+    runQuery(querier, 2000);
+    assertEquals(2200, querier.getNextUpdate());
+    runQuery(querier, 3000);
+    assertEquals(3400, querier.getNextUpdate());
+    runQuery(querier, 4000);
+    assertEquals(4800, querier.getNextUpdate());
+
+    // A new row returns to the minimum interval, and the next backoff starts over from it
+    db.insert(TABLE_NAME, "id", 2);
+    runQuery(querier, 5000);
+    assertEquals(5100, querier.getNextUpdate());
+    runQuery(querier, 6000);
+    assertEquals(6200, querier.getNextUpdate());
+  }
+
+  @Test
+  public void testFixedPollInterval() throws Exception {
+    TableQuerier querier = new BulkTableQuerier(TableQuerier.QueryMode.TABLE, TABLE_NAME, "test-",
+                                                0, LobLimit.UNLIMITED,
+                                                DataConverter.NumericMapping.NONE, 100, 0);
+    runQuery(querier, 1000);
+    assertEquals(1100, querier.getNextUpdate());
+    runQuery(querier, 2000);
+    assertEquals(2100, querier.getNextUpdate());
+  }
+
+  @Test
+  public void testRecordsShareSourcePartition() throws Exception {
+    db.insert(TABLE_NAME, "id", 1);
+    db.insert(TABLE_NAME, "id", 2);
+    TableQuerier querier = new BulkTableQuerier(TableQuerier.QueryMode.TABLE, TABLE_NAME, "test-",
+                                                0, LobLimit.UNLIMITED,
+                                                DataConverter.NumericMapping.NONE, 100, 0);
+    querier.maybeStartQuery(db.getConnection());
+    assertTrue(querier.next());
+    SourceRecord first = querier.extractRecord();
+    assertTrue(querier.next());
+    SourceRecord second = querier.extractRecord();
+    querier.close(0);
+
+    assertEquals("test-" + TABLE_NAME, first.topic());
+    assertEquals(Collections.singletonMap(JdbcSourceConnectorConstants.TABLE_NAME_KEY, TABLE_NAME),
+                 first.sourcePartition());
+    assertSame(first.sourcePartition(), second.sourcePartition());
+    assertSame(first.topic(), second.topic());
+  }
+
+  @Test
+  public void testLobLimit() throws Exception {
+    db.createTable("lobs", "b", "BLOB", "c", "CLOB", "l", "LONG VARCHAR");
+    db.insert("lobs", "b", new SerialBlob("0123456789".getBytes()), "c", "0123456789", "l", "0123456789");
+    TableQuerier querier = new BulkTableQuerier(
+        TableQuerier.QueryMode.TABLE, "lobs", "test-", 0,
+        new LobLimit(4, LobLimit.OverflowAction.TRUNCATE), DataConverter.NumericMapping.NONE,
+        100, 0);
+    querier.maybeStartQuery(db.getConnection());
+    assertTrue(querier.next());
+    Struct value = (Struct) querier.extractRecord().value();
+    querier.close(0);
+
+    assertArrayEquals("0123".getBytes(), value.getBytes("b"));
+    assertEquals("0123", value.getString("c"));
+    assertEquals("0123", value.getString("l"));
+  }
+
+  @Test(expected = ConnectException.class)
+  public void testKeyRangeRejectsFractionalKeys() throws Exception {
+    // Paging after the last key as an integer would skip the keys in between
+    db.createTable("decimals", "id", "DECIMAL(10, 2) NOT NULL");
+    TableQuerier querier = new KeyRangeTableQuerier(new TableKeyRange("decimals", null, null),
+                                                    "test-", "id", null, 0, 0, LobLimit.UNLIMITED,
+                                                    DataConverter.NumericMapping.NONE, 0, 0);
+    querier.maybeStartQuery(db.getConnection());
+  }
+
+  private void runQuery(TableQuerier querier, long now) throws SQLException {
+    querier.maybeStartQuery(db.getConnection());
+    while (querier.next()) {
+      querier.extractRecord();
+    }
+    querier.close(now);
+  }
+}
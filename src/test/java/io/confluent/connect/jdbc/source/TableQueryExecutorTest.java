@@ -0,0 +1,213 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.source;
+
+import org.apache.kafka.common.utils.SystemTime;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TableQueryExecutorTest {
+  private static final int TABLES = 4;
+  private static final int QUERIES = 5;
+  private static final long POLL_TIMEOUT_MS = 10000L;
+
+  private EmbeddedDerby db;
+  private List<Connection> connections;
+  private TableQueryExecutor executor;
+
+  @Before
+  public void setup() throws Exception {
+    db = new EmbeddedDerby();
+    for (int i = 0; i < TABLES; i++) {
+      db.createTable("table" + i, "id", "INT");
+      db.insert("table" + i, "id", i);
+    }
+    connections = Arrays.asList(db.getConnection(), DriverManager.getConnection(db.getUrl()));
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    if (executor != null) {
+      executor.stop();
+    }
+    db.close();
+    db.dropDatabase();
+  }
+
+  @Test
+  public void testQueriesRunOnTheConnectionOfTheirWorker() throws Exception {
+    List<RecordingQuerier> queriers = new ArrayList<>();
+    for (int i = 0; i < TABLES; i++) {
+      queriers.add(new RecordingQuerier("table" + i));
+    }
+    executor = new TableQueryExecutor(new SystemTime(), connections,
+                                      new ArrayList<TableQuerier>(queriers), 100, 0);
+    executor.start();
+
+    // Every table is queried over and over, more tables than workers have to take turns
+    for (RecordingQuerier querier : queriers) {
+      while (querier.queries() < QUERIES) {
+        List<SourceRecord> records = executor.poll(POLL_TIMEOUT_MS);
+        assertEquals(1, records.size());
+      }
+    }
+    executor.stop();
+    executor = null;
+
+    // Queriers may move between workers, but each worker only ever uses its own connection
+    Map<Thread, Set<Connection>> connectionsByWorker = new HashMap<>();
+    for (RecordingQuerier querier : queriers) {
+      for (Map.Entry<Thread, Set<Connection>> entry : querier.connectionsByWorker().entrySet()) {
+        if (!connectionsByWorker.containsKey(entry.getKey())) {
+          connectionsByWorker.put(entry.getKey(), new HashSet<Connection>());
+        }
+        connectionsByWorker.get(entry.getKey()).addAll(entry.getValue());
+      }
+    }
+    assertTrue(connectionsByWorker.size() <= connections.size());
+    Set<Connection> used = new HashSet<>();
+    for (Set<Connection> workerConnections : connectionsByWorker.values()) {
+      assertEquals(1, workerConnections.size());
+      assertTrue(used.addAll(workerConnections));
+    }
+    assertTrue(connections.containsAll(used));
+  }
+
+  @Test
+  public void testBlockedQueryDoesNotDelayOtherTables() throws Exception {
+    final CountDownLatch blocked = new CountDownLatch(1);
+    final CountDownLatch unblock = new CountDownLatch(1);
+    RecordingQuerier slow = new RecordingQuerier("table0") {
+      @Override
+      protected ResultSet executeQuery() throws SQLException {
+        blocked.countDown();
+        try {
+          unblock.await();
+        } catch (InterruptedException e) {
+          throw new SQLException(e);
+        }
+        return super.executeQuery();
+      }
+    };
+    List<RecordingQuerier> others = new ArrayList<>();
+    for (int i = 1; i < TABLES; i++) {
+      others.add(new RecordingQuerier("table" + i));
+    }
+    List<TableQuerier> queriers = new ArrayList<TableQuerier>(others);
+    queriers.add(0, slow);
+    executor = new TableQueryExecutor(new SystemTime(), connections, queriers, 100, 0);
+    executor.start();
+    assertTrue(blocked.await(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+    // While one worker is stuck on the slow table, the other one keeps querying all the rest
+    try {
+      long deadline = System.currentTimeMillis() + POLL_TIMEOUT_MS;
+      for (RecordingQuerier querier : others) {
+        while (querier.queries() < QUERIES && System.currentTimeMillis() < deadline) {
+          executor.poll(100);
+        }
+        assertTrue(querier + " was not queried while another table was blocked",
+                   querier.queries() >= QUERIES);
+      }
+    } finally {
+      unblock.countDown();
+    }
+  }
+
+  @Test
+  public void testWorkerFailureFailsPoll() throws Exception {
+    TableQuerier failing = new BulkTableQuerier(TableQuerier.QueryMode.TABLE, "table0", "test-", 0,
+                                                LobLimit.UNLIMITED,
+                                                DataConverter.NumericMapping.NONE, 0, 0) {
+      @Override
+      public SourceRecord extractRecord() throws SQLException {
+        throw new ConnectException("Invalid row");
+      }
+    };
+    executor = new TableQueryExecutor(new SystemTime(), connections,
+                                      Arrays.asList(failing, new RecordingQuerier("table1")),
+                                      100, 0);
+    executor.start();
+
+    long deadline = System.currentTimeMillis() + POLL_TIMEOUT_MS;
+    while (System.currentTimeMillis() < deadline) {
+      try {
+        executor.poll(100);
+      } catch (ConnectException e) {
+        assertEquals("Invalid row", e.getCause().getMessage());
+        // The failed query doesn't keep its result set open
+        assertFalse(failing.querying());
+        return;
+      }
+    }
+    fail("The worker's failure was never reported");
+  }
+
+  // Records the connections every worker thread ran queries of the table on
+  private static class RecordingQuerier extends BulkTableQuerier {
+    private final Map<Thread, Set<Connection>> connectionsByWorker = new HashMap<>();
+    private int queries;
+
+    RecordingQuerier(String table) {
+      super(QueryMode.TABLE, table, "test-", 0, LobLimit.UNLIMITED,
+            DataConverter.NumericMapping.NONE, 0, 0);
+    }
+
+    @Override
+    protected ResultSet executeQuery() throws SQLException {
+      synchronized (this) {
+        Thread worker = Thread.currentThread();
+        if (!connectionsByWorker.containsKey(worker)) {
+          connectionsByWorker.put(worker, new HashSet<Connection>());
+        }
+        connectionsByWorker.get(worker).add(stmt.getConnection());
+        queries++;
+      }
+      return super.executeQuery();
+    }
+
+    synchronized int queries() {
+      return queries;
+    }
+
+    synchronized Map<Thread, Set<Connection>> connectionsByWorker() {
+      return new HashMap<>(connectionsByWorker);
+    }
+  }
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.source;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import io.confluent.connect.jdbc.source.TimestampIncrementingTableQuerier.PredicateStrategy;
+import io.confluent.connect.jdbc.util.JdbcUtils;
+
+import static org.junit.Assert.assertEquals;
+
+public class TimestampIncrementingTableQuerierTest {
+  private static final String TABLE_NAME = "test";
+
+  private EmbeddedDerby db;
+
+  @Before
+  public void setup() throws Exception {
+    db = new EmbeddedDerby();
+    db.createTable(TABLE_NAME, "modified", "TIMESTAMP NOT NULL", "id", "INT NOT NULL");
+    // Rows up to and including the offset of (10, 2) must be skipped
+    insert(9L, 5);
+    insert(10L, 1);
+    insert(10L, 2);
+    insert(10L, 3);
+    insert(11L, 1);
+    insert(12L, 4);
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    db.close();
+    db.dropDatabase();
+  }
+
+  @Test
+  public void testPredicateStrategyForDatabase() {
+    assertEquals(PredicateStrategy.ROW_VALUE, PredicateStrategy.forDatabase("PostgreSQL"));
+    assertEquals(PredicateStrategy.ROW_VALUE, PredicateStrategy.forDatabase("MySQL"));
+    assertEquals(PredicateStrategy.UNION, PredicateStrategy.forDatabase("Apache Derby"));
+    assertEquals(PredicateStrategy.UNION, PredicateStrategy.forDatabase("Oracle"));
+    assertEquals(PredicateStrategy.OR, PredicateStrategy.forDatabase("SQLite"));
+  }
+
+  @Test
+  public void testUnion() throws Exception {
+    // Derby's own strategy
+    assertEquals(Arrays.asList("10:3", "11:1", "12:4"), query(null, 0));
+  }
+
+  @Test
+  public void testOr() throws Exception {
+    assertEquals(Arrays.asList("10:3", "11:1", "12:4"), query(PredicateStrategy.OR, 0));
+  }
+
+  @Test
+  public void testPaged() throws Exception {
+    // Every page continues from the offset of the previous one, whether the page size divides the
+    // number of rows or not
+    assertEquals(Arrays.asList("10:3", "11:1", "12:4"), query(null, 1));
+    assertEquals(Arrays.asList("10:3", "11:1", "12:4"), query(null, 2));
+    assertEquals(Arrays.asList("10:3", "11:1", "12:4"), query(PredicateStrategy.OR, 2));
+  }
+
+  @Test
+  public void testNarrowIncrementingColumn() throws Exception {
+    // Small NUMBER(p, 0) columns map to INT8 or INT16, which are widened to long offsets
+    db.createTable("narrow", "id", "DECIMAL(4, 0) NOT NULL");
+    db.insert("narrow", "id", 1);
+    db.insert("narrow", "id", 2);
+    TableQuerier querier = new TimestampIncrementingTableQuerier(
+        TableQuerier.QueryMode.TABLE, "narrow", "test-", null, "id", null, 0L,
+        new DatabaseClock(new MockTime(), 0), 0, 0, LobLimit.UNLIMITED,
+        DataConverter.NumericMapping.PRECISION_ONLY, 0, 0);
+    List<Long> offsets = new ArrayList<>();
+    querier.maybeStartQuery(db.getConnection());
+    while (querier.next()) {
+      SourceRecord record = querier.extractRecord();
+      assertEquals(Schema.Type.INT16, record.valueSchema().field("id").schema().type());
+      offsets.add(TimestampIncrementingOffset.fromMap(record.sourceOffset())
+                      .getIncrementingOffset());
+    }
+    querier.close(0);
+    assertEquals(Arrays.asList(1L, 2L), offsets);
+  }
+
+  // Read the rows after the offset, overriding the strategy if given, as timestamp:id pairs
+  private List<String> query(final PredicateStrategy strategy, int pageSize) throws Exception {
+    TimestampIncrementingOffset offset = new TimestampIncrementingOffset(new Timestamp(10L), 2L);
+    TableQuerier querier = new TimestampIncrementingTableQuerier(
+        TableQuerier.QueryMode.TABLE, TABLE_NAME, "test-", "modified", "id", offset.toMap(), 0L,
+        new DatabaseClock(new MockTime(), 0), pageSize, 0, LobLimit.UNLIMITED,
+        DataConverter.NumericMapping.NONE, 0, 0) {
+      @Override
+      protected PredicateStrategy predicateStrategy(Connection db) throws SQLException {
+        return strategy != null ? strategy : super.predicateStrategy(db);
+      }
+    };
+    List<String> rows = new ArrayList<>();
+    querier.maybeStartQuery(db.getConnection());
+    while (querier.next()) {
+      Struct value = (Struct) querier.extractRecord().value();
+      rows.add(((Date) value.get("modified")).getTime() + ":" + value.get("id"));
+    }
+    querier.close(0);
+    return rows;
+  }
+
+  private void insert(long timestamp, int id) throws Exception {
+    db.insert(TABLE_NAME, "modified", JdbcUtils.formatUTC(new Timestamp(timestamp)), "id", id);
+  }
+}
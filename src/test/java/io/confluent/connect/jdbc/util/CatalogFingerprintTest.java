@@ -0,0 +1,72 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+import io.confluent.connect.jdbc.sink.SqliteHelper;
+import io.confluent.connect.jdbc.source.EmbeddedDerby;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class CatalogFingerprintTest {
+
+  private final SqliteHelper sqliteHelper = new SqliteHelper(getClass().getSimpleName());
+
+  @Before
+  public void setUp() throws IOException, SQLException {
+    sqliteHelper.setUp();
+  }
+
+  @After
+  public void tearDown() throws IOException, SQLException {
+    sqliteHelper.tearDown();
+  }
+
+  @Test
+  public void testChangesWithTables() throws Exception {
+    String empty = CatalogFingerprint.of(sqliteHelper.connection);
+    assertNotNull(empty);
+    assertEquals(empty, CatalogFingerprint.of(sqliteHelper.connection));
+
+    sqliteHelper.createTable("CREATE TABLE test (id INTEGER)");
+    String created = CatalogFingerprint.of(sqliteHelper.connection);
+    assertNotEquals(empty, created);
+
+    sqliteHelper.execute("ALTER TABLE test RENAME TO renamed");
+    assertNotEquals(created, CatalogFingerprint.of(sqliteHelper.connection));
+  }
+
+  @Test
+  public void testUnsupportedDatabase() throws Exception {
+    EmbeddedDerby db = new EmbeddedDerby();
+    try {
+      assertNull(CatalogFingerprint.of(db.getConnection()));
+    } finally {
+      db.close();
+      db.dropDatabase();
+    }
+  }
+}
@@ -0,0 +1,257 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.confluent.connect.jdbc.source.EmbeddedDerby;
+import io.confluent.connect.jdbc.source.MockTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ConnectionPoolTest {
+  private static final long IDLE_TIMEOUT_MS = 60000L;
+  private static final long MAX_LIFETIME_MS = 600000L;
+
+  private EmbeddedDerby db;
+  private MockTime time;
+
+  @Before
+  public void setup() {
+    db = new EmbeddedDerby();
+    time = new MockTime();
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    db.close();
+    db.dropDatabase();
+  }
+
+  private ConnectionPool pool(int maxSize, long idleTimeoutMs) {
+    return new ConnectionPool(db.getUrl(), null, null, maxSize, idleTimeoutMs, MAX_LIFETIME_MS,
+                              time);
+  }
+
+  @Test
+  public void testClosedConnectionsAreReused() throws Exception {
+    ConnectionPool pool = pool(0, IDLE_TIMEOUT_MS);
+    Connection first = pool.getConnection();
+    String underlying = first.toString();
+    first.close();
+    assertTrue(first.isClosed());
+    assertEquals(1, pool.size());
+    assertEquals(1, pool.idleSize());
+
+    Connection second = pool.getConnection();
+    assertNotSame(first, second);
+    assertEquals(underlying, second.toString());
+    assertFalse(second.isClosed());
+    assertEquals(0, pool.idleSize());
+    second.close();
+  }
+
+  @Test
+  public void testReturnedConnectionsAreReset() throws Exception {
+    ConnectionPool pool = pool(0, IDLE_TIMEOUT_MS);
+    Connection first = pool.getConnection();
+    first.setAutoCommit(false);
+    first.close();
+
+    Connection second = pool.getConnection();
+    assertTrue(second.getAutoCommit());
+    second.close();
+  }
+
+  @Test
+  public void testReturnedConnectionsCloseOpenStatements() throws Exception {
+    ConnectionPool pool = pool(0, IDLE_TIMEOUT_MS);
+    Connection connection = pool.getConnection();
+    PreparedStatement prepared = connection.prepareStatement("VALUES 1");
+    ResultSet resultSet = prepared.executeQuery();
+    Statement closedByUser = connection.createStatement();
+    closedByUser.close();
+    connection.close();
+
+    assertTrue(prepared.isClosed());
+    assertTrue(resultSet.isClosed());
+    assertTrue(closedByUser.isClosed());
+  }
+
+  @Test
+  public void testUseAfterCloseFails() throws Exception {
+    ConnectionPool pool = pool(0, IDLE_TIMEOUT_MS);
+    Connection connection = pool.getConnection();
+    connection.close();
+    // Closing again must not return the connection to the pool twice
+    connection.close();
+    assertEquals(1, pool.idleSize());
+    try {
+      connection.createStatement();
+      fail("Expected use of a returned connection to fail");
+    } catch (SQLException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testNoIdleTimeoutClosesConnections() throws Exception {
+    ConnectionPool pool = pool(0, 0);
+    Connection connection = pool.getConnection();
+    connection.close();
+    assertEquals(0, pool.size());
+    assertEquals(0, pool.idleSize());
+  }
+
+  @Test
+  public void testEvictIdle() throws Exception {
+    ConnectionPool pool = pool(0, IDLE_TIMEOUT_MS);
+    Connection first = pool.getConnection();
+    Connection second = pool.getConnection();
+    first.close();
+    time.sleep(IDLE_TIMEOUT_MS / 2);
+    second.close();
+
+    time.sleep(IDLE_TIMEOUT_MS / 2);
+    pool.evictIdle();
+    assertEquals(1, pool.size());
+    assertEquals(1, pool.idleSize());
+
+    time.sleep(IDLE_TIMEOUT_MS / 2);
+    pool.evictIdle();
+    assertEquals(0, pool.size());
+  }
+
+  @Test
+  public void testMaxLifetime() throws Exception {
+    ConnectionPool pool = pool(0, MAX_LIFETIME_MS * 2);
+    Connection first = pool.getConnection();
+    String underlying = first.toString();
+    first.close();
+
+    time.sleep(MAX_LIFETIME_MS);
+    Connection second = pool.getConnection();
+    assertFalse(underlying.equals(second.toString()));
+    assertEquals(1, pool.size());
+    second.close();
+  }
+
+  @Test
+  public void testMaxSizeWaitsForReturnedConnection() throws Exception {
+    final ConnectionPool pool = pool(1, IDLE_TIMEOUT_MS);
+    Connection first = pool.getConnection();
+    final AtomicReference<Connection> second = new AtomicReference<>();
+    Thread waiter = new Thread() {
+      @Override
+      public void run() {
+        try {
+          second.set(pool.getConnection());
+        } catch (SQLException e) {
+          // Leaves the reference unset and fails the test
+        }
+      }
+    };
+    waiter.start();
+    Thread.sleep(100);
+    assertTrue(waiter.isAlive());
+
+    first.close();
+    waiter.join(10000);
+    assertNotNull(second.get());
+    assertEquals(1, pool.size());
+    second.get().close();
+  }
+
+  @Test
+  public void testMaxSizeCountsConnectionsOfAllPoolsForTheUrl() throws Exception {
+    EmbeddedDerby shared = new EmbeddedDerby("shared_pool_limit");
+    try {
+      final ConnectionPool pool = ConnectionPool.get(shared.getUrl(), null, null, 2,
+                                                     IDLE_TIMEOUT_MS, MAX_LIFETIME_MS);
+      final ConnectionPool otherSettings = ConnectionPool.get(shared.getUrl(), null, null, 2,
+                                                              IDLE_TIMEOUT_MS / 2,
+                                                              MAX_LIFETIME_MS);
+      Connection first = pool.getConnection();
+      otherSettings.getConnection().close();
+      assertEquals(1, otherSettings.idleSize());
+
+      // The connection idle in the other pool is closed to make room
+      Connection second = pool.getConnection();
+      assertEquals(0, otherSettings.size());
+      assertEquals(2, pool.size());
+
+      // With both connections in use, the other pool waits for one to be returned
+      final AtomicReference<Connection> third = new AtomicReference<>();
+      Thread waiter = new Thread() {
+        @Override
+        public void run() {
+          try {
+            third.set(otherSettings.getConnection());
+          } catch (SQLException e) {
+            // Leaves the reference unset and fails the test
+          }
+        }
+      };
+      waiter.start();
+      Thread.sleep(100);
+      assertTrue(waiter.isAlive());
+
+      first.close();
+      waiter.join(10000);
+      assertNotNull(third.get());
+      assertEquals(1, pool.size());
+      assertEquals(1, otherSettings.size());
+      second.close();
+      third.get().close();
+    } finally {
+      shared.close();
+      shared.dropDatabase();
+    }
+  }
+
+  @Test
+  public void testSharedPools() {
+    ConnectionPool pool = ConnectionPool.get(db.getUrl(), null, null, 0, IDLE_TIMEOUT_MS,
+                                             MAX_LIFETIME_MS);
+    assertSame(pool, ConnectionPool.get(db.getUrl(), null, null, 0, IDLE_TIMEOUT_MS,
+                                        MAX_LIFETIME_MS));
+    assertNotSame(pool, ConnectionPool.get(db.getUrl(), null, null, 1, IDLE_TIMEOUT_MS,
+                                           MAX_LIFETIME_MS));
+
+    ConnectionPool withPassword = ConnectionPool.get(db.getUrl(), "user", "secret", 0,
+                                                     IDLE_TIMEOUT_MS, MAX_LIFETIME_MS);
+    assertSame(withPassword, ConnectionPool.get(db.getUrl(), "user", "secret", 0,
+                                                IDLE_TIMEOUT_MS, MAX_LIFETIME_MS));
+    assertNotSame(withPassword, ConnectionPool.get(db.getUrl(), "user", "other", 0,
+                                                   IDLE_TIMEOUT_MS, MAX_LIFETIME_MS));
+  }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright 2016 Confluent Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package io.confluent.connect.jdbc.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class WeightedPartitionerTest {
+
+  @Test
+  public void testBalancesWeight() {
+    List<String> tables = Arrays.asList("a", "b", "c", "d", "e", "f");
+    List<Long> weights = Arrays.asList(1000L, 900L, 10L, 10L, 10L, 50L);
+    List<List<String>> groups = WeightedPartitioner.groupPartitions(tables, weights, 2);
+    // Round-robin by count would put both large tables in the first group
+    assertEquals(Arrays.asList(
+        Arrays.asList("a"),
+        Arrays.asList("b", "c", "d", "e", "f")
+    ), groups);
+  }
+
+  @Test
+  public void testKeepsOriginalOrderWithinGroups() {
+    List<String> tables = Arrays.asList("a", "b", "c", "d");
+    List<Long> weights = Arrays.asList(1L, 5L, 2L, 4L);
+    List<List<String>> groups = WeightedPartitioner.groupPartitions(tables, weights, 2);
+    assertEquals(Arrays.asList(
+        Arrays.asList("a", "b"),
+        Arrays.asList("c", "d")
+    ), groups);
+  }
+
+  @Test
+  public void testEqualWeightsBalanceCount() {
+    List<String> tables = Arrays.asList("a", "b", "c", "d", "e");
+    List<Long> weights = Collections.nCopies(5, 1L);
+    List<List<String>> groups = WeightedPartitioner.groupPartitions(tables, weights, 3);
+    assertEquals(Arrays.asList(
+        Arrays.asList("a", "d"),
+        Arrays.asList("b", "e"),
+        Arrays.asList("c")
+    ), groups);
+  }
+
+  @Test
+  public void testMoreGroupsThanElements() {
+    List<List<String>> groups = WeightedPartitioner.groupPartitions(
+        Arrays.asList("a"), Arrays.asList(1L), 2);
+    assertEquals(Arrays.asList(Arrays.asList("a"), Collections.<String>emptyList()), groups);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMismatchedWeights() {
+    WeightedPartitioner.groupPartitions(Arrays.asList("a", "b"), Arrays.asList(1L), 1);
+  }
+}